@@ -18,7 +18,7 @@
 package org.anhonesteffort.trading;
 
 import org.anhonesteffort.trading.dsl.Runtime.DslContext;
-import org.anhonesteffort.trading.http.HttpClientWrapper;
+import org.anhonesteffort.trading.http.ExchangeClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,11 +35,11 @@ public class ShutdownProcedure implements Callable<Void> {
 
   private final ExecutorService pool = Executors.newFixedThreadPool(1);
   private final AtomicBoolean shutdown = new AtomicBoolean(false);
-  private final HttpClientWrapper http;
+  private final ExchangeClient http;
   private final Optional<DslContext> dsl;
   private final Service[] services;
 
-  public ShutdownProcedure(HttpClientWrapper http, Optional<DslContext> dsl, Service... services) {
+  public ShutdownProcedure(ExchangeClient http, Optional<DslContext> dsl, Service... services) {
     this.http     = http;
     this.dsl      = dsl;
     this.services = services;
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.anhonesteffort.trading;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class ThreadAffinity {
+
+  private static final Logger log = LoggerFactory.getLogger(ThreadAffinity.class);
+
+  public static final int CPU_NONE = -1;
+
+  private ThreadAffinity() { }
+
+  private static String currentThreadId() throws IOException {
+    return Files.readSymbolicLink(Paths.get("/proc/thread-self")).getFileName().toString();
+  }
+
+  public static boolean pinCurrentThread(int cpu) {
+    if (cpu == CPU_NONE) {
+      return false;
+    }
+
+    try {
+
+      String  threadId = currentThreadId();
+      Process taskset  = new ProcessBuilder("taskset", "-p", "-c", Integer.toString(cpu), threadId)
+          .redirectErrorStream(true)
+          .redirectOutput(new File("/dev/null"))
+          .start();
+
+      if (taskset.waitFor() == 0) {
+        log.info("pinned thread " + Thread.currentThread().getName() + " to cpu " + cpu);
+        return true;
+      } else {
+        log.warn("taskset exited with " + taskset.exitValue() + " pinning thread " + threadId + " to cpu " + cpu);
+        return false;
+      }
+
+    } catch (IOException e) {
+      log.warn("unable to pin thread " + Thread.currentThread().getName() + " to cpu " + cpu, e);
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  public static Runnable pinned(int cpu, Runnable runnable) {
+    return () -> {
+      pinCurrentThread(cpu);
+      runnable.run();
+    };
+  }
+
+}
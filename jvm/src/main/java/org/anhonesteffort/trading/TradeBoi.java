@@ -17,21 +17,27 @@
 
 package org.anhonesteffort.trading;
 
-import com.lmax.disruptor.BlockingWaitStrategy;
 import com.lmax.disruptor.EventHandler;
 import org.anhonesteffort.trading.book.CompatLimitOrderBook;
+import org.anhonesteffort.trading.book.OrderPool;
 import org.anhonesteffort.trading.disruptor.DisruptorService;
 import org.anhonesteffort.trading.dsl.Runtime.DslContext;
+import org.anhonesteffort.trading.http.ExchangeClient;
 import org.anhonesteffort.trading.http.HttpClientWrapper;
+import org.anhonesteffort.trading.journal.JournalReplayService;
+import org.anhonesteffort.trading.journal.JournalWriter;
+import org.anhonesteffort.trading.sim.SimulatedExchange;
 import org.anhonesteffort.trading.state.StateListener;
 import org.anhonesteffort.trading.stats.StatsService;
 import org.anhonesteffort.trading.strategy.MetaStrategy;
 import org.anhonesteffort.trading.strategy.impl.SimpleStrategyFactory;
 import org.anhonesteffort.trading.ws.WsService;
 import org.anhonesteffort.trading.state.MatchingStateCurator;
-import org.anhonesteffort.trading.state.GdaxEvent;
+import org.anhonesteffort.trading.state.StateCurator;
+import org.anhonesteffort.trading.state.StateListenerStage;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -49,47 +55,73 @@ public class TradeBoi {
     http   = new HttpClientWrapper(config);
   }
 
-  private EventHandler<GdaxEvent> handlerFor(StateListener... listeners) {
-    return new MatchingStateCurator(
-        new CompatLimitOrderBook(),
-        new HashSet<>(Arrays.asList(listeners))
-    );
+  private StateListenerStage handlerFor(StateCurator curator, StateListener... listeners) {
+    return new StateListenerStage(curator, new HashSet<>(Arrays.asList(listeners)));
   }
 
   private void run() throws Exception {
-    List<EventHandler> processors = new LinkedList<>();
-    StatsService       statistics = new StatsService(config);
-    DslContext         dslContext = null;
+    CompatLimitOrderBook        book       = new CompatLimitOrderBook(new OrderPool(config.getBookPoolSize()));
+    StateCurator                curator    = new MatchingStateCurator(book, config.getRebuildMode());
+    List<StateListenerStage>    processors = new LinkedList<>();
+    StatsService                statistics = new StatsService(config);
+    DslContext                  dslContext = null;
+    EventHandler[]              raw        = new EventHandler[0];
+    boolean                     replaying  = !config.getReplayDir().isEmpty();
+    Optional<SimulatedExchange> simulated  = Optional.empty();
+    ExchangeClient              exchange   = http;
+
+    if (config.getSimEnabled() && !replaying) {
+      throw new IllegalStateException("the simulated exchange can only be used while replaying a journal");
+    } else if (replaying && config.getTradingEnabled() && !config.getSimEnabled()) {
+      throw new IllegalStateException("trading while replaying a journal requires the simulated exchange");
+    } else if (config.getSimEnabled()) {
+      simulated = Optional.of(new SimulatedExchange(config.getSimLatencyMs(), config.getBookPoolSize()));
+      exchange  = simulated.get();
+    }
 
     if (config.getTradingEnabled()) {
       processors.add(handlerFor(
-          new MetaStrategy(new SimpleStrategyFactory(http))
+          curator, new MetaStrategy(new SimpleStrategyFactory(exchange))
       ));
     }
 
     if (config.getReplEnabled()) {
-      processors.add(handlerFor(dslContext = new DslContext()));
+      processors.add(handlerFor(curator, dslContext = new DslContext()));
     }
 
     if (config.getStatsEnabled()) {
-      processors.add(handlerFor(statistics.listener()));
+      processors.add(handlerFor(curator, statistics.listener()));
     }
 
     if (processors.isEmpty()) {
       throw new RuntimeException("you gotta enable something, dude");
     }
 
-    DisruptorService disruptor = new DisruptorService(
-        config, new BlockingWaitStrategy(), processors.toArray(new EventHandler[processors.size()])
-    );
+    if (config.getJournalEnabled() && !replaying) {
+      raw = new EventHandler[] {
+          new JournalWriter(Paths.get(config.getJournalDir()), config.getJournalSegmentSize())
+      };
+    }
 
-    WsService wsService = new WsService(config, disruptor.ringBuffer(), http);
+    EventHandler[] perEvent  = processors.stream().filter(stage -> !stage.isConflated()).toArray(EventHandler[]::new);
+    EventHandler[] conflated = processors.stream().filter(StateListenerStage::isConflated).toArray(EventHandler[]::new);
+    DisruptorService disruptor = new DisruptorService(config, curator, perEvent, conflated, raw);
+
+    Service feed;
+    if (replaying) {
+      simulated.ifPresent(simulator -> simulator.setRingBuffer(disruptor.ringBuffer()));
+      feed = new JournalReplayService(
+          disruptor.ringBuffer(), Paths.get(config.getReplayDir()), config.getReplaySpeed(), simulated
+      );
+    } else {
+      feed = new WsService(config, disruptor.ringBuffer(), disruptor.metrics(), http);
+    }
 
     if (config.getStatsEnabled()) { statistics.start(); }
     disruptor.start();
-    wsService.start();
+    feed.start();
 
-    new ShutdownProcedure(http, Optional.ofNullable(dslContext), statistics, disruptor, wsService).call();
+    new ShutdownProcedure(exchange, Optional.ofNullable(dslContext), statistics, disruptor, feed).call();
   }
 
   public static void main(String[] args) throws Exception {
@@ -19,13 +19,38 @@ package org.anhonesteffort.trading;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Properties;
 
 public class TradeBoiConfig {
 
   private final Integer wsBufferSize;
+  private final String  wsDecoder;
+  private final String  wsResyncMode;
+  private final Integer wsResyncBufferSize;
+  private final String  wsOverflowPolicy;
   private final Integer wsConnectTimeoutMs;
   private final Long    wsReadTimeoutMs;
+  private final Integer wsCpu;
+  private final String  waitStrategy;
+  private final int[]   disruptorCpus;
+  private final String  disruptorSlots;
+  private final Long    metricsSampleMs;
+  private final Long    metricsReportMs;
+  private final String  rebuildMode;
+  private final Integer bookPoolSize;
+  private final Boolean journalEnabled;
+  private final String  journalDir;
+  private final Integer journalSegmentSize;
+  private final String  replayDir;
+  private final Double  replaySpeed;
+  private final Boolean simEnabled;
+  private final Long    simLatencyMs;
+  private final String  sweepBidSizes;
+  private final String  sweepBidPlacements;
+  private final String  sweepBidAbortMs;
+  private final String  sweepAskAbortMs;
+  private final Integer sweepThreads;
   private final Boolean tradingEnabled;
   private final Boolean gdaxSandbox;
   private final String  gdaxAccessKey;
@@ -36,12 +61,37 @@ public class TradeBoiConfig {
   private final Integer statsPort;
 
   public TradeBoiConfig() throws IOException {
-    Properties properties = new Properties();
-    properties.load(new FileInputStream("scam.properties"));
+    this(load("scam.properties"));
+  }
 
+  public TradeBoiConfig(Properties properties) {
     wsBufferSize       = Integer.parseInt(properties.getProperty("ws_buffer_size"));
+    wsDecoder          = properties.getProperty("ws_decoder", "bytebuf");
+    wsResyncMode       = properties.getProperty("ws_resync_mode", "async");
+    wsResyncBufferSize = Integer.parseInt(properties.getProperty("ws_resync_buffer_size", "65536"));
+    wsOverflowPolicy   = properties.getProperty("ws_overflow_policy", "block");
     wsConnectTimeoutMs = Integer.parseInt(properties.getProperty("ws_connect_timeout_ms"));
     wsReadTimeoutMs    = Long.parseLong(properties.getProperty("ws_read_timeout_ms"));
+    wsCpu              = Integer.parseInt(properties.getProperty("ws_cpu", "-1"));
+    waitStrategy       = properties.getProperty("disruptor_wait_strategy", "blocking");
+    disruptorCpus      = parseCpus(properties.getProperty("disruptor_cpus", ""));
+    disruptorSlots     = properties.getProperty("disruptor_slots", "heap");
+    metricsSampleMs    = Long.parseLong(properties.getProperty("metrics_sample_ms", "100"));
+    metricsReportMs    = Long.parseLong(properties.getProperty("metrics_report_ms", "60000"));
+    rebuildMode        = properties.getProperty("rebuild_mode", "clear");
+    bookPoolSize       = Integer.parseInt(properties.getProperty("book_pool_size", "65536"));
+    journalEnabled     = Boolean.parseBoolean(properties.getProperty("journal_enabled", "false"));
+    journalDir         = properties.getProperty("journal_dir", "journal");
+    journalSegmentSize = Integer.parseInt(properties.getProperty("journal_segment_size", "1048576"));
+    replayDir          = properties.getProperty("replay_dir", "");
+    replaySpeed        = Double.parseDouble(properties.getProperty("replay_speed", "0"));
+    simEnabled         = Boolean.parseBoolean(properties.getProperty("sim_enabled", "false"));
+    simLatencyMs       = Long.parseLong(properties.getProperty("sim_latency_ms", "50"));
+    sweepBidSizes      = properties.getProperty("sweep_bid_sizes", "0.01");
+    sweepBidPlacements = properties.getProperty("sweep_bid_placements", "0.75");
+    sweepBidAbortMs    = properties.getProperty("sweep_bid_abort_ms", "12000");
+    sweepAskAbortMs    = properties.getProperty("sweep_ask_abort_ms", "2250");
+    sweepThreads       = Integer.parseInt(properties.getProperty("sweep_threads", "0"));
     tradingEnabled     = Boolean.parseBoolean(properties.getProperty("trading_enabled"));
     gdaxSandbox        = Boolean.parseBoolean(properties.getProperty("gdax_sandbox"));
     gdaxAccessKey      = properties.getProperty("gdax_access_key");
@@ -52,10 +102,42 @@ public class TradeBoiConfig {
     statsPort          = Integer.parseInt(properties.getProperty("stats_port"));
   }
 
+  private static Properties load(String path) throws IOException {
+    Properties properties = new Properties();
+    try (FileInputStream in = new FileInputStream(path)) {
+      properties.load(in);
+    }
+    return properties;
+  }
+
+  private static int[] parseCpus(String cpus) {
+    if (cpus.trim().isEmpty()) {
+      return new int[0];
+    } else {
+      return Arrays.stream(cpus.split(",")).mapToInt(cpu -> Integer.parseInt(cpu.trim())).toArray();
+    }
+  }
+
   public Integer getWsBufferSize() {
     return wsBufferSize;
   }
 
+  public String getWsDecoder() {
+    return wsDecoder;
+  }
+
+  public String getWsResyncMode() {
+    return wsResyncMode;
+  }
+
+  public Integer getWsResyncBufferSize() {
+    return wsResyncBufferSize;
+  }
+
+  public String getWsOverflowPolicy() {
+    return wsOverflowPolicy;
+  }
+
   public Integer getWsConnectTimeoutMs() {
     return wsConnectTimeoutMs;
   }
@@ -64,6 +146,86 @@ public class TradeBoiConfig {
     return wsReadTimeoutMs;
   }
 
+  public Integer getWsCpu() {
+    return wsCpu;
+  }
+
+  public String getWaitStrategy() {
+    return waitStrategy;
+  }
+
+  public int[] getDisruptorCpus() {
+    return disruptorCpus;
+  }
+
+  public String getDisruptorSlots() {
+    return disruptorSlots;
+  }
+
+  public Long getMetricsSampleMs() {
+    return metricsSampleMs;
+  }
+
+  public Long getMetricsReportMs() {
+    return metricsReportMs;
+  }
+
+  public String getRebuildMode() {
+    return rebuildMode;
+  }
+
+  public Integer getBookPoolSize() {
+    return bookPoolSize;
+  }
+
+  public Boolean getJournalEnabled() {
+    return journalEnabled;
+  }
+
+  public String getJournalDir() {
+    return journalDir;
+  }
+
+  public Integer getJournalSegmentSize() {
+    return journalSegmentSize;
+  }
+
+  public String getReplayDir() {
+    return replayDir;
+  }
+
+  public Double getReplaySpeed() {
+    return replaySpeed;
+  }
+
+  public Boolean getSimEnabled() {
+    return simEnabled;
+  }
+
+  public Long getSimLatencyMs() {
+    return simLatencyMs;
+  }
+
+  public String getSweepBidSizes() {
+    return sweepBidSizes;
+  }
+
+  public String getSweepBidPlacements() {
+    return sweepBidPlacements;
+  }
+
+  public String getSweepBidAbortMs() {
+    return sweepBidAbortMs;
+  }
+
+  public String getSweepAskAbortMs() {
+    return sweepAskAbortMs;
+  }
+
+  public Integer getSweepThreads() {
+    return sweepThreads;
+  }
+
   public Boolean getTradingEnabled() {
     return tradingEnabled;
   }
@@ -16,38 +16,177 @@
  */
 package org.anhonesteffort.trading.disruptor;
 
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
 import com.lmax.disruptor.EventFactory;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.PhasedBackoffWaitStrategy;
 import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SleepingWaitStrategy;
 import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
 import com.lmax.disruptor.dsl.ProducerType;
 import org.anhonesteffort.trading.TradeBoiConfig;
 import org.anhonesteffort.trading.Service;
+import org.anhonesteffort.trading.ThreadAffinity;
+import org.anhonesteffort.trading.state.DirectGdaxEvent;
 import org.anhonesteffort.trading.state.GdaxEvent;
+import org.anhonesteffort.trading.state.HeapGdaxEvent;
+import org.anhonesteffort.trading.state.StateCurator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 public class DisruptorService implements Service, ExceptionHandler<GdaxEvent>, EventFactory<GdaxEvent> {
 
+  private static final Logger log = LoggerFactory.getLogger(DisruptorService.class);
+
+  public static final String WAIT_BLOCKING = "blocking";
+  public static final String WAIT_SLEEPING = "sleeping";
+  public static final String WAIT_YIELDING = "yielding";
+  public static final String WAIT_PHASED   = "phased";
+  public static final String WAIT_BUSY     = "busy_spin";
+
+  public static final String SLOTS_HEAP   = "heap";
+  public static final String SLOTS_DIRECT = "direct";
+
   private final CompletableFuture<Void> shutdownFuture = new CompletableFuture<>();
   private final Disruptor<GdaxEvent> wsDisruptor;
+  private final StateCurator curator;
   private final EventHandler[] handlers;
+  private final EventHandler[] conflated;
+  private final EventHandler[] raw;
+  private final RingMetrics metrics;
+  private final long metricsSampleMs;
+  private final String waitStrategy;
+  private final Optional<ByteBuffer> slab;
+  private int slotCount = 0;
+  private Optional<ScheduledExecutorService> sampler = Optional.empty();
 
-  public DisruptorService(TradeBoiConfig config, WaitStrategy waitStrategy, EventHandler[] handlers) {
-    this.handlers = handlers;
-    wsDisruptor   = new Disruptor<>(
-        this, config.getWsBufferSize(), new DisruptorThreadFactory(),
-        ProducerType.SINGLE, waitStrategy
+  public DisruptorService(
+      TradeBoiConfig config, StateCurator curator, EventHandler[] handlers, EventHandler[] conflated, EventHandler[] raw
+  ) {
+    this.curator   = curator;
+    this.handlers  = handlers;
+    this.conflated = conflated;
+    this.raw       = raw;
+    waitStrategy   = config.getWaitStrategy();
+    slab           = slabFor(config.getDisruptorSlots(), config.getWsBufferSize());
+    wsDisruptor    = new Disruptor<>(
+        this, config.getWsBufferSize(), new DisruptorThreadFactory(config.getDisruptorCpus()),
+        ProducerType.SINGLE, waitStrategyFor(waitStrategy)
     );
+
+    List<MeteredHandler<?>> metered = new ArrayList<>();
+    metered.add(curator);
+    for (EventHandler[] stage : new EventHandler[][] { handlers, conflated, raw }) {
+      for (EventHandler handler : stage) {
+        if (handler instanceof MeteredHandler) {
+          metered.add((MeteredHandler<?>) handler);
+        }
+      }
+    }
+
+    metricsSampleMs = config.getMetricsSampleMs();
+    metrics         = new RingMetrics(
+        wsDisruptor.getRingBuffer(), metered, metricsSampleMs, config.getMetricsReportMs()
+    );
+  }
+
+  private static WaitStrategy waitStrategyFor(String strategy) {
+    switch (strategy) {
+      case WAIT_BLOCKING:
+        return new BlockingWaitStrategy();
+
+      case WAIT_SLEEPING:
+        return new SleepingWaitStrategy();
+
+      case WAIT_YIELDING:
+        return new YieldingWaitStrategy();
+
+      case WAIT_PHASED:
+        return PhasedBackoffWaitStrategy.withLiteLock(10, 100, TimeUnit.MICROSECONDS);
+
+      case WAIT_BUSY:
+        return new BusySpinWaitStrategy();
+
+      default:
+        throw new IllegalArgumentException("unknown disruptor wait strategy -> " + strategy);
+    }
+  }
+
+  private static Sequence[] sequencesOf(EventHandler[] handlers) {
+    Sequence[] sequences = new Sequence[handlers.length];
+    for (int i = 0; i < handlers.length; i++) {
+      if (handlers[i] instanceof MeteredHandler) {
+        sequences[i] = ((MeteredHandler<?>) handlers[i]).getSequence();
+      } else {
+        throw new IllegalArgumentException("gated state listeners must report their sequence");
+      }
+    }
+    return sequences;
+  }
+
+  private static Optional<ByteBuffer> slabFor(String slots, int bufferSize) {
+    switch (slots) {
+      case SLOTS_HEAP:
+        return Optional.empty();
+
+      case SLOTS_DIRECT:
+        return Optional.of(DirectGdaxEvent.allocateSlab(bufferSize));
+
+      default:
+        throw new IllegalArgumentException("unknown disruptor slots -> " + slots);
+    }
   }
 
   public RingBuffer<GdaxEvent> ringBuffer() {
     return wsDisruptor.getRingBuffer();
   }
 
+  public RingMetrics metrics() {
+    return metrics;
+  }
+
+  private void startMetrics() {
+    if (metricsSampleMs <= 0l) {
+      return;
+    }
+
+    try {
+
+      ManagementFactory.getPlatformMBeanServer().registerMBean(
+          metrics, new ObjectName("org.anhonesteffort.trading:type=RingMetrics")
+      );
+
+    } catch (JMException e) {
+      log.warn("failed to register ring metrics mbean", e);
+    }
+
+    sampler = Optional.of(Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "ring-metrics");
+      thread.setDaemon(true);
+      return thread;
+    }));
+    sampler.get().scheduleAtFixedRate(metrics, metricsSampleMs, metricsSampleMs, TimeUnit.MILLISECONDS);
+  }
+
   @Override
   public CompletableFuture<Void> shutdownFuture() {
     return shutdownFuture;
@@ -57,13 +196,27 @@ public class DisruptorService implements Service, ExceptionHandler<GdaxEvent>, E
   @SuppressWarnings("unchecked")
   public void start() {
     wsDisruptor.setDefaultExceptionHandler(this);
-    wsDisruptor.handleEventsWith(handlers);
+    EventHandlerGroup<GdaxEvent> curated = wsDisruptor.handleEventsWith(curator);
+
+    if (handlers.length > 0) {
+      curated.then(handlers);
+      curator.setListenerGate(new ListenerGate(waitStrategyFor(waitStrategy), sequencesOf(handlers)));
+    }
+    if (conflated.length > 0) {
+      curated.then(conflated);
+    }
+    if (raw.length > 0) {
+      wsDisruptor.handleEventsWith(raw);
+    }
+
     wsDisruptor.start();
+    startMetrics();
   }
 
   @Override
   public boolean shutdown() {
     if (shutdownFuture.complete(null)) {
+      sampler.ifPresent(ScheduledExecutorService::shutdownNow);
       wsDisruptor.shutdown();
       return true;
     } else {
@@ -73,6 +226,7 @@ public class DisruptorService implements Service, ExceptionHandler<GdaxEvent>, E
 
   private boolean shutdown(Throwable throwable) {
     if (shutdownFuture.completeExceptionally(throwable)) {
+      sampler.ifPresent(ScheduledExecutorService::shutdownNow);
       wsDisruptor.shutdown();
       return true;
     } else {
@@ -96,11 +250,17 @@ public class DisruptorService implements Service, ExceptionHandler<GdaxEvent>, E
   }
 
   private static class DisruptorThreadFactory implements ThreadFactory {
+    private final int[] cpus;
     private int count = 0;
 
+    public DisruptorThreadFactory(int[] cpus) {
+      this.cpus = cpus;
+    }
+
     @Override
     public Thread newThread(Runnable runnable) {
-      Thread thread = new Thread(runnable, "disruptor-" + (count++));
+      int    cpu    = (cpus.length > 0) ? cpus[count % cpus.length] : ThreadAffinity.CPU_NONE;
+      Thread thread = new Thread(ThreadAffinity.pinned(cpu, runnable), "disruptor-" + (count++));
       thread.setDaemon(true);
       return thread;
     }
@@ -108,7 +268,11 @@ public class DisruptorService implements Service, ExceptionHandler<GdaxEvent>, E
 
   @Override
   public GdaxEvent newInstance() {
-    return new GdaxEvent();
+    if (slab.isPresent()) {
+      return new DirectGdaxEvent(slab.get(), slotCount++);
+    } else {
+      return new HeapGdaxEvent();
+    }
   }
 
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.anhonesteffort.trading.disruptor;
+
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.FixedSequenceGroup;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.WaitStrategy;
+
+// holds the curator back until its gated listeners catch up, waiting the same way the ring does
+public class ListenerGate implements SequenceBarrier {
+
+  private final WaitStrategy waitStrategy;
+  private final Sequence listeners;
+  private volatile boolean alerted = false;
+
+  public ListenerGate(WaitStrategy waitStrategy, Sequence[] listeners) {
+    this.waitStrategy = waitStrategy;
+    this.listeners    = new FixedSequenceGroup(listeners);
+  }
+
+  // listeners call this after advancing their sequence, it only costs a lock when the curator blocks
+  public void signal() {
+    waitStrategy.signalAllWhenBlocking();
+  }
+
+  @Override
+  public long waitFor(long sequence) throws AlertException, InterruptedException, TimeoutException {
+    checkAlert();
+    return waitStrategy.waitFor(sequence, listeners, listeners, this);
+  }
+
+  @Override
+  public long getCursor() {
+    return listeners.get();
+  }
+
+  @Override
+  public boolean isAlerted() {
+    return alerted;
+  }
+
+  @Override
+  public void alert() {
+    alerted = true;
+    waitStrategy.signalAllWhenBlocking();
+  }
+
+  @Override
+  public void clearAlert() {
+    alerted = false;
+  }
+
+  @Override
+  public void checkAlert() throws AlertException {
+    if (alerted) {
+      throw AlertException.INSTANCE;
+    }
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.anhonesteffort.trading.disruptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LogHistogram {
+
+  private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE + 1);
+  private final AtomicLong count = new AtomicLong(0l);
+  private final AtomicLong sum   = new AtomicLong(0l);
+  private final AtomicLong max   = new AtomicLong(0l);
+
+  private static int bucketFor(long value) {
+    return Long.SIZE - Long.numberOfLeadingZeros(Math.max(value, 0l));
+  }
+
+  public void record(long value) {
+    buckets.incrementAndGet(bucketFor(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+
+    long last = max.get();
+    while (value > last && !max.compareAndSet(last, value)) {
+      last = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getSum() {
+    return sum.get();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  public double getMean() {
+    long samples = count.get();
+    return (samples > 0l) ? ((double) sum.get()) / samples : 0d;
+  }
+
+  // upper bound of the bucket holding the percentile, capped at max
+  public long getPercentile(double percentile) {
+    long samples = count.get();
+    if (samples <= 0l) {
+      return 0l;
+    }
+
+    long rank = (long) Math.ceil(samples * percentile);
+    long seen = 0l;
+
+    for (int bucket = 0; bucket < buckets.length(); bucket++) {
+      seen += buckets.get(bucket);
+      if (seen >= rank) {
+        long upper = (bucket >= Long.SIZE) ? Long.MAX_VALUE : (1l << bucket) - 1l;
+        return Math.min(upper, max.get());
+      }
+    }
+
+    return max.get();
+  }
+
+  public void reset() {
+    for (int bucket = 0; bucket < buckets.length(); bucket++) {
+      buckets.set(bucket, 0l);
+    }
+    count.set(0l);
+    sum.set(0l);
+    max.set(0l);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "n=%d mean=%.1f p50=%d p99=%d max=%d",
+        getCount(), getMean(), getPercentile(0.50d), getPercentile(0.99d), getMax()
+    );
+  }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.anhonesteffort.trading.disruptor;
+
+import com.lmax.disruptor.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+public class RingMetrics implements RingMetricsMXBean, Runnable {
+
+  private static final Logger log = LoggerFactory.getLogger(RingMetrics.class);
+
+  private final LogHistogram occupancy = new LogHistogram();
+  private final LogHistogram blocked   = new LogHistogram();
+  private final AtomicLong blockedCount = new AtomicLong(0l);
+  private final AtomicLong blockedNanos = new AtomicLong(0l);
+  private final AtomicLong overflows    = new AtomicLong(0l);
+  private final Map<MeteredHandler<?>, LogHistogram> lag = new LinkedHashMap<>();
+  private final RingBuffer<?> ringBuffer;
+  private final long samplesPerReport;
+  private long samples = 0l;
+
+  public RingMetrics(RingBuffer<?> ringBuffer, List<? extends MeteredHandler<?>> handlers, long sampleMs, long reportMs) {
+    this.ringBuffer       = ringBuffer;
+    this.samplesPerReport = Math.max(1l, reportMs / Math.max(1l, sampleMs));
+    handlers.forEach(handler -> lag.put(handler, new LogHistogram()));
+  }
+
+  public void onProducerBlocked(long nanoseconds) {
+    blockedCount.incrementAndGet();
+    blockedNanos.addAndGet(nanoseconds);
+    blocked.record(nanoseconds);
+  }
+
+  public void onProducerOverflow() {
+    overflows.incrementAndGet();
+  }
+
+  private void sample() {
+    long cursor = ringBuffer.getCursor();
+    occupancy.record(ringBuffer.getBufferSize() - ringBuffer.remainingCapacity());
+    lag.forEach((handler, histogram) -> histogram.record(cursor - handler.getSequence().get()));
+  }
+
+  private void report() {
+    log.info(
+        "ring cursor " + getCursor() + ", remaining " + getRemainingCapacity() + "/" + getBufferSize() +
+        ", occupancy {" + occupancy + "}, producer blocked " + blockedCount.get() + " times {" + blocked + "}"
+    );
+    lag.forEach((handler, histogram) ->
+        log.info("handler " + handler.getName() + " lag {" + histogram + "}")
+    );
+
+    occupancy.reset();
+    blocked.reset();
+    lag.values().forEach(LogHistogram::reset);
+  }
+
+  @Override
+  public void run() {
+    sample();
+    if (++samples % samplesPerReport == 0l) {
+      report();
+    }
+  }
+
+  @Override
+  public long getBufferSize() {
+    return ringBuffer.getBufferSize();
+  }
+
+  @Override
+  public long getCursor() {
+    return ringBuffer.getCursor();
+  }
+
+  @Override
+  public long getRemainingCapacity() {
+    return ringBuffer.remainingCapacity();
+  }
+
+  private Map<String, Long> byName(ToLongFunction<MeteredHandler<?>> value) {
+    return lag.keySet().stream().collect(Collectors.toMap(
+        MeteredHandler::getName, value::applyAsLong, (a, b) -> a, LinkedHashMap::new
+    ));
+  }
+
+  @Override
+  public Map<String, Long> getHandlerSequences() {
+    return byName(handler -> handler.getSequence().get());
+  }
+
+  @Override
+  public Map<String, Long> getHandlerLag() {
+    long cursor = ringBuffer.getCursor();
+    return byName(handler -> cursor - handler.getSequence().get());
+  }
+
+  @Override
+  public Map<String, Long> getHandlerLagP99() {
+    return byName(handler -> lag.get(handler).getPercentile(0.99d));
+  }
+
+  @Override
+  public long getOccupancyP99() {
+    return occupancy.getPercentile(0.99d);
+  }
+
+  @Override
+  public long getProducerBlockedCount() {
+    return blockedCount.get();
+  }
+
+  @Override
+  public long getProducerBlockedNanos() {
+    return blockedNanos.get();
+  }
+
+  @Override
+  public long getProducerBlockedP99Nanos() {
+    return blocked.getPercentile(0.99d);
+  }
+
+  @Override
+  public long getProducerBlockedMaxNanos() {
+    return blocked.getMax();
+  }
+
+  @Override
+  public long getProducerOverflowCount() {
+    return overflows.get();
+  }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.anhonesteffort.trading.http;
+
+import org.anhonesteffort.trading.http.request.model.PostOrderRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+public interface ExchangeClient extends Closeable {
+
+  CompletableFuture<Boolean> postOrder(PostOrderRequest order) throws IOException;
+
+  CompletableFuture<Void> cancelOrder(String orderId) throws IOException;
+
+  CompletableFuture<Void> cancelAllOrders() throws IOException;
+
+  @Override
+  void close();
+
+}
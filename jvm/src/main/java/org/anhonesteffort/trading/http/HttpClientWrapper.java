@@ -17,6 +17,7 @@
 
 package org.anhonesteffort.trading.http;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
@@ -32,17 +33,16 @@ import org.anhonesteffort.trading.http.response.ResponseCallback;
 import org.anhonesteffort.trading.http.request.model.PostOrderRequest;
 import org.anhonesteffort.trading.http.request.RequestSigner;
 import org.anhonesteffort.trading.http.response.GetOrderBookCallback;
+import org.anhonesteffort.trading.http.response.GetOrderBookListener;
 import org.anhonesteffort.trading.http.response.model.GetAccountsResponse;
-import org.anhonesteffort.trading.http.response.model.GetOrderBookResponse;
 
-import java.io.Closeable;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-public class HttpClientWrapper implements Closeable {
+public class HttpClientWrapper implements ExchangeClient, OrderBookClient {
 
   private static final MediaType TYPE_JSON = MediaType.parse("application/json; charset=utf-8");
 
@@ -53,6 +53,7 @@ public class HttpClientWrapper implements Closeable {
   private static final String API_PATH_ACCOUNTS = "/accounts";
 
   private final OkHttpClient  client   = HttpClient.getInstance();
+  private final JsonFactory   factory  = new JsonFactory();
   private final ObjectReader  reader   = new ObjectMapper().reader();
   private final ObjectWriter  writer   = new ObjectMapper().writer();
   private final AtomicBoolean shutdown = new AtomicBoolean(false);
@@ -75,13 +76,14 @@ public class HttpClientWrapper implements Closeable {
     }
   }
 
-  public CompletableFuture<GetOrderBookResponse> geOrderBook() {
-    CompletableFuture<GetOrderBookResponse> future = new CompletableFuture<>();
+  @Override
+  public CompletableFuture<Long> geOrderBook(GetOrderBookListener listener) {
+    CompletableFuture<Long> future = new CompletableFuture<>();
 
     if (!setExceptionIfShutdown(future)) {
       client.newCall(new Request.Builder().url(
           API_BASE + API_PATH_BOOK
-      ).build()).enqueue(new GetOrderBookCallback(reader, future));
+      ).build()).enqueue(new GetOrderBookCallback(factory, listener, future));
     }
 
     return future;
@@ -99,6 +101,7 @@ public class HttpClientWrapper implements Closeable {
     return future;
   }
 
+  @Override
   public CompletableFuture<Boolean> postOrder(PostOrderRequest order) throws IOException {
     CompletableFuture<Boolean> future = new CompletableFuture<>();
 
@@ -112,7 +115,8 @@ public class HttpClientWrapper implements Closeable {
     return future;
   }
 
-  public CompletableFuture<Response> cancelOrder(String orderId) throws IOException {
+  @Override
+  public CompletableFuture<Void> cancelOrder(String orderId) throws IOException {
     CompletableFuture<Response> future  = new CompletableFuture<>();
     String                      path    = API_PATH_ORDERS + "/" + orderId;
     Request.Builder             request = new Request.Builder().url(API_BASE + path).delete();
@@ -120,17 +124,18 @@ public class HttpClientWrapper implements Closeable {
     signer.sign(request, "DELETE", path, Optional.empty());
     client.newCall(request.build()).enqueue(new ResponseCallback(future));
 
-    return future;
+    return future.thenAccept(response -> { });
   }
 
-  public CompletableFuture<Response> cancelAllOrders() throws IOException {
+  @Override
+  public CompletableFuture<Void> cancelAllOrders() throws IOException {
     CompletableFuture<Response> future  = new CompletableFuture<>();
     Request.Builder             request = new Request.Builder().url(API_BASE + API_PATH_ORDERS).delete();
 
     signer.sign(request, "DELETE", API_PATH_ORDERS, Optional.empty());
     client.newCall(request.build()).enqueue(new ResponseCallback(future));
 
-    return future;
+    return future.thenAccept(response -> { });
   }
 
   @Override
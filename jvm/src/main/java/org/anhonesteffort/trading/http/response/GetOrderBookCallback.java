@@ -17,29 +17,150 @@
 
 package org.anhonesteffort.trading.http.response;
 
-import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import okhttp3.Call;
 import okhttp3.Response;
-import org.anhonesteffort.trading.http.response.model.GetOrderBookResponse;
+import org.anhonesteffort.trading.book.FixedPoint;
+import org.anhonesteffort.trading.book.OrderIds;
+import org.anhonesteffort.trading.book.Orders;
+import org.anhonesteffort.trading.book.Orders.Side;
 import org.anhonesteffort.trading.http.HttpException;
 
 import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
 
-public class GetOrderBookCallback extends HttpCallback<GetOrderBookResponse> {
+public class GetOrderBookCallback extends HttpCallback<Long> {
 
-  private final ObjectReader reader;
+  private final JsonFactory          factory;
+  private final GetOrderBookListener listener;
 
-  public GetOrderBookCallback(ObjectReader reader, CompletableFuture<GetOrderBookResponse> future) {
+  private boolean started = false;
+
+  public GetOrderBookCallback(JsonFactory factory, GetOrderBookListener listener, CompletableFuture<Long> future) {
     super(future);
-    this.reader = reader;
+    this.factory  = factory;
+    this.listener = listener;
+  }
+
+  private static long unitsFor(JsonParser parser) throws IOException, HttpException {
+    if (parser.getCurrentToken() != JsonToken.VALUE_STRING) {
+      throw new HttpException("order price or size is invalid");
+    }
+
+    try {
+
+      return FixedPoint.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+
+    } catch (NumberFormatException e) {
+      throw new HttpException("order price or size is invalid", e);
+    }
+  }
+
+  private void readOrder(JsonParser parser, Side side) throws IOException, HttpException {
+    parser.nextToken();
+    long price = unitsFor(parser);
+
+    parser.nextToken();
+    long size = unitsFor(parser);
+
+    if (parser.nextToken() != JsonToken.VALUE_STRING ||
+        !OrderIds.isUuid(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()))
+    {
+      throw new HttpException("order id is invalid");
+    }
+
+    char[] orderId = parser.getTextCharacters();
+    int    offset  = parser.getTextOffset();
+    listener.onBookOrder(side, OrderIds.uuidHi(orderId, offset), OrderIds.uuidLo(orderId, offset), price, size);
+
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      parser.skipChildren();
+    }
+  }
+
+  private void readOrders(JsonParser parser, Side side) throws IOException, HttpException {
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      if (token != JsonToken.START_ARRAY) {
+        throw new HttpException("order entry is not an array");
+      }
+      readOrder(parser, side);
+    }
   }
 
+  private long readBook(JsonParser parser) throws IOException, HttpException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new HttpException("json root is not an object");
+    }
+
+    boolean hasAsks  = false;
+    boolean hasBids  = false;
+    boolean hasSeq   = false;
+    long    sequence = -1l;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String    field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+
+      switch (field) {
+        case "sequence":
+          if (value != JsonToken.VALUE_NUMBER_INT) {
+            throw new HttpException("json root has invalid sequence tag");
+          }
+          sequence = parser.getLongValue();
+          hasSeq   = true;
+          break;
+
+        case "asks":
+        case "bids":
+          if (value != JsonToken.START_ARRAY) {
+            throw new HttpException("json root has invalid asks and/or bids tag(s)");
+          } else if (!started) {
+            listener.onBookStart();
+            started = true;
+          }
+
+          if (field.equals("asks")) {
+            readOrders(parser, Orders.SIDE_ASK());
+            hasAsks = true;
+          } else {
+            readOrders(parser, Orders.SIDE_BID());
+            hasBids = true;
+          }
+          break;
+
+        default:
+          parser.skipChildren();
+      }
+    }
+
+    if (!hasSeq) {
+      throw new HttpException("json root has invalid sequence tag");
+    } else if (!hasAsks || !hasBids) {
+      throw new HttpException("json root has invalid asks and/or bids tag(s)");
+    }
+
+    return sequence;
+  }
+
+  // once the book has started every exit must close it, or the curator is left mid rebuild
   @Override
   protected void complete(Call call, Response response) throws IOException, HttpException {
-    future.complete(new GetOrderBookResponse(
-        reader.readTree(response.body().charStream())
-    ));
+    long sequence;
+
+    try (JsonParser parser = factory.createParser(response.body().byteStream())) {
+      sequence = readBook(parser);
+    } catch (IOException | HttpException | RuntimeException e) {
+      if (started) {
+        listener.onBookAbort();
+      }
+      throw e;
+    }
+
+    listener.onBookEnd(sequence);
+    future.complete(sequence);
   }
 
 }
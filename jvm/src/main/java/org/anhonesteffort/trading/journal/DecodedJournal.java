@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.anhonesteffort.trading.journal;
+
+import org.anhonesteffort.trading.state.GdaxEvent;
+import org.anhonesteffort.trading.state.HeapGdaxEvent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+every segment of a journal decoded once into heap events. the events are
+shared between concurrent backtests, so nothing may init or modify them.
+event nanoseconds are replay time, monotonic across recorded sessions.
+ */
+public class DecodedJournal {
+
+  private final GdaxEvent[] events;
+
+  private DecodedJournal(GdaxEvent[] events) {
+    this.events = events;
+  }
+
+  public static DecodedJournal load(Path directory) throws IOException {
+    List<GdaxEvent> events = new ArrayList<>();
+    ReplayClock     clock  = new ReplayClock();
+
+    for (Path path : JournalReplayService.segments(directory)) {
+      try (JournalSegment segment = JournalSegment.open(path)) {
+        clock.beginSegment(path);
+        for (long index = 0l; index < segment.getCount(); index++) {
+          GdaxEvent event = new HeapGdaxEvent();
+          segment.read(index, event, clock.elapsedFor(segment.getNanoseconds(index)));
+          events.add(event);
+        }
+      }
+    }
+
+    return new DecodedJournal(events.toArray(new GdaxEvent[events.size()]));
+  }
+
+  public int size() {
+    return events.length;
+  }
+
+  public GdaxEvent get(int index) {
+    return events[index];
+  }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.anhonesteffort.trading.journal;
+
+import com.lmax.disruptor.RingBuffer;
+import org.anhonesteffort.trading.Service;
+import org.anhonesteffort.trading.sim.SimulatedExchange;
+import org.anhonesteffort.trading.state.GdaxEvent;
+import org.anhonesteffort.trading.state.HeapGdaxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+public class JournalReplayService implements Service {
+
+  private static final Logger log = LoggerFactory.getLogger(JournalReplayService.class);
+
+  private final CompletableFuture<Void> shutdownFuture = new CompletableFuture<>();
+  private final GdaxEvent scratch = new HeapGdaxEvent();
+  private final ReplayClock clock = new ReplayClock();
+  private final RingBuffer<GdaxEvent> ringBuffer;
+  private final Path directory;
+  private final double speed;
+  private final Optional<SimulatedExchange> exchange;
+
+  private volatile boolean running = true;
+  private long startNanoseconds;
+  private long count = 0l;
+
+  public JournalReplayService(
+      RingBuffer<GdaxEvent> ringBuffer, Path directory, double speed, Optional<SimulatedExchange> exchange
+  ) {
+    this.ringBuffer = ringBuffer;
+    this.directory  = directory;
+    this.speed      = speed;
+    this.exchange   = exchange;
+  }
+
+  public JournalReplayService(RingBuffer<GdaxEvent> ringBuffer, Path directory, double speed) {
+    this(ringBuffer, directory, speed, Optional.empty());
+  }
+
+  static List<Path> segments(Path directory) throws IOException {
+    List<Path> segments = new ArrayList<>();
+    try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*" + JournalWriter.SEGMENT_SUFFIX)) {
+      paths.forEach(segments::add);
+    }
+
+    Collections.sort(segments);
+    return segments;
+  }
+
+  // paced replays keep the recorded spacing, divided by the speed multiplier
+  private long replayNanosecondsFor(long elapsed) {
+    if (speed <= 0d && !exchange.isPresent()) {
+      return System.nanoTime();
+    } else if (speed <= 0d) {
+      return startNanoseconds + elapsed;
+    }
+
+    long target = startNanoseconds + (long) (elapsed / speed);
+    long now;
+
+    while (running && (now = System.nanoTime()) < target) {
+      LockSupport.parkNanos(target - now);
+    }
+
+    return target;
+  }
+
+  // simulated replays run in lockstep so order latency is measured from the event a strategy reacted to
+  private void simulate(JournalSegment segment, long index, long elapsed, long nanoseconds) {
+    segment.read(index, scratch, nanoseconds);
+    exchange.get().advance(elapsed, nanoseconds);
+    exchange.get().onMarketEvent(scratch, nanoseconds);
+  }
+
+  private void awaitConsumers(long sequence) {
+    while (running && ringBuffer.getMinimumGatingSequence() < sequence) {
+      Thread.yield();
+    }
+  }
+
+  private void replay(JournalSegment segment) {
+    for (long index = 0l; running && index < segment.getCount(); index++) {
+      long elapsed     = clock.elapsedFor(segment.getNanoseconds(index));
+      long nanoseconds = replayNanosecondsFor(elapsed);
+
+      if (exchange.isPresent()) {
+        simulate(segment, index, elapsed, nanoseconds);
+      }
+
+      long sequence = ringBuffer.next();
+      segment.read(index, ringBuffer.get(sequence), nanoseconds);
+      ringBuffer.publish(sequence);
+      count++;
+
+      if (exchange.isPresent()) {
+        awaitConsumers(sequence);
+      }
+    }
+  }
+
+  private void awaitConsumers() {
+    long last = ringBuffer.getCursor();
+    while (running && ringBuffer.getMinimumGatingSequence() < last) {
+      LockSupport.parkNanos(1_000_000l);
+    }
+  }
+
+  private void replay() {
+    try {
+
+      startNanoseconds = System.nanoTime();
+
+      for (Path path : segments(directory)) {
+        try (JournalSegment segment = JournalSegment.open(path)) {
+          log.info("replaying " + segment.getCount() + " events from " + path);
+          clock.beginSegment(path);
+          replay(segment);
+        }
+      }
+
+      awaitConsumers();
+
+      long   elapsedNs = Math.max(1l, System.nanoTime() - startNanoseconds);
+      double perSecond = count / (elapsedNs / 1_000_000_000d);
+      log.info(String.format(
+          "replayed %d events in %.3f seconds, %.0f events per second",
+          count, elapsedNs / 1_000_000_000d, perSecond
+      ));
+      exchange.ifPresent(simulated -> log.info("simulated exchange " + simulated));
+      shutdownFuture.complete(null);
+
+    } catch (Throwable e) {
+      shutdownFuture.completeExceptionally(e);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> shutdownFuture() {
+    return shutdownFuture;
+  }
+
+  @Override
+  public void start() {
+    Thread thread = new Thread(this::replay, "journal-replay");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public boolean shutdown() {
+    running = false;
+    return shutdownFuture.complete(null);
+  }
+
+}
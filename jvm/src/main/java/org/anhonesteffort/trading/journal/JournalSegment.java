@@ -0,0 +1,304 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.anhonesteffort.trading.journal;
+
+import org.anhonesteffort.trading.book.Orders;
+import org.anhonesteffort.trading.state.GdaxEvent;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class JournalSegment implements AutoCloseable {
+
+  public static final int MAGIC        = 0x54424a31;
+  public static final int VERSION      = 1;
+  public static final int HEADER_BYTES = 128;
+  public static final int RECORD_BYTES = 128;
+
+  private static final int HEADER_MAGIC      =  0;
+  private static final int HEADER_VERSION    =  4;
+  private static final int HEADER_RECORD     =  8;
+  private static final int HEADER_COUNT      = 16;
+  private static final int HEADER_FIRST_SEQ  = 24;
+  private static final int HEADER_FIRST_MS   = 32;
+  private static final int HEADER_LAST_MS    = 40;
+
+  // match records reuse the order and client id slots for maker and taker ids
+  private static final int RING_SEQUENCE = 0;
+  private static final int FEED_SEQUENCE = 8;
+  private static final int WALL_MS       = 16;
+  private static final int NANOSECONDS   = 24;
+  private static final int TYPE          = 32;
+  private static final int SIDE          = 33;
+  private static final int ID_A_HI       = 40;
+  private static final int ID_A_LO       = 48;
+  private static final int ID_B_HI       = 56;
+  private static final int ID_B_LO       = 64;
+  private static final int PRICE         = 72;
+  private static final int SIZE          = 80;
+  private static final int FUNDS         = 88;
+  private static final int OLD_SIZE      = 96;
+  private static final int NEW_SIZE      = 104;
+  private static final int OLD_FUNDS     = 112;
+  private static final int NEW_FUNDS     = 120;
+
+  private static final GdaxEvent.Type[] TYPES = GdaxEvent.Type.values();
+
+  private final Path path;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final long capacity;
+  private long count;
+
+  private JournalSegment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+    this.path     = path;
+    this.channel  = channel;
+    this.buffer   = buffer;
+    this.capacity = (buffer.capacity() - HEADER_BYTES) / RECORD_BYTES;
+    this.count    = buffer.getLong(HEADER_COUNT);
+  }
+
+  public static JournalSegment create(Path path, int records, long firstSequence, long firstMs)
+      throws IOException
+  {
+    FileChannel channel = FileChannel.open(
+        path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE
+    );
+    MappedByteBuffer buffer = channel.map(
+        FileChannel.MapMode.READ_WRITE, 0l, HEADER_BYTES + ((long) records * RECORD_BYTES)
+    );
+
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(HEADER_MAGIC,      MAGIC);
+    buffer.putInt(HEADER_VERSION,    VERSION);
+    buffer.putInt(HEADER_RECORD,     RECORD_BYTES);
+    buffer.putLong(HEADER_COUNT,     0l);
+    buffer.putLong(HEADER_FIRST_SEQ, firstSequence);
+    buffer.putLong(HEADER_FIRST_MS,  firstMs);
+    buffer.putLong(HEADER_LAST_MS,   firstMs);
+
+    return new JournalSegment(path, channel, buffer);
+  }
+
+  public static JournalSegment open(Path path) throws IOException {
+    FileChannel      channel = FileChannel.open(path, StandardOpenOption.READ);
+    MappedByteBuffer buffer  = channel.map(FileChannel.MapMode.READ_ONLY, 0l, channel.size());
+
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.getInt(HEADER_MAGIC) != MAGIC) {
+      channel.close();
+      throw new IOException("not a journal segment -> " + path);
+    } else if (buffer.getInt(HEADER_VERSION) != VERSION || buffer.getInt(HEADER_RECORD) != RECORD_BYTES) {
+      channel.close();
+      throw new IOException("unsupported journal segment version -> " + path);
+    }
+
+    return new JournalSegment(path, channel, buffer);
+  }
+
+  private static int offsetOf(long index) {
+    return (int) (HEADER_BYTES + (index * RECORD_BYTES));
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public boolean isFull() {
+    return count >= capacity;
+  }
+
+  public long getFirstSequence() {
+    return buffer.getLong(HEADER_FIRST_SEQ);
+  }
+
+  public long getLastSequence() {
+    return getFirstSequence() + count - 1l;
+  }
+
+  public long getFirstMs() {
+    return buffer.getLong(HEADER_FIRST_MS);
+  }
+
+  public long getLastMs() {
+    return buffer.getLong(HEADER_LAST_MS);
+  }
+
+  public void append(GdaxEvent event, long sequence, long wallMs) {
+    int offset = offsetOf(count);
+    buffer.putLong(offset + RING_SEQUENCE, sequence);
+    buffer.putLong(offset + FEED_SEQUENCE, event.getFeedSequence());
+    buffer.putLong(offset + WALL_MS,       wallMs);
+    buffer.putLong(offset + NANOSECONDS,   event.getNanoseconds());
+    buffer.put(offset + TYPE, (byte) event.getType().ordinal());
+    buffer.put(offset + SIDE, (byte) ((event.getSide() == null) ? 0 : (event.getSide() == Orders.SIDE_ASK()) ? 1 : 2));
+
+    if (event.getType() == GdaxEvent.Type.MATCH) {
+      buffer.putLong(offset + ID_A_HI, event.getMakerIdHi());
+      buffer.putLong(offset + ID_A_LO, event.getMakerIdLo());
+      buffer.putLong(offset + ID_B_HI, event.getTakerIdHi());
+      buffer.putLong(offset + ID_B_LO, event.getTakerIdLo());
+    } else {
+      buffer.putLong(offset + ID_A_HI, event.getOrderIdHi());
+      buffer.putLong(offset + ID_A_LO, event.getOrderIdLo());
+      buffer.putLong(offset + ID_B_HI, event.getClientOidHi());
+      buffer.putLong(offset + ID_B_LO, event.getClientOidLo());
+    }
+
+    buffer.putLong(offset   + PRICE,     event.getPrice());
+    buffer.putLong(offset   + SIZE,      event.getSize());
+    buffer.putDouble(offset + FUNDS,     event.getFunds());
+    buffer.putLong(offset   + OLD_SIZE,  event.getOldSize());
+    buffer.putLong(offset   + NEW_SIZE,  event.getNewSize());
+    buffer.putDouble(offset + OLD_FUNDS, event.getOldFunds());
+    buffer.putDouble(offset + NEW_FUNDS, event.getNewFunds());
+
+    buffer.putLong(HEADER_LAST_MS, wallMs);
+    buffer.putLong(HEADER_COUNT, ++count);
+  }
+
+  public long getSequence(long index) {
+    return buffer.getLong(offsetOf(index) + RING_SEQUENCE);
+  }
+
+  public long getWallMs(long index) {
+    return buffer.getLong(offsetOf(index) + WALL_MS);
+  }
+
+  public long getFeedSequence(long index) {
+    return buffer.getLong(offsetOf(index) + FEED_SEQUENCE);
+  }
+
+  public long getNanoseconds(long index) {
+    return buffer.getLong(offsetOf(index) + NANOSECONDS);
+  }
+
+  public void read(long index, GdaxEvent event) {
+    read(index, event, getNanoseconds(index));
+  }
+
+  public void read(long index, GdaxEvent event, long nanos) {
+    int            offset = offsetOf(index);
+    GdaxEvent.Type type   = TYPES[buffer.get(offset + TYPE)];
+    byte           side   = buffer.get(offset + SIDE);
+    long           idAHi  = buffer.getLong(offset + ID_A_HI);
+    long           idALo  = buffer.getLong(offset + ID_A_LO);
+    long           idBHi  = buffer.getLong(offset + ID_B_HI);
+    long           idBLo  = buffer.getLong(offset + ID_B_LO);
+    long           price  = buffer.getLong(offset + PRICE);
+    long           size   = buffer.getLong(offset + SIZE);
+    Orders.Side    sided  = (side == 1) ? Orders.SIDE_ASK() : (side == 2) ? Orders.SIDE_BID() : null;
+
+    switch (type) {
+      case LIMIT_RX:
+        event.initLimitRx(nanos, idAHi, idALo, idBHi, idBLo, sided, price, size);
+        break;
+
+      case MARKET_RX:
+        event.initMarketRx(nanos, idAHi, idALo, sided, size, buffer.getDouble(offset + FUNDS));
+        break;
+
+      case LIMIT_OPEN:
+        event.initLimitOpen(nanos, idAHi, idALo, sided, price, size);
+        break;
+
+      case LIMIT_DONE:
+        event.initLimitDone(nanos, idAHi, idALo, sided, price, size);
+        break;
+
+      case MARKET_DONE:
+        event.initMarketDone(nanos, idAHi, idALo, sided);
+        break;
+
+      case MATCH:
+        event.initMatch(nanos, idAHi, idALo, idBHi, idBLo, sided, price, size);
+        break;
+
+      case LIMIT_CHANGE:
+        event.initLimitChange(
+            nanos, idAHi, idALo, sided, price,
+            buffer.getLong(offset + OLD_SIZE), buffer.getLong(offset + NEW_SIZE)
+        );
+        break;
+
+      case MARKET_CHANGE:
+        event.initMarketChange(
+            nanos, idAHi, idALo, sided,
+            buffer.getLong(offset + OLD_SIZE), buffer.getLong(offset + NEW_SIZE),
+            buffer.getDouble(offset + OLD_FUNDS), buffer.getDouble(offset + NEW_FUNDS)
+        );
+        break;
+
+      case REBUILD_START:
+        event.initRebuildStart(nanos);
+        break;
+
+      case REBUILD_END:
+        event.initRebuildEnd(nanos);
+        break;
+
+      case REBUILD_ABORT:
+        event.initRebuildAbort(nanos);
+        break;
+    }
+
+    event.setFeedSequence(buffer.getLong(offset + FEED_SEQUENCE));
+  }
+
+  // ring sequences are contiguous within a segment
+  public long indexOfSequence(long sequence) {
+    long index = sequence - getFirstSequence();
+    return (index >= 0l && index < count) ? index : -1l;
+  }
+
+  // index of the first record at or after wallMs, or count if there is none
+  public long indexOfWallMs(long wallMs) {
+    long low  = 0l;
+    long high = count;
+
+    while (low < high) {
+      long mid = (low + high) >>> 1;
+      if (getWallMs(mid) < wallMs) {
+        low = mid + 1l;
+      } else {
+        high = mid;
+      }
+    }
+
+    return low;
+  }
+
+  public void force() {
+    buffer.force();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+}
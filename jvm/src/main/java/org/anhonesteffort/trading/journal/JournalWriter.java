@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.anhonesteffort.trading.journal;
+
+import com.lmax.disruptor.LifecycleAware;
+import com.lmax.disruptor.Sequence;
+import org.anhonesteffort.trading.disruptor.MeteredHandler;
+import org.anhonesteffort.trading.state.GdaxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public class JournalWriter implements MeteredHandler<GdaxEvent>, LifecycleAware {
+
+  private static final Logger log = LoggerFactory.getLogger(JournalWriter.class);
+
+  public static final String SEGMENT_SUFFIX = ".journal";
+
+  private final Path directory;
+  private final int  segmentRecords;
+  private final long sessionMs;
+  private final long sessionNs;
+
+  private Optional<JournalSegment> segment = Optional.empty();
+  private Sequence sequence;
+  private int      segmentCount = 0;
+  private boolean  failed       = false;
+
+  public JournalWriter(Path directory, int segmentRecords) {
+    this.directory      = directory;
+    this.segmentRecords = segmentRecords;
+    sessionMs           = System.currentTimeMillis();
+    sessionNs           = System.nanoTime();
+  }
+
+  public static String segmentName(long sessionMs, int segment) {
+    return String.format("%d-%06d%s", sessionMs, segment, SEGMENT_SUFFIX);
+  }
+
+  public static String sessionOf(Path segment) {
+    String name = segment.getFileName().toString();
+    int    dash = name.indexOf('-');
+    return (dash < 0) ? name : name.substring(0, dash);
+  }
+
+  // derived from receive nanoseconds so wall time never runs backwards within a session
+  private long wallMsFor(GdaxEvent event) {
+    return sessionMs + ((event.getNanoseconds() - sessionNs) / 1_000_000l);
+  }
+
+  private void roll(long firstSequence, long firstMs) throws IOException {
+    if (segment.isPresent()) {
+      segment.get().force();
+      segment.get().close();
+    }
+
+    Path next = directory.resolve(segmentName(sessionMs, segmentCount++));
+    segment = Optional.of(JournalSegment.create(next, segmentRecords, firstSequence, firstMs));
+    log.info("journaling to " + next);
+  }
+
+  @Override
+  public void onStart() {
+    try {
+
+      Files.createDirectories(directory);
+
+    } catch (IOException e) {
+      log.error("failed to create journal directory, journaling disabled", e);
+      failed = true;
+    }
+  }
+
+  @Override
+  public void onEvent(GdaxEvent event, long sequence, boolean endOfBatch) {
+    if (failed) {
+      return;
+    }
+
+    long wallMs = wallMsFor(event);
+
+    try {
+
+      if (!segment.isPresent() || segment.get().isFull()) {
+        roll(sequence, wallMs);
+      }
+      segment.get().append(event, sequence, wallMs);
+
+    } catch (IOException e) {
+      log.error("failed to roll journal segment, journaling disabled", e);
+      failed = true;
+    }
+  }
+
+  @Override
+  public void onShutdown() {
+    if (segment.isPresent()) {
+      try {
+
+        segment.get().force();
+        segment.get().close();
+
+      } catch (IOException e) {
+        log.error("failed to close journal segment", e);
+      }
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "journal";
+  }
+
+  @Override
+  public void setSequenceCallback(Sequence sequence) {
+    this.sequence = sequence;
+  }
+
+  @Override
+  public Sequence getSequence() {
+    return sequence;
+  }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.anhonesteffort.trading.journal;
+
+import java.nio.file.Path;
+
+/*
+recorded nanoseconds come from each session's own nanoTime, so they can't be
+compared across sessions. replay time restarts each session from where the
+last one ended, which keeps it monotonic across a whole journal directory.
+ */
+public class ReplayClock {
+
+  private String session   = null;
+  private long   firstNs   = -1l;
+  private long   baseNs    = 0l;
+  private long   elapsedNs = 0l;
+
+  public void beginSegment(Path path) {
+    String next = JournalWriter.sessionOf(path);
+    if (!next.equals(session)) {
+      session = next;
+      firstNs = -1l;
+      baseNs  = elapsedNs;
+    }
+  }
+
+  public long elapsedFor(long recordedNs) {
+    if (firstNs < 0l) {
+      firstNs = recordedNs;
+    }
+
+    elapsedNs = baseNs + (recordedNs - firstNs);
+    return elapsedNs;
+  }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.anhonesteffort.trading.sim;
+
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import org.anhonesteffort.trading.book.CompatLimitOrderBook;
+import org.anhonesteffort.trading.journal.DecodedJournal;
+import org.anhonesteffort.trading.state.GdaxEvent;
+import org.anhonesteffort.trading.state.HeapGdaxEvent;
+import org.anhonesteffort.trading.state.MatchingStateCurator;
+import org.anhonesteffort.trading.state.StateCurator;
+import org.anhonesteffort.trading.state.StateListener;
+import org.anhonesteffort.trading.state.StateListenerStage;
+import org.anhonesteffort.trading.state.StateProcessingException;
+import org.anhonesteffort.trading.strategy.MetaStrategy;
+import org.anhonesteffort.trading.strategy.impl.SimpleStrategyFactory;
+import org.anhonesteffort.trading.strategy.impl.SimpleStrategyParams;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/*
+one replay, simulated exchange and MetaStrategy driven on the calling thread.
+the curator and listener stage are called directly in ring order, so a
+backtest needs no disruptor threads and many can share one decoded journal.
+ */
+public class Backtest implements Callable<Backtest.Result> {
+
+  private static final int SYNTHETIC_RING_SIZE = 1024;
+
+  private final RingBuffer<GdaxEvent> synthetic = RingBuffer.createSingleProducer(HeapGdaxEvent::new, SYNTHETIC_RING_SIZE);
+  private final DecodedJournal       journal;
+  private final SimpleStrategyParams params;
+  private final SimulatedExchange    exchange;
+  private final StateCurator         curator;
+  private final StateListenerStage   stage;
+
+  private long sequence   = 0l;
+  private long dispatched = -1l;
+
+  public Backtest(DecodedJournal journal, SimpleStrategyParams params, String rebuildMode, long latencyMs) {
+    this.journal  = journal;
+    this.params   = params;
+    this.exchange = new SimulatedExchange(latencyMs);
+    this.curator  = new MatchingStateCurator(new CompatLimitOrderBook(), rebuildMode);
+    this.stage    = new StateListenerStage(curator, Collections.<StateListener>singleton(
+        new MetaStrategy(new SimpleStrategyFactory(exchange, params))
+    ));
+
+    exchange.setRingBuffer(synthetic);
+    stage.setSequenceCallback(new Sequence());
+  }
+
+  private void dispatch(GdaxEvent event) throws StateProcessingException {
+    curator.onEvent(event, sequence, true);
+    stage.onEvent(event, sequence, true);
+    sequence++;
+  }
+
+  // nothing gates the synthetic ring, events are dispatched as soon as the exchange publishes them
+  private void dispatchSynthetic() throws StateProcessingException {
+    while (dispatched < synthetic.getCursor()) {
+      dispatch(synthetic.get(++dispatched));
+    }
+  }
+
+  @Override
+  public Result call() {
+    try {
+
+      for (int index = 0; index < journal.size(); index++) {
+        GdaxEvent event = journal.get(index);
+
+        exchange.advance(event.getNanoseconds(), event.getNanoseconds());
+        dispatchSynthetic();
+        exchange.onMarketEvent(event, event.getNanoseconds());
+        dispatchSynthetic();
+        dispatch(event);
+      }
+
+      return new Result(params, exchange, Optional.empty());
+
+    } catch (Exception e) {
+      return new Result(params, exchange, Optional.of(e));
+    }
+  }
+
+  public static class Result {
+
+    private final SimpleStrategyParams params;
+    private final long                 posted;
+    private final long                 rejected;
+    private final long                 filled;
+    private final long                 canceled;
+    private final double               position;
+    private final double               profit;
+    private final Optional<Exception>  error;
+
+    private Result(SimpleStrategyParams params, SimulatedExchange exchange, Optional<Exception> error) {
+      this.params = params;
+      posted      = exchange.getPosted();
+      rejected    = exchange.getRejected();
+      filled      = exchange.getFilled();
+      canceled    = exchange.getCanceled();
+      position    = exchange.getPosition();
+      profit      = exchange.getProfit();
+      this.error  = error;
+    }
+
+    public SimpleStrategyParams getParams() {
+      return params;
+    }
+
+    public long getPosted() {
+      return posted;
+    }
+
+    public long getRejected() {
+      return rejected;
+    }
+
+    public long getFilled() {
+      return filled;
+    }
+
+    public double getFillRate() {
+      return posted > 0l ? (double) filled / posted : 0d;
+    }
+
+    // MetaStrategy only cancels when a match times out
+    public long getAborts() {
+      return canceled;
+    }
+
+    public double getPosition() {
+      return position;
+    }
+
+    public double getProfit() {
+      return profit;
+    }
+
+    public Optional<Exception> getError() {
+      return error;
+    }
+
+  }
+
+}
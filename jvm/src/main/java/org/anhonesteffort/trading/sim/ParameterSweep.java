@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.anhonesteffort.trading.sim;
+
+import org.anhonesteffort.trading.TradeBoiConfig;
+import org.anhonesteffort.trading.journal.DecodedJournal;
+import org.anhonesteffort.trading.strategy.impl.SimpleStrategyParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class ParameterSweep {
+
+  private static final Logger log = LoggerFactory.getLogger(ParameterSweep.class);
+
+  private final TradeBoiConfig config;
+
+  public ParameterSweep(TradeBoiConfig config) {
+    this.config = config;
+  }
+
+  private static double[] parseDoubles(String list) {
+    return Arrays.stream(list.split(",")).mapToDouble(value -> Double.parseDouble(value.trim())).toArray();
+  }
+
+  private static long[] parseLongs(String list) {
+    return Arrays.stream(list.split(",")).mapToLong(value -> Long.parseLong(value.trim())).toArray();
+  }
+
+  // the bid strategy doesn't identify bids yet, so extra values would only repeat identical backtests
+  private static double[] unread(String key, double[] values) {
+    if (values.length > 1) {
+      log.warn(key + " isn't read by the bid strategy yet, sweeping only " + values[0]);
+      return new double[] { values[0] };
+    } else {
+      return values;
+    }
+  }
+
+  private List<SimpleStrategyParams> grid() {
+    List<SimpleStrategyParams> grid = new ArrayList<>();
+
+    for (double bidSize : unread("sweep_bid_sizes", parseDoubles(config.getSweepBidSizes()))) {
+      for (double bidPlacement : unread("sweep_bid_placements", parseDoubles(config.getSweepBidPlacements()))) {
+        for (long bidAbortMs : parseLongs(config.getSweepBidAbortMs())) {
+          for (long askAbortMs : parseLongs(config.getSweepAskAbortMs())) {
+            grid.add(new SimpleStrategyParams(bidSize, bidPlacement, bidAbortMs, askAbortMs));
+          }
+        }
+      }
+    }
+
+    return grid;
+  }
+
+  public List<Backtest.Result> run() throws Exception {
+    DecodedJournal             journal = DecodedJournal.load(Paths.get(config.getReplayDir()));
+    List<SimpleStrategyParams> grid    = grid();
+    List<Backtest>             tests   = new ArrayList<>(grid.size());
+    List<Backtest.Result>      results = new ArrayList<>(grid.size());
+    int                        threads = config.getSweepThreads();
+
+    if (threads <= 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    for (SimpleStrategyParams params : grid) {
+      tests.add(new Backtest(journal, params, config.getRebuildMode(), config.getSimLatencyMs()));
+    }
+
+    log.info("sweeping " + grid.size() + " parameter sets over " + journal.size() + " events on " + threads + " threads");
+
+    ForkJoinPool pool  = new ForkJoinPool(threads);
+    long         start = System.nanoTime();
+
+    try {
+
+      for (Future<Backtest.Result> result : pool.invokeAll(tests)) {
+        results.add(result.get());
+      }
+
+    } finally {
+      pool.shutdown();
+    }
+
+    log.info(String.format("sweep completed in %.3f seconds", (System.nanoTime() - start) / 1_000_000_000d));
+    results.sort(Comparator.comparingDouble(Backtest.Result::getProfit).reversed());
+    return results;
+  }
+
+  private static void logResults(List<Backtest.Result> results) {
+    log.info(String.format(
+        "%4s %9s %9s %9s %9s %10s %7s %7s %9s %7s %8s",
+        "rank", "bid size", "placement", "bid abort", "ask abort", "profit", "posted", "filled", "fill rate", "aborts", "rejected"
+    ));
+
+    for (int rank = 0; rank < results.size(); rank++) {
+      Backtest.Result      result = results.get(rank);
+      SimpleStrategyParams params = result.getParams();
+
+      log.info(String.format(
+          "%4d %9.4f %9.2f %9d %9d %10.2f %7d %7d %9.2f %7d %8d%s",
+          rank + 1, params.bidSize(), params.bidPlacement(), params.bidAbortMs(), params.askAbortMs(),
+          result.getProfit(), result.getPosted(), result.getFilled(), result.getFillRate(), result.getAborts(),
+          result.getRejected(), result.getError().map(error -> " failed: " + error.getMessage()).orElse("")
+      ));
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    logResults(new ParameterSweep(new TradeBoiConfig()).run());
+  }
+
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.anhonesteffort.trading.sim;
+
+import com.lmax.disruptor.RingBuffer;
+import org.anhonesteffort.trading.book.CompatLimitOrderBook;
+import org.anhonesteffort.trading.book.FixedPoint;
+import org.anhonesteffort.trading.book.Limit;
+import org.anhonesteffort.trading.book.OrderIdMap;
+import org.anhonesteffort.trading.book.OrderIds;
+import org.anhonesteffort.trading.book.OrderPool;
+import org.anhonesteffort.trading.book.Orders;
+import org.anhonesteffort.trading.book.Orders.Order;
+import org.anhonesteffort.trading.book.Orders.Side;
+import org.anhonesteffort.trading.http.ExchangeClient;
+import org.anhonesteffort.trading.http.HttpException;
+import org.anhonesteffort.trading.http.request.model.PostOrderRequest;
+import org.anhonesteffort.trading.state.GdaxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.Option;
+import scala.runtime.BoxedUnit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+our orders live in a mirror of the replayed market and are filled whenever
+replayed flow reaches them: a match against a maker queued behind them or
+through their price, or an opposing limit open that crosses them. replayed
+orders only ever rest in the mirror, they never match each other.
+everything except the request methods runs on the replay thread.
+ */
+public class SimulatedExchange implements ExchangeClient {
+
+  private static final Logger log = LoggerFactory.getLogger(SimulatedExchange.class);
+
+  private static final long ORDER_ID_HI       = 0x53494d0000000000l;
+  private static final int  DEFAULT_POOL_SIZE = 4096;
+
+  private final Queue<Request>       requests = new ConcurrentLinkedQueue<>();
+  private final OrderIdMap<Order>    ours     = new OrderIdMap<>();
+  private final CompatLimitOrderBook book;
+  private final OrderPool            pool;
+  private final long latencyNs;
+
+  private RingBuffer<GdaxEvent> ringBuffer;
+  private volatile boolean shutdown = false;
+  private volatile long clockNs = 0l;
+  private long nextIdLo = 1l;
+  private long currentSeq;
+  private long   posted    = 0l;
+  private long   rejected  = 0l;
+  private long   filled    = 0l;
+  private long   canceled  = 0l;
+  private long   position  = 0l;
+  private double cash      = 0d;
+  private long   lastPrice = 0l;
+
+  public SimulatedExchange(long latencyMs, int poolSize) {
+    latencyNs = TimeUnit.MILLISECONDS.toNanos(latencyMs);
+    pool      = new OrderPool(poolSize);
+    book      = new CompatLimitOrderBook(pool);
+  }
+
+  public SimulatedExchange(long latencyMs) {
+    this(latencyMs, DEFAULT_POOL_SIZE);
+  }
+
+  public void setRingBuffer(RingBuffer<GdaxEvent> ringBuffer) {
+    this.ringBuffer = ringBuffer;
+  }
+
+  private boolean setExceptionIfShutdown(CompletableFuture<?> future) {
+    if (shutdown) {
+      future.completeExceptionally(new HttpException("this simulated exchange is shutdown"));
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  @Override
+  public CompletableFuture<Boolean> postOrder(PostOrderRequest order) {
+    CompletableFuture<Boolean> future = new CompletableFuture<>();
+    if (!setExceptionIfShutdown(future)) {
+      requests.add(new PostRequest(clockNs + latencyNs, order, future));
+    }
+    return future;
+  }
+
+  @Override
+  public CompletableFuture<Void> cancelOrder(String orderId) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    if (!setExceptionIfShutdown(future)) {
+      requests.add(new CancelRequest(clockNs + latencyNs, orderId, future));
+    }
+    return future;
+  }
+
+  // nothing is left exposed once the replay stops, so shutdown cancels are immediate
+  @Override
+  public CompletableFuture<Void> cancelAllOrders() {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    if (shutdown) {
+      future.complete(null);
+    } else {
+      requests.add(new CancelAllRequest(clockNs + latencyNs, future));
+    }
+    return future;
+  }
+
+  // elapsedNs is replay time carried across recorded sessions, it never runs backwards
+  public void advance(long elapsedNs, long nanoseconds) {
+    clockNs = elapsedNs;
+    while (!requests.isEmpty() && requests.peek().arrivalNs <= elapsedNs) {
+      requests.poll().deliver(nanoseconds);
+    }
+  }
+
+  public void onMarketEvent(GdaxEvent event, long nanoseconds) {
+    switch (event.getType()) {
+      case REBUILD_START:
+        if (!ours.isEmpty()) {
+          log.warn("dropping " + ours.size() + " simulated orders for rebuild");
+        }
+        ours.clear();
+        book.release();
+        break;
+
+      case LIMIT_OPEN:
+        onReplayedOpen(event, nanoseconds);
+        break;
+
+      case LIMIT_CHANGE:
+        releaseIfDone(book.reduceById(event.getOrderIdHi(), event.getOrderIdLo(), event.getOldSize() - event.getNewSize()));
+        break;
+
+      case LIMIT_DONE:
+        releaseReplayed(book.removeById(event.getOrderIdHi(), event.getOrderIdLo()));
+        break;
+
+      case MATCH:
+        onReplayedMatch(event, nanoseconds);
+        break;
+    }
+  }
+
+  // nothing on the other side can still reach a price the exchange just rested an order at, unless ours outlasts the open
+  private void onReplayedOpen(GdaxEvent event, long nanoseconds) {
+    clearAhead(opposite(event.getSide()), event.getPrice(), null, true, event.getSize(), nanoseconds);
+
+    Order order = pool.acquire(event.getOrderIdHi(), event.getOrderIdLo(), event.getSide(), event.getPrice(), event.getSize());
+    if (!book.open(order)) {
+      pool.release(order);
+    }
+  }
+
+  // a maker the mirror holds less of than the exchange took means the taker reached further into the queue
+  private void onReplayedMatch(GdaxEvent event, long nanoseconds) {
+    Order maker = book.getById(event.getMakerIdHi(), event.getMakerIdLo());
+    long  left  = clearAhead(event.getSide(), event.getPrice(), maker, maker != null, event.getSize(), nanoseconds);
+
+    if (maker != null) {
+      long beyond = left - maker.getSizeRemainingUnits();
+      releaseIfDone(book.reduceById(event.getMakerIdHi(), event.getMakerIdLo(), Math.min(event.getSize(), maker.getSizeRemainingUnits())));
+      if (beyond > 0l) {
+        fillReachedBy(event.getSide(), event.getPrice(), beyond, nanoseconds);
+      }
+    }
+
+    lastPrice = event.getPrice();
+  }
+
+  private void releaseReplayed(Order order) {
+    if (order != null) {
+      pool.release(order);
+    }
+  }
+
+  private void releaseIfDone(Order order) {
+    if (order != null && order.getSizeRemainingUnits() <= 0l) {
+      pool.release(order);
+    }
+  }
+
+  private static Side opposite(Side side) {
+    return side == Orders.SIDE_ASK() ? Orders.SIDE_BID() : Orders.SIDE_ASK();
+  }
+
+  private static boolean reaches(Side side, long restingPrice, long price) {
+    return side == Orders.SIDE_ASK() ? restingPrice <= price : restingPrice >= price;
+  }
+
+  private Option<Limit> bestLimit(Side side) {
+    return side == Orders.SIDE_ASK() ? book.getAskLimits().peek() : book.getBidLimits().peek();
+  }
+
+  // anything queued ahead of ours has already been matched or canceled by the replay
+  private Order nextReachedOrder(Side side, long price) {
+    Option<Limit> best = bestLimit(side);
+    if (best.isEmpty() || !reaches(side, best.get().getPriceUnits(), price)) {
+      return null;
+    }
+
+    Option<Order> head = best.get().peek();
+    return head.isEmpty() ? null : ours.get(head.get().getOrderIdHi(), head.get().getOrderIdLo());
+  }
+
+  private void fillReachedBy(Side side, long price, long size, long nanoseconds) {
+    Order order;
+    while (size > 0l && (order = nextReachedOrder(side, price)) != null) {
+      size -= fill(order, size, nanoseconds);
+    }
+  }
+
+  /*
+  everything queued ahead of the maker a replayed event took from, or ahead of
+  a price it reached when there is no maker, was taken by the exchange first.
+  ours are filled from the size of the event and replayed orders still left in
+  the mirror were stale. returns whatever size is left once ours are done.
+   */
+  private long clearAhead(Side side, long price, Order maker, boolean inclusive, long size, long nanoseconds) {
+    Option<Limit> best;
+    while ((best = bestLimit(side)).isDefined() && reaches(side, best.get().getPriceUnits(), price)) {
+      if (!inclusive && best.get().getPriceUnits() == price) {
+        return size;
+      }
+
+      Order head = best.get().peek().get();
+      if (head == maker) {
+        return size;
+      } else if (ours.get(head.getOrderIdHi(), head.getOrderIdLo()) == null) {
+        releaseReplayed(book.removeById(head.getOrderIdHi(), head.getOrderIdLo()));
+      } else if (size > 0l) {
+        size -= fill(head, size, nanoseconds);
+      } else {
+        return 0l;
+      }
+    }
+    return size;
+  }
+
+  private GdaxEvent takeNextEvent() {
+    currentSeq = ringBuffer.next();
+    return ringBuffer.get(currentSeq);
+  }
+
+  private void publishCurrentEvent() {
+    ringBuffer.publish(currentSeq);
+  }
+
+  private void remove(Order order) {
+    book.removeById(order.getOrderIdHi(), order.getOrderIdLo());
+    ours.remove(order.getOrderIdHi(), order.getOrderIdLo());
+    pool.release(order);
+  }
+
+  /*
+  replayed takers can't also take from ours without upsetting the curator, so
+  fills get their own market taker. at most the size that reached ours is
+  filled and ours is only done once nothing of it remains.
+   */
+  private long fill(Order order, long most, long nanoseconds) {
+    Side    side    = order.getSide();
+    long    takerLo = nextIdLo++;
+    long    size    = Math.min(most, order.getSizeRemainingUnits());
+    boolean done    = size >= order.getSizeRemainingUnits();
+
+    takeNextEvent().initMarketRx(nanoseconds, ORDER_ID_HI, takerLo, opposite(side), size, 0d);
+    publishCurrentEvent();
+    takeNextEvent().initMatch(
+        nanoseconds, order.getOrderIdHi(), order.getOrderIdLo(), ORDER_ID_HI, takerLo, side, order.getPriceUnits(), size
+    );
+    publishCurrentEvent();
+    if (done) {
+      takeNextEvent().initLimitDone(nanoseconds, order.getOrderIdHi(), order.getOrderIdLo(), side, order.getPriceUnits(), 0l);
+      publishCurrentEvent();
+    }
+    takeNextEvent().initMarketDone(nanoseconds, ORDER_ID_HI, takerLo, opposite(side));
+    publishCurrentEvent();
+
+    if (side == Orders.SIDE_BID()) {
+      position += size;
+      cash     -= FixedPoint.toDouble(order.getPriceUnits()) * FixedPoint.toDouble(size);
+    } else {
+      position -= size;
+      cash     += FixedPoint.toDouble(order.getPriceUnits()) * FixedPoint.toDouble(size);
+    }
+
+    if (done) {
+      remove(order);
+      filled++;
+    } else {
+      book.reduceById(order.getOrderIdHi(), order.getOrderIdLo(), size);
+    }
+    return size;
+  }
+
+  private void open(Order order, long clientOidHi, long clientOidLo, long nanoseconds) {
+    takeNextEvent().initLimitRx(
+        nanoseconds, order.getOrderIdHi(), order.getOrderIdLo(), clientOidHi, clientOidLo,
+        order.getSide(), order.getPriceUnits(), order.getSizeUnits()
+    );
+    publishCurrentEvent();
+    takeNextEvent().initLimitOpen(
+        nanoseconds, order.getOrderIdHi(), order.getOrderIdLo(), order.getSide(), order.getPriceUnits(), order.getSizeUnits()
+    );
+    publishCurrentEvent();
+
+    book.open(order);
+    ours.put(order.getOrderIdHi(), order.getOrderIdLo(), order);
+    posted++;
+  }
+
+  private void cancel(Order order, long nanoseconds) {
+    takeNextEvent().initLimitDone(
+        nanoseconds, order.getOrderIdHi(), order.getOrderIdLo(), order.getSide(), order.getPriceUnits(), order.getSizeRemainingUnits()
+    );
+    publishCurrentEvent();
+
+    remove(order);
+    canceled++;
+  }
+
+  public long getPosted() {
+    return posted;
+  }
+
+  public long getRejected() {
+    return rejected;
+  }
+
+  public long getFilled() {
+    return filled;
+  }
+
+  public long getCanceled() {
+    return canceled;
+  }
+
+  public double getPosition() {
+    return FixedPoint.toDouble(position);
+  }
+
+  // open positions are marked at the last replayed match
+  public double getProfit() {
+    return cash + (FixedPoint.toDouble(position) * FixedPoint.toDouble(lastPrice));
+  }
+
+  @Override
+  public void close() {
+    shutdown = true;
+  }
+
+  @Override
+  public String toString() {
+    return "posted " + posted + ", rejected " + rejected + ", filled " + filled + ", canceled " + canceled +
+        ", open " + ours.size() + ", position " + getPosition() + ", profit " + getProfit();
+  }
+
+  private abstract static class Request {
+    protected final long arrivalNs;
+
+    protected Request(long arrivalNs) {
+      this.arrivalNs = arrivalNs;
+    }
+
+    protected abstract void deliver(long nanoseconds);
+  }
+
+  private class PostRequest extends Request {
+    private final PostOrderRequest order;
+    private final CompletableFuture<Boolean> future;
+
+    public PostRequest(long arrivalNs, PostOrderRequest order, CompletableFuture<Boolean> future) {
+      super(arrivalNs);
+      this.order  = order;
+      this.future = future;
+    }
+
+    // every order is post-only, anything that would take on arrival is rejected
+    @Override
+    protected void deliver(long nanoseconds) {
+      Side          side  = order.getSide().equals("sell") ? Orders.SIDE_ASK() : Orders.SIDE_BID();
+      long          price = FixedPoint.parse(order.getPrice());
+      long          size  = FixedPoint.parse(order.getSize());
+      Option<Limit> best  = bestLimit(opposite(side));
+
+      if (best.isDefined() && reaches(opposite(side), best.get().getPriceUnits(), price)) {
+        rejected++;
+        future.complete(false);
+      } else {
+        open(
+            pool.acquire(ORDER_ID_HI, nextIdLo++, side, price, size),
+            OrderIds.hi(order.getClientOid()), OrderIds.lo(order.getClientOid()), nanoseconds
+        );
+        future.complete(true);
+      }
+    }
+  }
+
+  private class CancelRequest extends Request {
+    private final String orderId;
+    private final CompletableFuture<Void> future;
+
+    public CancelRequest(long arrivalNs, String orderId, CompletableFuture<Void> future) {
+      super(arrivalNs);
+      this.orderId = orderId;
+      this.future  = future;
+    }
+
+    @Override
+    protected void deliver(long nanoseconds) {
+      Order order = ours.get(OrderIds.hi(orderId), OrderIds.lo(orderId));
+      if (order == null) {
+        future.completeExceptionally(new HttpException("simulated order " + orderId + " is not open"));
+      } else {
+        cancel(order, nanoseconds);
+        future.complete(null);
+      }
+    }
+  }
+
+  private class CancelAllRequest extends Request {
+    private final CompletableFuture<Void> future;
+
+    public CancelAllRequest(long arrivalNs, CompletableFuture<Void> future) {
+      super(arrivalNs);
+      this.future = future;
+    }
+
+    @Override
+    protected void deliver(long nanoseconds) {
+      List<Order> open = new ArrayList<>(ours.size());
+      ours.foreach(order -> {
+        open.add(order);
+        return BoxedUnit.UNIT;
+      });
+
+      open.forEach(order -> cancel(order, nanoseconds));
+      future.complete(null);
+    }
+  }
+
+}
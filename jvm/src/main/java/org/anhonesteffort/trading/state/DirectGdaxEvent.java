@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.anhonesteffort.trading.state;
+
+import org.anhonesteffort.trading.book.Orders;
+import org.anhonesteffort.trading.book.Orders.Side;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class DirectGdaxEvent extends GdaxEvent {
+
+  public static final int SLOT_BYTES = 128;
+
+  // match events have no order or client id so maker and taker ids share their slots
+  private static final int NANOSECONDS   =   0;
+  private static final int TYPE          =   8;
+  private static final int SIDE          =   9;
+  private static final int ORDER_ID_HI   =  16;
+  private static final int ORDER_ID_LO   =  24;
+  private static final int CLIENT_OID_HI =  32;
+  private static final int CLIENT_OID_LO =  40;
+  private static final int PRICE         =  48;
+  private static final int SIZE          =  56;
+  private static final int FUNDS         =  64;
+  private static final int OLD_SIZE      =  72;
+  private static final int NEW_SIZE      =  80;
+  private static final int OLD_FUNDS     =  88;
+  private static final int NEW_FUNDS     =  96;
+  private static final int FEED_SEQUENCE = 104;
+
+  private static final byte   SIDE_NONE = 0;
+  private static final byte   SIDE_ASK  = 1;
+  private static final byte   SIDE_BID  = 2;
+  private static final Type[] TYPES     = Type.values();
+
+  private final ByteBuffer slab;
+  private final int offset;
+
+  public DirectGdaxEvent(ByteBuffer slab, int slot) {
+    this.slab   = slab;
+    this.offset = slot * SLOT_BYTES;
+  }
+
+  public static ByteBuffer allocateSlab(int slots) {
+    return ByteBuffer.allocateDirect(slots * SLOT_BYTES).order(ByteOrder.nativeOrder());
+  }
+
+  private static byte sideByte(Side side) {
+    if (side == null) {
+      return SIDE_NONE;
+    } else {
+      return (side == Orders.SIDE_ASK()) ? SIDE_ASK : SIDE_BID;
+    }
+  }
+
+  private boolean isMatch() {
+    return slab.get(offset + TYPE) == (byte) (Type.MATCH.ordinal() + 1);
+  }
+
+  @Override
+  protected void init(
+      long nanoseconds, Type type, long orderIdHi, long orderIdLo, long clientOidHi, long clientOidLo, Side side,
+      long price, long size, double funds, long makerIdHi, long makerIdLo, long takerIdHi, long takerIdLo,
+      long oldSize, long newSize, double oldFunds, double newFunds
+  ) {
+    slab.putLong(offset + FEED_SEQUENCE, -1l);
+    slab.putLong(offset + NANOSECONDS, nanoseconds);
+    slab.put(offset + TYPE, (byte) (type.ordinal() + 1));
+    slab.put(offset + SIDE, sideByte(side));
+
+    if (type == Type.MATCH) {
+      slab.putLong(offset + ORDER_ID_HI,   makerIdHi);
+      slab.putLong(offset + ORDER_ID_LO,   makerIdLo);
+      slab.putLong(offset + CLIENT_OID_HI, takerIdHi);
+      slab.putLong(offset + CLIENT_OID_LO, takerIdLo);
+    } else {
+      slab.putLong(offset + ORDER_ID_HI,   orderIdHi);
+      slab.putLong(offset + ORDER_ID_LO,   orderIdLo);
+      slab.putLong(offset + CLIENT_OID_HI, clientOidHi);
+      slab.putLong(offset + CLIENT_OID_LO, clientOidLo);
+    }
+
+    slab.putLong(offset   + PRICE,     price);
+    slab.putLong(offset   + SIZE,      size);
+    slab.putDouble(offset + FUNDS,     funds);
+    slab.putLong(offset   + OLD_SIZE,  oldSize);
+    slab.putLong(offset   + NEW_SIZE,  newSize);
+    slab.putDouble(offset + OLD_FUNDS, oldFunds);
+    slab.putDouble(offset + NEW_FUNDS, newFunds);
+  }
+
+  @Override
+  public void setFeedSequence(long feedSequence) {
+    slab.putLong(offset + FEED_SEQUENCE, feedSequence);
+  }
+
+  @Override
+  public long getFeedSequence() {
+    return slab.getLong(offset + FEED_SEQUENCE);
+  }
+
+  @Override
+  public long getNanoseconds() {
+    return slab.getLong(offset + NANOSECONDS);
+  }
+
+  @Override
+  public Type getType() {
+    byte type = slab.get(offset + TYPE);
+    return (type == 0) ? null : TYPES[type - 1];
+  }
+
+  @Override
+  public long getOrderIdHi() {
+    return isMatch() ? 0l : slab.getLong(offset + ORDER_ID_HI);
+  }
+
+  @Override
+  public long getOrderIdLo() {
+    return isMatch() ? 0l : slab.getLong(offset + ORDER_ID_LO);
+  }
+
+  @Override
+  public long getClientOidHi() {
+    return isMatch() ? 0l : slab.getLong(offset + CLIENT_OID_HI);
+  }
+
+  @Override
+  public long getClientOidLo() {
+    return isMatch() ? 0l : slab.getLong(offset + CLIENT_OID_LO);
+  }
+
+  @Override
+  public Side getSide() {
+    switch (slab.get(offset + SIDE)) {
+      case SIDE_ASK:
+        return Orders.SIDE_ASK();
+
+      case SIDE_BID:
+        return Orders.SIDE_BID();
+
+      default:
+        return null;
+    }
+  }
+
+  @Override
+  public long getPrice() {
+    return slab.getLong(offset + PRICE);
+  }
+
+  @Override
+  public long getSize() {
+    return slab.getLong(offset + SIZE);
+  }
+
+  @Override
+  public double getFunds() {
+    return slab.getDouble(offset + FUNDS);
+  }
+
+  @Override
+  public long getMakerIdHi() {
+    return isMatch() ? slab.getLong(offset + ORDER_ID_HI) : 0l;
+  }
+
+  @Override
+  public long getMakerIdLo() {
+    return isMatch() ? slab.getLong(offset + ORDER_ID_LO) : 0l;
+  }
+
+  @Override
+  public long getTakerIdHi() {
+    return isMatch() ? slab.getLong(offset + CLIENT_OID_HI) : 0l;
+  }
+
+  @Override
+  public long getTakerIdLo() {
+    return isMatch() ? slab.getLong(offset + CLIENT_OID_LO) : 0l;
+  }
+
+  @Override
+  public long getOldSize() {
+    return slab.getLong(offset + OLD_SIZE);
+  }
+
+  @Override
+  public long getNewSize() {
+    return slab.getLong(offset + NEW_SIZE);
+  }
+
+  @Override
+  public double getOldFunds() {
+    return slab.getDouble(offset + OLD_FUNDS);
+  }
+
+  @Override
+  public double getNewFunds() {
+    return slab.getDouble(offset + NEW_FUNDS);
+  }
+
+}
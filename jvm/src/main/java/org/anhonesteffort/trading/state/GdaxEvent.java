@@ -19,146 +19,104 @@ package org.anhonesteffort.trading.state;
 
 import org.anhonesteffort.trading.book.Orders.Side;
 
-public class GdaxEvent {
+public abstract class GdaxEvent {
 
   public enum Type {
     LIMIT_RX, MARKET_RX, LIMIT_OPEN,
     LIMIT_DONE, MARKET_DONE, MATCH,
     LIMIT_CHANGE, MARKET_CHANGE,
-    REBUILD_START, REBUILD_END
+    REBUILD_START, REBUILD_END, REBUILD_ABORT
   }
 
-  private long   nanoseconds;
-  private Type   type;
-  private String orderId;
-  private String clientOid;
-  private Side   side;
-  private double price;
-  private double size;
-  private double funds;
-  private String makerId;
-  private String takerId;
-  private double oldSize;
-  private double newSize;
-  private double oldFunds;
-  private double newFunds;
-
   // F12
-  private void init(
-      long nanoseconds, Type type, String orderId, String clientOid, Side side,
-      double price, double size, double funds, String makerId, String takerId,
-      double oldSize, double newSize, double oldFunds, double newFunds
-  ) {
-    this.nanoseconds = nanoseconds;
-    this.type        = type;
-    this.orderId     = orderId;
-    this.clientOid   = clientOid;
-    this.side        = side;
-    this.price       = price;
-    this.size        = size;
-    this.funds       = funds;
-    this.makerId     = makerId;
-    this.takerId     = takerId;
-    this.oldSize     = oldSize;
-    this.newSize     = newSize;
-    this.oldFunds    = oldFunds;
-    this.newFunds    = newFunds;
-  }
+  protected abstract void init(
+      long nanoseconds, Type type, long orderIdHi, long orderIdLo, long clientOidHi, long clientOidLo, Side side,
+      long price, long size, double funds, long makerIdHi, long makerIdLo, long takerIdHi, long takerIdLo,
+      long oldSize, long newSize, double oldFunds, double newFunds
+  );
+
+  public abstract void setFeedSequence(long feedSequence);
 
-  public void initLimitRx(long nanoseconds, String orderId, String clientOid, Side side, double price, double size) {
-    init(nanoseconds, Type.LIMIT_RX, orderId, clientOid, side, price, size, -1d, null, null, -1d, -1d, -1d, -1d);
+  public void initLimitRx(long nanoseconds, long orderIdHi, long orderIdLo, long clientOidHi, long clientOidLo, Side side, long price, long size) {
+    init(nanoseconds, Type.LIMIT_RX, orderIdHi, orderIdLo, clientOidHi, clientOidLo, side, price, size, -1d, 0l, 0l, 0l, 0l, -1l, -1l, -1d, -1d);
   }
 
-  public void initMarketRx(long nanoseconds, String orderId, Side side, double size, double funds) {
-    init(nanoseconds, Type.MARKET_RX, orderId, null, side, -1d, size, funds, null, null, -1d, -1d, -1d, -1d);
+  public void initMarketRx(long nanoseconds, long orderIdHi, long orderIdLo, Side side, long size, double funds) {
+    init(nanoseconds, Type.MARKET_RX, orderIdHi, orderIdLo, 0l, 0l, side, -1l, size, funds, 0l, 0l, 0l, 0l, -1l, -1l, -1d, -1d);
   }
 
-  public void initLimitOpen(long nanoseconds, String orderId, Side side, double price, double openSize) {
-    init(nanoseconds, Type.LIMIT_OPEN, orderId, null, side, price, openSize, -1d, null, null, -1d, -1d, -1d, -1d);
+  public void initLimitOpen(long nanoseconds, long orderIdHi, long orderIdLo, Side side, long price, long openSize) {
+    init(nanoseconds, Type.LIMIT_OPEN, orderIdHi, orderIdLo, 0l, 0l, side, price, openSize, -1d, 0l, 0l, 0l, 0l, -1l, -1l, -1d, -1d);
   }
 
-  public void initLimitDone(long nanoseconds, String orderId, Side side, double price, double doneSize) {
-    init(nanoseconds, Type.LIMIT_DONE, orderId, null, side, price, doneSize, -1d, null, null, -1d, -1d, -1d, -1d);
+  public void initLimitDone(long nanoseconds, long orderIdHi, long orderIdLo, Side side, long price, long doneSize) {
+    init(nanoseconds, Type.LIMIT_DONE, orderIdHi, orderIdLo, 0l, 0l, side, price, doneSize, -1d, 0l, 0l, 0l, 0l, -1l, -1l, -1d, -1d);
   }
 
-  public void initMarketDone(long nanoseconds, String orderId, Side side) {
-    init(nanoseconds, Type.MARKET_DONE, orderId, null, side, -1d, -1d, -1d, null, null, -1d, -1d, -1d, -1d);
+  public void initMarketDone(long nanoseconds, long orderIdHi, long orderIdLo, Side side) {
+    init(nanoseconds, Type.MARKET_DONE, orderIdHi, orderIdLo, 0l, 0l, side, -1l, -1l, -1d, 0l, 0l, 0l, 0l, -1l, -1l, -1d, -1d);
   }
 
-  public void initMatch(long nanoseconds, String makerId, String takerId, Side side, double price, double size) {
-    init(nanoseconds, Type.MATCH, null, null, side, price, size, -1d, makerId, takerId, -1d, -1d, -1d, -1d);
+  public void initMatch(long nanoseconds, long makerIdHi, long makerIdLo, long takerIdHi, long takerIdLo, Side side, long price, long size) {
+    init(nanoseconds, Type.MATCH, 0l, 0l, 0l, 0l, side, price, size, -1d, makerIdHi, makerIdLo, takerIdHi, takerIdLo, -1l, -1l, -1d, -1d);
   }
 
-  public void initLimitChange(long nanoseconds, String orderId, Side side, double price, double oldSize, double newSize) {
-    init(nanoseconds, Type.LIMIT_CHANGE, orderId, null, side, price, -1d , -1d, null, null, oldSize, newSize, -1d, -1d);
+  public void initLimitChange(long nanoseconds, long orderIdHi, long orderIdLo, Side side, long price, long oldSize, long newSize) {
+    init(nanoseconds, Type.LIMIT_CHANGE, orderIdHi, orderIdLo, 0l, 0l, side, price, -1l, -1d, 0l, 0l, 0l, 0l, oldSize, newSize, -1d, -1d);
   }
 
-  public void initMarketChange(long nanoseconds, String orderId, Side side, double oldSize, double newSize, double oldFunds, double newFunds) {
-    init(nanoseconds, Type.MARKET_CHANGE, orderId, null, side, -1d, -1d, -1d, null, null, oldSize, newSize, oldFunds, newFunds);
+  public void initMarketChange(long nanoseconds, long orderIdHi, long orderIdLo, Side side, long oldSize, long newSize, double oldFunds, double newFunds) {
+    init(nanoseconds, Type.MARKET_CHANGE, orderIdHi, orderIdLo, 0l, 0l, side, -1l, -1l, -1d, 0l, 0l, 0l, 0l, oldSize, newSize, oldFunds, newFunds);
   }
 
   public void initRebuildStart(long nanoseconds) {
-    init(nanoseconds, Type.REBUILD_START, null, null, null, -1d, -1d, -1d, null, null, -1d, -1d, -1d, -1d);
+    init(nanoseconds, Type.REBUILD_START, 0l, 0l, 0l, 0l, null, -1l, -1l, -1d, 0l, 0l, 0l, 0l, -1l, -1l, -1d, -1d);
   }
 
   public void initRebuildEnd(long nanoseconds) {
-    init(nanoseconds, Type.REBUILD_END, null, null, null, -1d, -1d, -1d, null, null, -1d, -1d, -1d, -1d);
+    init(nanoseconds, Type.REBUILD_END, 0l, 0l, 0l, 0l, null, -1l, -1l, -1d, 0l, 0l, 0l, 0l, -1l, -1l, -1d, -1d);
   }
 
-  public long getNanoseconds() {
-    return nanoseconds;
+  public void initRebuildAbort(long nanoseconds) {
+    init(nanoseconds, Type.REBUILD_ABORT, 0l, 0l, 0l, 0l, null, -1l, -1l, -1d, 0l, 0l, 0l, 0l, -1l, -1l, -1d, -1d);
   }
 
-  public Type getType() {
-    return type;
-  }
+  public abstract long getFeedSequence();
 
-  public String getOrderId() {
-    return orderId;
-  }
+  public abstract long getNanoseconds();
 
-  public String getClientOid() {
-    return clientOid;
-  }
+  public abstract Type getType();
 
-  public Side getSide() {
-    return side;
-  }
+  public abstract long getOrderIdHi();
 
-  public double getPrice() {
-    return price;
-  }
+  public abstract long getOrderIdLo();
 
-  public double getSize() {
-    return size;
-  }
+  public abstract long getClientOidHi();
 
-  public double getFunds() {
-    return funds;
-  }
+  public abstract long getClientOidLo();
 
-  public String getMakerId() {
-    return makerId;
-  }
+  public abstract Side getSide();
 
-  public String getTakerId() {
-    return takerId;
-  }
+  public abstract long getPrice();
 
-  public double getOldSize() {
-    return oldSize;
-  }
+  public abstract long getSize();
 
-  public double getNewSize() {
-    return newSize;
-  }
+  public abstract double getFunds();
 
-  public double getOldFunds() {
-    return oldFunds;
-  }
+  public abstract long getMakerIdHi();
 
-  public double getNewFunds() {
-    return newFunds;
-  }
+  public abstract long getMakerIdLo();
+
+  public abstract long getTakerIdHi();
+
+  public abstract long getTakerIdLo();
+
+  public abstract long getOldSize();
+
+  public abstract long getNewSize();
+
+  public abstract double getOldFunds();
+
+  public abstract double getNewFunds();
 
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.anhonesteffort.trading.state;
+
+import org.anhonesteffort.trading.book.Orders.Side;
+
+public class HeapGdaxEvent extends GdaxEvent {
+
+  private long   feedSequence;
+  private long   nanoseconds;
+  private Type   type;
+  private long   orderIdHi;
+  private long   orderIdLo;
+  private long   clientOidHi;
+  private long   clientOidLo;
+  private Side   side;
+  private long   price;
+  private long   size;
+  private double funds;
+  private long   makerIdHi;
+  private long   makerIdLo;
+  private long   takerIdHi;
+  private long   takerIdLo;
+  private long   oldSize;
+  private long   newSize;
+  private double oldFunds;
+  private double newFunds;
+
+  @Override
+  protected void init(
+      long nanoseconds, Type type, long orderIdHi, long orderIdLo, long clientOidHi, long clientOidLo, Side side,
+      long price, long size, double funds, long makerIdHi, long makerIdLo, long takerIdHi, long takerIdLo,
+      long oldSize, long newSize, double oldFunds, double newFunds
+  ) {
+    this.feedSequence = -1l;
+    this.nanoseconds  = nanoseconds;
+    this.type         = type;
+    this.orderIdHi    = orderIdHi;
+    this.orderIdLo    = orderIdLo;
+    this.clientOidHi  = clientOidHi;
+    this.clientOidLo  = clientOidLo;
+    this.side         = side;
+    this.price        = price;
+    this.size         = size;
+    this.funds        = funds;
+    this.makerIdHi    = makerIdHi;
+    this.makerIdLo    = makerIdLo;
+    this.takerIdHi    = takerIdHi;
+    this.takerIdLo    = takerIdLo;
+    this.oldSize      = oldSize;
+    this.newSize      = newSize;
+    this.oldFunds     = oldFunds;
+    this.newFunds     = newFunds;
+  }
+
+  @Override
+  public void setFeedSequence(long feedSequence) {
+    this.feedSequence = feedSequence;
+  }
+
+  @Override
+  public long getFeedSequence() {
+    return feedSequence;
+  }
+
+  @Override
+  public long getNanoseconds() {
+    return nanoseconds;
+  }
+
+  @Override
+  public Type getType() {
+    return type;
+  }
+
+  @Override
+  public long getOrderIdHi() {
+    return orderIdHi;
+  }
+
+  @Override
+  public long getOrderIdLo() {
+    return orderIdLo;
+  }
+
+  @Override
+  public long getClientOidHi() {
+    return clientOidHi;
+  }
+
+  @Override
+  public long getClientOidLo() {
+    return clientOidLo;
+  }
+
+  @Override
+  public Side getSide() {
+    return side;
+  }
+
+  @Override
+  public long getPrice() {
+    return price;
+  }
+
+  @Override
+  public long getSize() {
+    return size;
+  }
+
+  @Override
+  public double getFunds() {
+    return funds;
+  }
+
+  @Override
+  public long getMakerIdHi() {
+    return makerIdHi;
+  }
+
+  @Override
+  public long getMakerIdLo() {
+    return makerIdLo;
+  }
+
+  @Override
+  public long getTakerIdHi() {
+    return takerIdHi;
+  }
+
+  @Override
+  public long getTakerIdLo() {
+    return takerIdLo;
+  }
+
+  @Override
+  public long getOldSize() {
+    return oldSize;
+  }
+
+  @Override
+  public long getNewSize() {
+    return newSize;
+  }
+
+  @Override
+  public double getOldFunds() {
+    return oldFunds;
+  }
+
+  @Override
+  public double getNewFunds() {
+    return newFunds;
+  }
+
+}
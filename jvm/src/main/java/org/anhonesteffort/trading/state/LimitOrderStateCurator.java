@@ -18,39 +18,41 @@
 package org.anhonesteffort.trading.state;
 
 import org.anhonesteffort.trading.book.CompatLimitOrderBook;
-import org.anhonesteffort.trading.book.CompatTakeResult;
+import org.anhonesteffort.trading.book.FixedPoint;
+import org.anhonesteffort.trading.book.OrderIds;
 import org.anhonesteffort.trading.book.Orders.Order;
 
 import java.util.Optional;
-import java.util.Set;
 
 public class LimitOrderStateCurator extends StateCurator {
 
-  public LimitOrderStateCurator(CompatLimitOrderBook book, Set<StateListener> listeners) {
-    super(book, listeners);
+  public LimitOrderStateCurator(CompatLimitOrderBook book, String rebuildMode) {
+    super(book, rebuildMode);
   }
 
   private Order newLimitOrderForEvent(GdaxEvent event) throws StateProcessingException {
-    if (event.getPrice() > 0d && event.getSize() > 0d) {
-      return new Order(event.getOrderId(), event.getSide(), event.getPrice(), event.getSize());
+    if (event.getPrice() > 0l && event.getSize() > 0l) {
+      return pool.acquire(event.getOrderIdHi(), event.getOrderIdLo(), event.getSide(), event.getPrice(), event.getSize());
     } else {
       throw new StateProcessingException("limit order rx/open event has invalid price or size");
     }
   }
 
   private void checkRxLimitOrderForOpen(GdaxEvent open) throws StateProcessingException {
-    Optional<Order> rxLimit = Optional.ofNullable(state.getRxLimitOrders().remove(open.getOrderId()));
+    Optional<Order> rxLimit = Optional.ofNullable(state.getRxLimitOrders().remove(open.getOrderIdHi(), open.getOrderIdLo()));
     if (!rxLimit.isPresent() && !isSyncing()) {
-      throw new StateProcessingException("limit order " + open.getOrderId() + " was never in the limit rx state map");
-    } else if (rxLimit.isPresent() && Math.abs(rxLimit.get().getSizeRemaining() - open.getSize()) > FORGIVE_SIZE) {
+      throw new StateProcessingException("limit order " + orderIdText(open) + " was never in the limit rx state map");
+    } else if (rxLimit.isPresent() && rxLimit.get().getSizeRemainingUnits() != open.getSize()) {
       throw new StateProcessingException(
           "rx limit order for limit open event disagrees about open size, " +
-              "event wants " + open.getSize() + ", rx has " + rxLimit.get().getSizeRemaining()
+              "event wants " + FixedPoint.toDouble(open.getSize()) + ", rx has " + rxLimit.get().getSizeRemaining()
       );
+    } else if (rxLimit.isPresent()) {
+      pool.release(rxLimit.get());
     }
   }
 
-  private double getSizeReducedForChange(GdaxEvent change) throws StateProcessingException {
+  private long getSizeReducedForChange(GdaxEvent change) throws StateProcessingException {
     if (change.getNewSize() >= change.getOldSize()) {
       throw new StateProcessingException("limit order size can only decrease");
     } else {
@@ -59,96 +61,109 @@ public class LimitOrderStateCurator extends StateCurator {
   }
 
   private Order newRxLimitOrderChange(Order rxLimit, GdaxEvent change) throws StateProcessingException {
-    if (change.getNewSize() >= rxLimit.getSize()) {
+    if (change.getNewSize() >= rxLimit.getSizeUnits()) {
       throw new StateProcessingException("limit order change event new size is >= rx limit order size");
     } else {
-      return new Order(change.getOrderId(), change.getSide(), change.getPrice(), change.getNewSize());
+      return pool.acquire(change.getOrderIdHi(), change.getOrderIdLo(), change.getSide(), change.getPrice(), change.getNewSize());
     }
   }
 
   private void checkDoneRxLimitOrder(GdaxEvent done, Order rxLimit) throws StateProcessingException {
-    if (Math.abs(rxLimit.getSizeRemaining() - done.getSize()) > FORGIVE_SIZE) {
+    if (rxLimit.getSizeRemainingUnits() != done.getSize()) {
       throw new StateProcessingException(
           "rx limit order for limit done event disagrees about size remaining, " +
-              "event wants " + done.getSize() + ", rx has " + rxLimit.getSizeRemaining()
+              "event wants " + FixedPoint.toDouble(done.getSize()) + ", rx has " + rxLimit.getSizeRemaining()
       );
     }
   }
 
   private void checkFilledLimitOrder(Order fillLimit) throws StateProcessingException {
-    if (fillLimit.getSizeRemaining() > FORGIVE_SIZE) {
+    if (fillLimit.getSizeRemainingUnits() > 0l) {
       throw new StateProcessingException("order for filled order event was still open on the book with " + fillLimit.getSizeRemaining());
     }
   }
 
   private void checkCanceledLimitOrder(GdaxEvent done, Order cancelLimit) throws StateProcessingException {
-    if (Math.abs(done.getSize() - cancelLimit.getSizeRemaining()) > FORGIVE_SIZE) {
+    if (done.getSize() != cancelLimit.getSizeRemainingUnits()) {
       throw new StateProcessingException(
           "order for cancel order event disagrees about size remaining, " +
-              "event wants " + done.getSize() + ", order has " + cancelLimit.getSizeRemaining()
+              "event wants " + FixedPoint.toDouble(done.getSize()) + ", order has " + cancelLimit.getSizeRemaining()
       );
     }
   }
 
+  @Override
+  protected void onRebuildOpen(GdaxEvent open) throws StateProcessingException {
+    loadRebuildOrder(newLimitOrderForEvent(open));
+  }
+
   @Override
   protected void onEvent(GdaxEvent event) throws StateProcessingException {
     switch (event.getType()) {
       case LIMIT_RX:
         Order rxOrder = newLimitOrderForEvent(event);
-        if (state.getRxLimitOrders().put(rxOrder.getOrderId(), rxOrder) != null) {
+        if (state.getRxLimitOrders().put(rxOrder.getOrderIdHi(), rxOrder.getOrderIdLo(), rxOrder) != null) {
           throw new StateProcessingException("limit order " + rxOrder.getOrderId() + " already in the limit rx state map");
-        } else if (event.getClientOid() != null) {
-          state.getClientOIdMap().put(event.getClientOid(), event.getOrderId());
+        } else if (!OrderIds.isNone(event.getClientOidHi(), event.getClientOidLo())) {
+          state.getClientOIdMap().put(event.getClientOidHi(), event.getClientOidLo(), rxOrder.copy());
         }
         break;
 
       case LIMIT_OPEN:
         checkRxLimitOrderForOpen(event);
-        Order            openOrder = newLimitOrderForEvent(event);
-        CompatTakeResult result    = state.getOrderBook().jadd(openOrder);
-        if (result.getTakeSize() > 0d) {
-          throw new StateProcessingException("opened limit order took " + result.getTakeSize() + " from the book");
+        Order openOrder = newLimitOrderForEvent(event);
+        if (!state.getOrderBook().open(openOrder)) {
+          throw new StateProcessingException("opened limit order " + openOrder.getOrderId() + " would take from the book");
         } else {
           state.setEvent(Events.open(openOrder, event.getNanoseconds()));
         }
         break;
 
       case LIMIT_CHANGE:
-        double          reducedBy        = getSizeReducedForChange(event);
-        Optional<Order> changedRxOrder   = Optional.ofNullable(state.getRxLimitOrders().remove(event.getOrderId()));
-        Optional<Order> changedOpenOrder = state.getOrderBook().jreduce(event.getSide(), event.getPrice(), event.getOrderId(), reducedBy);
+        long            reducedBy        = getSizeReducedForChange(event);
+        Optional<Order> changedRxOrder   = Optional.ofNullable(state.getRxLimitOrders().remove(event.getOrderIdHi(), event.getOrderIdLo()));
+        Optional<Order> changedOpenOrder = state.getOrderBook().jreduceById(event.getOrderIdHi(), event.getOrderIdLo(), reducedBy);
 
         if (changedRxOrder.isPresent() && changedOpenOrder.isPresent()) {
           throw new StateProcessingException("order for limit change event was in the limit rx state map and open on the book");
         } else if (changedRxOrder.isPresent()) {
           Order newRxLimit = newRxLimitOrderChange(changedRxOrder.get(), event);
-          state.getRxLimitOrders().put(newRxLimit.getOrderId(), newRxLimit);
+          state.getRxLimitOrders().put(newRxLimit.getOrderIdHi(), newRxLimit.getOrderIdLo(), newRxLimit);
+          pool.release(changedRxOrder.get());
         } else if (!changedOpenOrder.isPresent()) {
           throw new StateProcessingException("order for limit change event not found on the book");
         } else {
-          state.setEvent(Events.reduce(changedOpenOrder.get(), reducedBy, event.getNanoseconds()));
+          state.setEvent(Events.reduce(changedOpenOrder.get(), FixedPoint.toDouble(reducedBy), event.getNanoseconds()));
+          if (changedOpenOrder.get().getSizeRemainingUnits() <= 0l) {
+            pool.release(changedOpenOrder.get());
+          }
         }
         break;
 
       case LIMIT_DONE:
-        Optional<Order> doneRxOrder   = Optional.ofNullable(state.getRxLimitOrders().remove(event.getOrderId()));
-        Optional<Order> doneOpenOrder = state.getOrderBook().jremove(event.getSide(), event.getPrice(), event.getOrderId());
+        Optional<Order> doneRxOrder   = Optional.ofNullable(state.getRxLimitOrders().remove(event.getOrderIdHi(), event.getOrderIdLo()));
+        Optional<Order> doneOpenOrder = state.getOrderBook().jremoveById(event.getOrderIdHi(), event.getOrderIdLo());
 
         if (doneRxOrder.isPresent() && doneOpenOrder.isPresent()) {
           throw new StateProcessingException("order for limit done event was in the limit rx state map and open on the book");
         } else if (doneRxOrder.isPresent()) {
           checkDoneRxLimitOrder(event, doneRxOrder.get());
+          pool.release(doneRxOrder.get());
           return;
         }
 
-        if (event.getSize() <= 0d && doneOpenOrder.isPresent()) {
+        if (event.getSize() <= 0l && doneOpenOrder.isPresent()) {
           checkFilledLimitOrder(doneOpenOrder.get());
-        } else if (event.getSize() > 0d && !doneOpenOrder.isPresent()) {
+        } else if (event.getSize() > 0l && !doneOpenOrder.isPresent()) {
           throw new StateProcessingException("order for cancel order event not found on the book");
-        } else if (event.getSize() > 0d && doneOpenOrder.isPresent()) {
+        } else if (event.getSize() > 0l && doneOpenOrder.isPresent()) {
           checkCanceledLimitOrder(event, doneOpenOrder.get());
           state.setEvent(Events.cancel(doneOpenOrder.get(), event.getNanoseconds()));
         }
+
+        if (doneOpenOrder.isPresent()) {
+          pool.release(doneOpenOrder.get());
+        }
         break;
     }
   }
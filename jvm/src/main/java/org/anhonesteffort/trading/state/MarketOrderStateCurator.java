@@ -19,16 +19,14 @@ package org.anhonesteffort.trading.state;
 
 import org.anhonesteffort.trading.book.CompatLimitOrderBook;
 
-import java.util.Set;
-
 public class MarketOrderStateCurator extends LimitOrderStateCurator {
 
   /*
   coinbase lies about market orders in receive messages
   https://community.coinbase.com/t/why-is-this-market-order-filled-without-having-any-fills/10001
    */
-  public MarketOrderStateCurator(CompatLimitOrderBook book, Set<StateListener> listeners) {
-    super(book, listeners);
+  public MarketOrderStateCurator(CompatLimitOrderBook book, String rebuildMode) {
+    super(book, rebuildMode);
   }
 
   @Override
@@ -36,14 +34,14 @@ public class MarketOrderStateCurator extends LimitOrderStateCurator {
     super.onEvent(event);
     switch (event.getType()) {
       case MARKET_RX:
-        if (!state.getMarketOrderIds().add(event.getOrderId())) {
-          throw new StateProcessingException("market order " + event.getOrderId() + " already in the market state map");
+        if (!state.getMarketOrderIds().add(event.getOrderIdHi(), event.getOrderIdLo())) {
+          throw new StateProcessingException("market order " + orderIdText(event) + " already in the market state map");
         }
         break;
 
       case MARKET_DONE:
-        if (!state.getMarketOrderIds().remove(event.getOrderId())) {
-          throw new StateProcessingException("market order " + event.getOrderId() + " was never in the market state map");
+        if (!state.getMarketOrderIds().remove(event.getOrderIdHi(), event.getOrderIdLo())) {
+          throw new StateProcessingException("market order " + orderIdText(event) + " was never in the market state map");
         }
         break;
     }
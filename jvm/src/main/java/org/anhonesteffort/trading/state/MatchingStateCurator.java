@@ -18,15 +18,17 @@
 package org.anhonesteffort.trading.state;
 
 import org.anhonesteffort.trading.book.CompatLimitOrderBook;
-import org.anhonesteffort.trading.book.CompatTakeResult;
+import org.anhonesteffort.trading.book.FixedPoint;
 import org.anhonesteffort.trading.book.Orders;
 import org.anhonesteffort.trading.book.Orders.Order;
+import org.anhonesteffort.trading.book.Take;
 
 import java.util.Optional;
-import java.util.Set;
 
 public class MatchingStateCurator extends MarketOrderStateCurator {
 
+  private final Take take;
+
   /*
   todo:
     if coinbase receives any takers or does any matching while we're rebuilding,
@@ -36,40 +38,39 @@ public class MatchingStateCurator extends MarketOrderStateCurator {
     we can only really begin to trust the rx limit and market state after some
     time has passed since rebuilding
    */
-  public MatchingStateCurator(CompatLimitOrderBook book, Set<StateListener> listeners) {
-    super(book, listeners);
+  public MatchingStateCurator(CompatLimitOrderBook book, String rebuildMode) {
+    super(book, rebuildMode);
+    take = new Take(state.makers());
   }
 
   private Order newTakerOrder(GdaxEvent match) throws StateProcessingException {
-    if (match.getPrice() > 0d && match.getSize() > 0d) {
+    if (match.getPrice() > 0l && match.getSize() > 0l) {
       if (match.getSide() == Orders.SIDE_ASK()) {
-        return Orders.limitBid(match.getTakerId(), match.getPrice(), match.getSize());
+        return pool.acquire(match.getTakerIdHi(), match.getTakerIdLo(), Orders.SIDE_BID(), match.getPrice(), match.getSize());
       } else {
-        return Orders.limitAsk(match.getTakerId(), match.getPrice(), match.getSize());
+        return pool.acquire(match.getTakerIdHi(), match.getTakerIdLo(), Orders.SIDE_ASK(), match.getPrice(), match.getSize());
       }
     } else {
       throw new StateProcessingException("match event has invalid taker price or size");
     }
   }
 
-  private void checkEventAgainstTakeResult(GdaxEvent match, Order taker, CompatTakeResult result) throws StateProcessingException {
-    if (Math.abs(result.getTakeSize() - match.getSize()) > FORGIVE_SIZE) {
+  private void checkEventAgainstTake(GdaxEvent match, Order taker) throws StateProcessingException {
+    if (take.getTakeSizeUnits() != match.getSize()) {
       throw new StateProcessingException(
           "take size for match event does not agree with our book, " +
-              "event wants " + match.getSize() + ", book gave " + result.getTakeSize()
+              "event wants " + FixedPoint.toDouble(match.getSize()) + ", book gave " + take.getTakeSize()
       );
-    } else if (taker.getSizeRemaining() > FORGIVE_SIZE) {
+    } else if (taker.getSizeRemainingUnits() > 0l) {
       throw new StateProcessingException("taker for match event was left on the book with " + taker.getSizeRemaining());
-    } else if (taker.getSizeRemaining() > 0d) {
-      state.getOrderBook().jremove(taker.getSide(), taker.getPrice(), taker.getOrderId());
     }
   }
 
-  private void updateRxLimitOrder(String takerId, double takeSize) throws StateProcessingException {
-    Optional<Order> limitTaker = Optional.ofNullable(state.getRxLimitOrders().get(takerId));
+  private void updateRxLimitOrder(Order taker, long takeSize) throws StateProcessingException {
+    Optional<Order> limitTaker = Optional.ofNullable(state.getRxLimitOrders().get(taker.getOrderIdHi(), taker.getOrderIdLo()));
     if (!limitTaker.isPresent()) {
       throw new StateProcessingException("limit order for match event not found in the limit rx state map");
-    } else if (Math.abs(limitTaker.get().takeSize(takeSize) - takeSize) > FORGIVE_SIZE) {
+    } else if (limitTaker.get().takeSizeUnits(takeSize) != takeSize) {
       throw new StateProcessingException(
           "limit order for match event disagrees with order size in the limit rx state map"
       );
@@ -81,17 +82,17 @@ public class MatchingStateCurator extends MarketOrderStateCurator {
     super.onEvent(event);
     if (!event.getType().equals(GdaxEvent.Type.MATCH)) { return; }
 
-    Order            taker  = newTakerOrder(event);
-    CompatTakeResult result = state.getOrderBook().jadd(taker);
+    Order taker = newTakerOrder(event);
+    state.getOrderBook().add(taker, take);
 
-    checkEventAgainstTakeResult(event, taker, result);
+    checkEventAgainstTake(event, taker);
 
-    if (!state.getMarketOrderIds().contains(taker.getOrderId())) {
-      updateRxLimitOrder(taker.getOrderId(), event.getSize());
+    if (!state.getMarketOrderIds().contains(taker.getOrderIdHi(), taker.getOrderIdLo())) {
+      updateRxLimitOrder(taker, event.getSize());
     }
 
     state.setEvent(Events.take(taker, event.getNanoseconds()));
-    state.getMakers().addAll(result.getMakers());
+    pool.release(taker);
   }
 
 }
@@ -17,70 +17,371 @@
 
 package org.anhonesteffort.trading.state;
 
-import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.TimeoutException;
 import org.anhonesteffort.trading.book.CompatLimitOrderBook;
+import org.anhonesteffort.trading.book.OrderIds;
+import org.anhonesteffort.trading.book.OrderPool;
 import org.anhonesteffort.trading.book.Orders.Order;
+import org.anhonesteffort.trading.disruptor.ListenerGate;
+import org.anhonesteffort.trading.disruptor.MeteredHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scala.Option;
+import scala.collection.Iterator;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
 
-public abstract class StateCurator implements EventHandler<GdaxEvent> {
+public abstract class StateCurator implements MeteredHandler<GdaxEvent> {
 
   private static final Logger log = LoggerFactory.getLogger(StateCurator.class);
-  protected static final double FORGIVE_SIZE = 0.000000000001d;
+
+  public static final String REBUILD_CLEAR  = "clear";
+  public static final String REBUILD_SHADOW = "shadow";
+  public static final String REBUILD_DIFF   = "diff";
+
+  public enum Notice {
+    NONE, CHANGE, SYNC_START, SYNC_END, RESYNC, DIFF
+  }
 
   protected final CompatGdaxState state;
-  protected final Set<StateListener> listeners;
+  protected final OrderPool pool;
+  private final CompatLimitOrderBook shadowBook;
+  private final BookDiff diff = new BookDiff();
+  private final List<Events.OrderEvent> diffEvents = new ArrayList<>();
+  private final List<StateBatch> conflated = new ArrayList<>();
+  private final StampedLock stateLock = new StampedLock();
+  private final String rebuildMode;
+  private String rebuilding = REBUILD_CLEAR;
   private boolean syncing = false;
+  private Notice notice = Notice.NONE;
+  private ListenerGate listenerGate;
+  private Sequence sequenceCallback;
 
-  public StateCurator(CompatLimitOrderBook book, Set<StateListener> listeners) {
-    state          = new CompatGdaxState(book);
-    this.listeners = listeners;
+  public StateCurator(CompatLimitOrderBook book, String rebuildMode) {
+    state            = new CompatGdaxState(book);
+    pool             = book.getPool();
+    shadowBook       = new CompatLimitOrderBook(pool);
+    this.rebuildMode = rebuildMode;
+
+    switch (rebuildMode) {
+      case REBUILD_CLEAR:
+      case REBUILD_SHADOW:
+      case REBUILD_DIFF:
+        break;
+
+      default:
+        throw new IllegalArgumentException("unknown rebuild mode -> " + rebuildMode);
+    }
+  }
+
+  public void setListenerGate(ListenerGate listenerGate) {
+    this.listenerGate = listenerGate;
+  }
+
+  public void onListenerAdvanced() {
+    if (listenerGate != null) {
+      listenerGate.signal();
+    }
+  }
+
+  @Override
+  public void setSequenceCallback(Sequence sequenceCallback) {
+    this.sequenceCallback = sequenceCallback;
+  }
+
+  @Override
+  public String getName() {
+    return "curator";
+  }
+
+  @Override
+  public Sequence getSequence() {
+    return sequenceCallback;
+  }
+
+  public StateBatch registerConflated() {
+    StateBatch batch = new StateBatch();
+    conflated.add(batch);
+    return batch;
+  }
+
+  public StampedLock getStateLock() {
+    return stateLock;
+  }
+
+  public CompatGdaxState getState() {
+    return state;
+  }
+
+  public Notice getNotice() {
+    return notice;
+  }
+
+  public BookDiff getDiff() {
+    return diff;
+  }
+
+  public List<Events.OrderEvent> getDiffEvents() {
+    return diffEvents;
   }
 
   protected boolean isSyncing() {
     return syncing;
   }
 
+  protected static String orderIdText(GdaxEvent event) {
+    return OrderIds.toText(event.getOrderIdHi(), event.getOrderIdLo());
+  }
+
+  // listeners read the curated state in place, so the curator never runs ahead of them
+  private void awaitListeners(long sequence) throws StateProcessingException {
+    if (listenerGate == null) {
+      return;
+    }
+
+    try {
+
+      listenerGate.waitFor(sequence);
+
+    } catch (AlertException | TimeoutException e) {
+      throw new StateProcessingException("interrupted waiting on state listeners", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new StateProcessingException("interrupted waiting on state listeners", e);
+    }
+  }
+
   private void cleanupTempState() {
+    // listeners are done with the resync, so whatever it dropped goes back to the pool
+    if (notice == Notice.RESYNC) {
+      shadowBook.release();
+    } else if (notice == Notice.DIFF) {
+      diff.release(pool);
+    }
+
+    notice = Notice.NONE;
+    diffEvents.clear();
+
     if (state.getEvent().isPresent()) {
       state.setEvent(null);
-      state.getMakers().stream()
-           .filter(make -> make.getSizeRemaining() > 0d)
-           .forEach(Order::clearValueRemoved);
+      List<Order> makers = state.getMakers();
+      for (int i = 0; i < makers.size(); i++) {
+        if (makers.get(i).getSizeRemainingUnits() > 0l) {
+          makers.get(i).clearValueRemoved();
+        } else {
+          pool.release(makers.get(i));
+        }
+      }
       state.getMakers().clear();
     }
   }
 
   protected abstract void onEvent(GdaxEvent event) throws StateProcessingException;
 
-  @Override
-  public void onEvent(GdaxEvent event, long sequence, boolean endOfBatch) throws StateProcessingException {
-    switch (event.getType()) {
-      case REBUILD_START:
-        state.clear();
-        syncing = true;
+  protected abstract void onRebuildOpen(GdaxEvent open) throws StateProcessingException;
+
+  private void releaseRxLimitOrder(Order order) {
+    Order rxLimit = state.getRxLimitOrders().remove(order.getOrderIdHi(), order.getOrderIdLo());
+    if (rxLimit != null) {
+      pool.release(rxLimit);
+    }
+  }
+
+  protected void loadRebuildOrder(Order order) {
+    switch (rebuilding) {
+      case REBUILD_SHADOW:
+        diff.compare(state.getOrderBook(), order);
+        releaseRxLimitOrder(order);
+        shadowBook.load(order);
+        break;
+
+      case REBUILD_DIFF:
+        if (!diff.compare(state.getOrderBook(), order)) {
+          pool.release(order);
+        }
+        releaseRxLimitOrder(order);
+        break;
+
+      default:
+        state.getOrderBook().load(order);
+    }
+  }
+
+  private void onRebuildStart() {
+    syncing = true;
+
+    if (rebuildMode.equals(REBUILD_DIFF) && state.getOrderBook().isEmpty()) {
+      rebuilding = REBUILD_CLEAR;
+    } else {
+      rebuilding = rebuildMode;
+    }
+
+    switch (rebuilding) {
+      case REBUILD_SHADOW:
+        log.info("syncing shadow order book");
+        shadowBook.release();
+        diff.clear();
+        break;
+
+      case REBUILD_DIFF:
+        log.info("diffing order book");
+        diff.clear();
+        break;
+
+      default:
         log.info("syncing order book");
-        for (StateListener listener : listeners) {
-          listener.onStateSyncStart(event.getNanoseconds());
+        state.release();
+        notice = Notice.SYNC_START;
+    }
+  }
+
+  private void onRebuildEnd(long nanoseconds) {
+    syncing = false;
+
+    switch (rebuilding) {
+      case REBUILD_SHADOW:
+        shadowBook.endLoad();
+        diff.sweep(state.getOrderBook());
+        state.getOrderBook().swap(shadowBook);
+        log.info("order book resync complete with " + diff.size() + " changes");
+        notice = Notice.RESYNC;
+        break;
+
+      case REBUILD_DIFF:
+        diff.sweep(state.getOrderBook());
+        log.info("order book diff complete with " + diff.size() + " changes");
+        Option<Events.OrderEvent> next;
+        while ((next = diff.applyNext(state.getOrderBook(), nanoseconds)).isDefined()) {
+          diffEvents.add(next.get());
         }
+        notice = Notice.DIFF;
         break;
 
-      case REBUILD_END:
-        syncing = false;
+      default:
+        state.getOrderBook().endLoad();
         log.info("order book sync complete");
-        for (StateListener listener : listeners) {
-          listener.onStateSyncEnd(event.getNanoseconds());
+        notice = Notice.SYNC_END;
+    }
+  }
+
+  // the snapshot failed mid stream, whatever it loaded is discarded and the live book is left as it was
+  private void onRebuildAbort() {
+    if (!syncing) {
+      return;
+    }
+
+    syncing = false;
+
+    switch (rebuilding) {
+      case REBUILD_SHADOW:
+        shadowBook.release();
+        diff.clear();
+        log.warn("shadow order book sync aborted");
+        break;
+
+      case REBUILD_DIFF:
+        diff.release(pool);
+        diff.clear();
+        log.warn("order book diff aborted");
+        break;
+
+      default:
+        state.release();
+        log.warn("order book sync aborted, book left empty until the next sync");
+    }
+  }
+
+  private void addToBatches(Events.OrderEvent event) {
+    for (StateBatch batch : conflated) {
+      batch.add(event);
+    }
+  }
+
+  private void recordConflated(long nanoseconds) {
+    switch (notice) {
+      case CHANGE:
+        if (state.getEvent().isPresent()) {
+          addToBatches(state.getEvent().get());
+        } else {
+          conflated.forEach(StateBatch::addChange);
         }
         break;
 
+      case SYNC_START:
+        addToBatches(Events.syncStart(nanoseconds));
+        break;
+
+      case SYNC_END:
+        addToBatches(Events.syncEnd(nanoseconds));
+        break;
+
+      case RESYNC:
+        Iterator<Events.OrderEvent> events = diff.events(nanoseconds).iterator();
+        while (events.hasNext()) {
+          addToBatches(events.next());
+        }
+        break;
+
+      case DIFF:
+        diffEvents.forEach(this::addToBatches);
+        break;
+    }
+  }
+
+  private void curate(GdaxEvent event) throws StateProcessingException {
+    cleanupTempState();
+
+    switch (event.getType()) {
+      case REBUILD_START:
+        onRebuildStart();
+        break;
+
+      case REBUILD_END:
+        onRebuildEnd(event.getNanoseconds());
+        break;
+
+      case REBUILD_ABORT:
+        onRebuildAbort();
+        break;
+
       default:
-        onEvent(event);
-        for (StateListener listener : listeners) {
-          listener.onStateChange(state, event.getNanoseconds());
+        if (syncing && event.getType() == GdaxEvent.Type.LIMIT_OPEN) {
+          onRebuildOpen(event);
+        } else {
+          onEvent(event);
+          notice = Notice.CHANGE;
         }
-        cleanupTempState();
+    }
+
+    if (!conflated.isEmpty()) {
+      recordConflated(event.getNanoseconds());
+    }
+  }
+
+  // conflated listeners aren't gated, they read the latest state under the read lock
+  @Override
+  public void onEvent(GdaxEvent event, long sequence, boolean endOfBatch) throws StateProcessingException {
+    awaitListeners(sequence - 1l);
+
+    if (conflated.isEmpty()) {
+      curate(event);
+    } else {
+      long stamp = stateLock.writeLock();
+      try {
+
+        curate(event);
+
+      } finally {
+        stateLock.unlockWrite(stamp);
+      }
+    }
+
+    if (listenerGate != null) {
+      sequenceCallback.set(sequence);
     }
   }
 
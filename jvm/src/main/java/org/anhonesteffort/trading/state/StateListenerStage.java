@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.anhonesteffort.trading.state;
+
+import com.lmax.disruptor.Sequence;
+import org.anhonesteffort.trading.disruptor.MeteredHandler;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.locks.StampedLock;
+
+public class StateListenerStage implements MeteredHandler<GdaxEvent> {
+
+  private final StateCurator curator;
+  private final CompatGdaxState view;
+  private final Set<StateListener> listeners;
+  private final StateBatch batch;
+  private Sequence sequence;
+
+  public StateListenerStage(StateCurator curator, Set<StateListener> listeners) {
+    this.curator   = curator;
+    this.view      = curator.getState().view();
+    this.listeners = listeners;
+
+    if (!listeners.isEmpty() && listeners.stream().allMatch(StateListener::isConflated)) {
+      batch = curator.registerConflated();
+    } else {
+      batch = null;
+    }
+  }
+
+  @Override
+  public String getName() {
+    return listeners.stream().map(listener -> listener.getClass().getSimpleName()).collect(Collectors.joining(","));
+  }
+
+  @Override
+  public void setSequenceCallback(Sequence sequence) {
+    this.sequence = sequence;
+  }
+
+  @Override
+  public Sequence getSequence() {
+    return sequence;
+  }
+
+  public boolean isConflated() {
+    return batch != null;
+  }
+
+  private void onStateBatch(long nanoseconds) throws StateProcessingException {
+    StampedLock lock  = curator.getStateLock();
+    long        stamp = lock.readLock();
+
+    try {
+
+      if (!batch.isEmpty()) {
+        view.setEvent(batch.last().isDefined() ? batch.last().get() : null);
+        for (StateListener listener : listeners) {
+          listener.onStateBatch(view, batch, nanoseconds);
+        }
+        view.setEvent(null);
+        batch.clear();
+      }
+
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  private void onStateChange(Events.OrderEvent event, long nanoseconds) throws StateProcessingException {
+    view.setEvent(event);
+    for (StateListener listener : listeners) {
+      listener.onStateChange(view, nanoseconds);
+    }
+    view.setEvent(null);
+  }
+
+  @Override
+  public void onEvent(GdaxEvent event, long sequence, boolean endOfBatch) throws StateProcessingException {
+    if (isConflated()) {
+      if (endOfBatch) {
+        onStateBatch(event.getNanoseconds());
+      }
+      return;
+    }
+
+    switch (curator.getNotice()) {
+      case CHANGE:
+        onStateChange(curator.getState().getEvent().orElse(null), event.getNanoseconds());
+        break;
+
+      case SYNC_START:
+        for (StateListener listener : listeners) {
+          listener.onStateSyncStart(event.getNanoseconds());
+        }
+        break;
+
+      case SYNC_END:
+        for (StateListener listener : listeners) {
+          listener.onStateSyncEnd(event.getNanoseconds());
+        }
+        break;
+
+      case RESYNC:
+        view.setResync(curator.getDiff());
+        for (StateListener listener : listeners) {
+          listener.onStateResync(view, curator.getDiff(), event.getNanoseconds());
+        }
+        view.setResync(null);
+        break;
+
+      case DIFF:
+        view.setResync(curator.getDiff());
+        for (Events.OrderEvent change : curator.getDiffEvents()) {
+          onStateChange(change, event.getNanoseconds());
+        }
+        view.setResync(null);
+        break;
+    }
+
+    this.sequence.set(sequence);
+    curator.onListenerAdvanced();
+  }
+
+}
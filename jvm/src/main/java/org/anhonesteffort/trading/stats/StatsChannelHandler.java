@@ -20,8 +20,10 @@ package org.anhonesteffort.trading.stats;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import org.anhonesteffort.trading.proto.TradingProtoFactory;
+import org.anhonesteffort.trading.state.BookDiff;
 import org.anhonesteffort.trading.state.Events;
 import org.anhonesteffort.trading.state.GdaxState;
+import org.anhonesteffort.trading.state.StateBatch;
 import org.anhonesteffort.trading.state.StateListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,6 +69,22 @@ public class StatsChannelHandler extends ChannelInboundHandlerAdapter implements
     );
   }
 
+  @Override
+  public void onStateBatch(GdaxState state, StateBatch batch, long nanoseconds) {
+    context.ifPresent(ctx -> {
+      batch.events().foreach(event -> ctx.write(proto.orderEvent(event)));
+      ctx.flush();
+    });
+  }
+
+  @Override
+  public void onStateResync(GdaxState state, BookDiff diff, long nanoseconds) {
+    context.ifPresent(ctx -> {
+      diff.events(nanoseconds).foreach(event -> ctx.write(proto.orderEvent(event)));
+      ctx.flush();
+    });
+  }
+
   @Override
   public void channelRead(ChannelHandlerContext context, Object msg) {
     log.warn("received unexpected message from client, closing");
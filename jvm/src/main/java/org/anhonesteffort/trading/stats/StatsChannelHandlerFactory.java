@@ -39,6 +39,11 @@ public class StatsChannelHandlerFactory extends Computation<Void> {
     removeChild(handler);
   }
 
+  @Override
+  public boolean isConflated() {
+    return true;
+  }
+
   @Override
   public Void computeNextResult(GdaxState state, long ns) {
     return null;
@@ -37,14 +37,14 @@
 
 package org.anhonesteffort.trading.ws;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.WebSocketClientProtocolHandler;
 import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import org.anhonesteffort.trading.ws.message.FeedMessage;
+import org.anhonesteffort.trading.ws.message.MessageDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,12 +57,14 @@ public class WsMessageReceiver extends ChannelInboundHandlerAdapter {
   private static final Logger log       = LoggerFactory.getLogger(WsMessageReceiver.class);
   private static final String SUBSCRIBE = "{ \"type\": \"subscribe\", \"product_id\": \"BTC-USD\" }";
 
-  private final ObjectReader    reader  = new ObjectMapper().reader();
+  private final FeedMessage     message = new FeedMessage();
   private final AtomicBoolean   closing = new AtomicBoolean(false);
+  private final MessageDecoder  decoder;
   private final WsMessageSorter sorter;
 
-  public WsMessageReceiver(WsMessageSorter sorter) {
-    this.sorter = sorter;
+  public WsMessageReceiver(MessageDecoder decoder, WsMessageSorter sorter) {
+    this.decoder = decoder;
+    this.sorter  = sorter;
   }
 
   @Override
@@ -86,20 +88,23 @@ public class WsMessageReceiver extends ChannelInboundHandlerAdapter {
   {
     WebSocketFrame frame = (WebSocketFrame) msg;
 
-    if (frame instanceof TextWebSocketFrame) {
-      sorter.sort(reader.readTree(
-          ((TextWebSocketFrame) frame).text()),
-          System.nanoTime()
-      );
-    } else if (frame instanceof CloseWebSocketFrame) {
-      CloseWebSocketFrame close = (CloseWebSocketFrame) frame;
-      throw new WsException(
-          "socket closed with code " + close.statusCode() +
-              " and reason -> " + close.reasonText()
-      );
-    }
+    try {
+
+      if (frame instanceof TextWebSocketFrame) {
+        long nanoseconds = System.nanoTime();
+        decoder.decode((TextWebSocketFrame) frame, message);
+        sorter.sort(context, message, nanoseconds);
+      } else if (frame instanceof CloseWebSocketFrame) {
+        CloseWebSocketFrame close = (CloseWebSocketFrame) frame;
+        throw new WsException(
+            "socket closed with code " + close.statusCode() +
+                " and reason -> " + close.reasonText()
+        );
+      }
 
-    frame.release();
+    } finally {
+      frame.release();
+    }
   }
 
   @Override
@@ -17,13 +17,14 @@
 
 package org.anhonesteffort.trading.ws;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import org.anhonesteffort.trading.http.HttpClientWrapper;
-import org.anhonesteffort.trading.http.response.model.GetOrderBookResponse;
+import io.netty.channel.ChannelHandlerContext;
+import org.anhonesteffort.trading.http.OrderBookClient;
 import org.anhonesteffort.trading.ws.message.Accessor;
+import org.anhonesteffort.trading.ws.message.FeedMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
@@ -31,54 +32,156 @@ public class WsMessageSorter {
 
   private static final Logger log = LoggerFactory.getLogger(WsMessageSorter.class);
 
-  private final Accessor          accessor = new Accessor();
+  public static final String RESYNC_ASYNC    = "async";
+  public static final String RESYNC_BLOCKING = "blocking";
+
+  private final ArrayDeque<BufferedMessage> buffered = new ArrayDeque<>();
+  private final ArrayDeque<BufferedMessage> spare    = new ArrayDeque<>();
   private final WsRingPublisher   publisher;
-  private final HttpClientWrapper http;
+  private final OrderBookClient   http;
+  private final boolean           async;
+  private final int               bufferLimit;
 
   private Optional<Long> messageSeqLast = Optional.empty();
+  private boolean        resyncPending  = false;
+  private long           droppedCount   = 0l;
+  private long           overflowCount  = 0l;
+
+  public WsMessageSorter(WsRingPublisher publisher, OrderBookClient http, String resyncMode, int bufferLimit) {
+    this.publisher   = publisher;
+    this.http        = http;
+    this.bufferLimit = bufferLimit;
+
+    switch (resyncMode) {
+      case RESYNC_ASYNC:
+        async = true;
+        break;
+
+      case RESYNC_BLOCKING:
+        async = false;
+        break;
+
+      default:
+        throw new IllegalArgumentException("unknown ws resync mode -> " + resyncMode);
+    }
 
-  public WsMessageSorter(WsRingPublisher publisher, HttpClientWrapper http) {
-    this.publisher = publisher;
-    this.http      = http;
+    if (!async && publisher.dropsOnOverflow()) {
+      throw new IllegalArgumentException("ws overflow policy requires async resync mode");
+    }
+  }
+
+  private void resyncBlocking() throws InterruptedException, ExecutionException {
+    messageSeqLast = Optional.of(http.geOrderBook(publisher).get());
   }
 
-  private void checkSeqAndPublish(JsonNode root, String type, long sequence, long nanoseconds)
+  private void resyncAsync(ChannelHandlerContext context) {
+    // the http thread owns the ring until the snapshot future completes
+    resyncPending = true;
+    http.geOrderBook(publisher).whenCompleteAsync((bookSeq, error) -> {
+      try {
+
+        if (error != null) {
+          throw new WsException("failed to download order book snapshot", error);
+        } else {
+          onOrderBook(context, bookSeq);
+        }
+
+      } catch (Throwable throwable) {
+        context.pipeline().fireExceptionCaught(throwable);
+      }
+    }, context.executor());
+  }
+
+  private void onOrderBook(ChannelHandlerContext context, long bookSeq)
       throws WsException, InterruptedException, ExecutionException
   {
-    if (!messageSeqLast.isPresent()) {
-      GetOrderBookResponse orderBook = http.geOrderBook().get();
-      messageSeqLast = Optional.of(orderBook.getSequence());
-      publisher.publishBook(orderBook, System.nanoTime());
+    resyncPending  = false;
+    messageSeqLast = Optional.of(bookSeq);
+
+    if (droppedCount > 0l) {
+      log.warn("dropped " + droppedCount + " messages while awaiting order book snapshot");
+      droppedCount = 0l;
+    }
+    if (overflowCount > 0l) {
+      log.warn("ring overflowed " + overflowCount + " times since last order book snapshot");
+      overflowCount = 0l;
+    }
+
+    int replayCount = buffered.size();
+    for (int i = 0; i < replayCount; i++) {
+      BufferedMessage next = buffered.poll();
+      checkSeqAndPublish(context, next.message, next.message.getSequence(), next.nanoseconds);
+      spare.push(next);
+    }
+  }
+
+  private void buffer(FeedMessage message, long nanoseconds) {
+    if (buffered.size() >= bufferLimit) {
+      droppedCount++;
+      return;
+    }
+
+    BufferedMessage next = spare.isEmpty() ? new BufferedMessage() : spare.pop();
+    next.message.copyFrom(message);
+    next.nanoseconds = nanoseconds;
+    buffered.add(next);
+  }
+
+  private void resync(ChannelHandlerContext context, FeedMessage message, long nanoseconds)
+      throws InterruptedException, ExecutionException
+  {
+    if (async) {
+      resyncAsync(context);
+      buffer(message, nanoseconds);
+    } else {
+      resyncBlocking();
+    }
+  }
+
+  private void checkSeqAndPublish(ChannelHandlerContext context, FeedMessage message, long sequence, long nanoseconds)
+      throws WsException, InterruptedException, ExecutionException
+  {
+    if (resyncPending) {
+      buffer(message, nanoseconds);
+    } else if (!messageSeqLast.isPresent()) {
+      resync(context, message, nanoseconds);
     } else if (sequence == (messageSeqLast.get() + 1l)) {
-      messageSeqLast = Optional.of(sequence);
-      publisher.publishMessage(root, type, nanoseconds);
+      if (publisher.publishMessage(message, nanoseconds)) {
+        messageSeqLast = Optional.of(sequence);
+      } else {
+        overflowCount++;
+        resync(context, message, nanoseconds);
+      }
     } else if (sequence > messageSeqLast.get()) {
       log.warn("received out of order seq -> " + sequence + ", expected -> " + (messageSeqLast.get() + 1));
-      GetOrderBookResponse orderBook = http.geOrderBook().get();
-      messageSeqLast = Optional.of(orderBook.getSequence());
-      publisher.publishBook(orderBook, System.nanoTime());
+      resync(context, message, nanoseconds);
     }
   }
 
-  public void sort(JsonNode root, long nanoseconds)
+  public void sort(ChannelHandlerContext context, FeedMessage message, long nanoseconds)
       throws WsException, InterruptedException, ExecutionException
   {
-    String type = accessor.getType(root);
+    String type = message.getType();
     switch (type) {
       case Accessor.TYPE_RECEIVED:
       case Accessor.TYPE_MATCH:
       case Accessor.TYPE_OPEN:
       case Accessor.TYPE_DONE:
       case Accessor.TYPE_CHANGE:
-        checkSeqAndPublish(root, type, accessor.getSequence(root), nanoseconds);
+        checkSeqAndPublish(context, message, message.getSequence(), nanoseconds);
         break;
 
       case Accessor.TYPE_ERROR:
-        throw new WsException("received error message -> " + root.get("message"));
+        throw new WsException("received error message -> " + message.getMessage());
 
       default:
         throw new WsException("json root has invalid type tag -> " + type);
     }
   }
 
+  private static class BufferedMessage {
+    private final FeedMessage message = new FeedMessage();
+    private long nanoseconds;
+  }
+
 }
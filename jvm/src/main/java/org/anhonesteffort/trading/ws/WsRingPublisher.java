@@ -17,147 +17,176 @@
 
 package org.anhonesteffort.trading.ws;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.lmax.disruptor.InsufficientCapacityException;
 import com.lmax.disruptor.RingBuffer;
-import org.anhonesteffort.trading.book.Orders;
+import org.anhonesteffort.trading.book.Orders.Side;
+import org.anhonesteffort.trading.disruptor.RingMetrics;
+import org.anhonesteffort.trading.http.response.GetOrderBookListener;
 import org.anhonesteffort.trading.state.GdaxEvent;
-import org.anhonesteffort.trading.http.response.model.GetOrderBookResponse;
-import org.anhonesteffort.trading.http.response.model.GetOrderBookResponseEntry;
-import org.anhonesteffort.trading.ws.message.ChangeAccessor;
-import org.anhonesteffort.trading.ws.message.DoneAccessor;
 import org.anhonesteffort.trading.ws.message.Accessor;
-import org.anhonesteffort.trading.ws.message.MatchAccessor;
-import org.anhonesteffort.trading.ws.message.OpenAccessor;
-import org.anhonesteffort.trading.ws.message.ReceivedAccessor;
-import org.anhonesteffort.trading.book.Orders.Side;
+import org.anhonesteffort.trading.ws.message.FeedMessage;
 
-public class WsRingPublisher {
+public class WsRingPublisher implements GetOrderBookListener {
 
-  private final Accessor         base    = new Accessor();
-  private final ReceivedAccessor receive = new ReceivedAccessor();
-  private final MatchAccessor    match   = new MatchAccessor();
-  private final OpenAccessor     open    = new OpenAccessor();
-  private final DoneAccessor     done    = new DoneAccessor();
-  private final ChangeAccessor   change  = new ChangeAccessor();
+  public static final String OVERFLOW_BLOCK  = "block";
+  public static final String OVERFLOW_RESYNC = "resync";
 
   private final RingBuffer<GdaxEvent> ringBuffer;
+  private final RingMetrics metrics;
+  private final boolean dropOnOverflow;
   private long currentSeq;
+  private long bookNanoseconds;
 
-  public WsRingPublisher(RingBuffer<GdaxEvent> ringBuffer) {
+  public WsRingPublisher(RingBuffer<GdaxEvent> ringBuffer, RingMetrics metrics, String overflowPolicy) {
     this.ringBuffer = ringBuffer;
+    this.metrics    = metrics;
+
+    switch (overflowPolicy) {
+      case OVERFLOW_BLOCK:
+        dropOnOverflow = false;
+        break;
+
+      case OVERFLOW_RESYNC:
+        dropOnOverflow = true;
+        break;
+
+      default:
+        throw new IllegalArgumentException("unknown ws overflow policy -> " + overflowPolicy);
+    }
   }
 
-  private GdaxEvent takeNextEvent() {
-    currentSeq = ringBuffer.next();
-    return ringBuffer.get(currentSeq);
+  public boolean dropsOnOverflow() {
+    return dropOnOverflow;
   }
 
-  private void publishCurrentEvent() {
-    ringBuffer.publish(currentSeq);
+  private GdaxEvent takeNextEvent() {
+    if (ringBuffer.hasAvailableCapacity(1)) {
+      currentSeq = ringBuffer.next();
+    } else {
+      long start = System.nanoTime();
+      currentSeq = ringBuffer.next();
+      metrics.onProducerBlocked(System.nanoTime() - start);
+    }
+    return ringBuffer.get(currentSeq);
   }
 
-  private Side getSideOrThrow(JsonNode root) throws WsException {
-    String side = base.getSide(root);
+  private GdaxEvent tryTakeNextEvent() {
+    if (!dropOnOverflow) {
+      return takeNextEvent();
+    }
 
-    switch (side) {
-      case "sell":
-        return Orders.SIDE_ASK();
+    try {
 
-      case "buy":
-        return Orders.SIDE_BID();
+      currentSeq = ringBuffer.tryNext();
+      return ringBuffer.get(currentSeq);
 
-      default:
-        throw new WsException("message has invalid side -> " + side);
+    } catch (InsufficientCapacityException e) {
+      metrics.onProducerOverflow();
+      return null;
     }
   }
 
-  public void publishMessage(JsonNode root, String type, long nanoseconds) throws WsException {
-    Side      side  = getSideOrThrow(root);
-    GdaxEvent event = takeNextEvent();
+  private void publishCurrentEvent() {
+    ringBuffer.publish(currentSeq);
+  }
+
+  // snapshot events always block, only live messages are dropped on overflow
+  public boolean publishMessage(FeedMessage message, long nanoseconds) {
+    GdaxEvent event = tryTakeNextEvent();
+    if (event == null) {
+      return false;
+    }
 
-    switch (type) {
+    switch (message.getType()) {
       case Accessor.TYPE_RECEIVED:
-        if (receive.getOrderType(root).equals("limit")) {
+        if (message.getOrderType().equals(FeedMessage.ORDER_TYPE_LIMIT)) {
           event.initLimitRx(
-              nanoseconds, receive.getOrderId(root), receive.getClientOid(root), side,
-              receive.getPrice(root), receive.getSize(root)
+              nanoseconds, message.getOrderIdHi(), message.getOrderIdLo(),
+              message.getClientOidHi(), message.getClientOidLo(), message.getSide(),
+              message.getPrice(), message.getSize()
           );
-        } else if (receive.getOrderType(root).equals("market")) {
+        } else {
           event.initMarketRx(
-              nanoseconds, receive.getOrderId(root), side,
-              receive.getSize(root), receive.getFunds(root)
+              nanoseconds, message.getOrderIdHi(), message.getOrderIdLo(), message.getSide(),
+              message.getSize(), message.getFunds()
           );
-        } else {
-          throw new WsException("received message has invalid order_type");
         }
         break;
 
       case Accessor.TYPE_OPEN:
         event.initLimitOpen(
-            nanoseconds, open.getOrderId(root), side,
-            open.getPrice(root), open.getRemainingSize(root)
+            nanoseconds, message.getOrderIdHi(), message.getOrderIdLo(), message.getSide(),
+            message.getPrice(), message.getRemainingSize()
         );
         break;
 
       case Accessor.TYPE_MATCH:
         event.initMatch(
-            nanoseconds, match.getMakerOrderId(root), match.getTakerOrderId(root), side,
-            match.getPrice(root), match.getSize(root)
+            nanoseconds, message.getMakerOrderIdHi(), message.getMakerOrderIdLo(),
+            message.getTakerOrderIdHi(), message.getTakerOrderIdLo(), message.getSide(),
+            message.getPrice(), message.getSize()
         );
         break;
 
       case Accessor.TYPE_CHANGE:
-        if (change.getPrice(root) > 0d) {
+        if (message.getPrice() > 0l) {
           event.initLimitChange(
-              nanoseconds, change.getOrderId(root), side, change.getPrice(root),
-              change.getOldSize(root), change.getNewSize(root)
+              nanoseconds, message.getOrderIdHi(), message.getOrderIdLo(), message.getSide(), message.getPrice(),
+              message.getOldSize(), message.getNewSize()
           );
         } else {
           event.initMarketChange(
-              nanoseconds, change.getOrderId(root), side,
-              change.getOldSize(root), change.getNewSize(root),
-              change.getOldFunds(root), change.getNewFunds(root)
+              nanoseconds, message.getOrderIdHi(), message.getOrderIdLo(), message.getSide(),
+              message.getOldSize(), message.getNewSize(),
+              message.getOldFunds(), message.getNewFunds()
           );
         }
         break;
 
       case Accessor.TYPE_DONE:
-        if (done.getPrice(root) > 0d) {
+        if (message.getPrice() > 0l) {
           event.initLimitDone(
-              nanoseconds, done.getOrderId(root), side,
-              done.getPrice(root), done.getRemainingSize(root)
+              nanoseconds, message.getOrderIdHi(), message.getOrderIdLo(), message.getSide(),
+              message.getPrice(), message.getRemainingSize()
           );
         } else {
-          event.initMarketDone(nanoseconds, done.getOrderId(root), side);
+          event.initMarketDone(nanoseconds, message.getOrderIdHi(), message.getOrderIdLo(), message.getSide());
         }
         break;
-
-      default:
-        throw new WsException("unknown message type -> " + type);
     }
 
+    event.setFeedSequence(message.getSequence());
     publishCurrentEvent();
+    return true;
   }
 
-  private void publishBookOrder(GetOrderBookResponseEntry order, long nanoseconds) {
+  @Override
+  public void onBookStart() {
+    bookNanoseconds = System.nanoTime();
     GdaxEvent event = takeNextEvent();
-    event.initLimitOpen(
-        nanoseconds, order.getOrderId(), order.getSide(),
-        order.getPrice(), order.getSize()
-    );
+    event.initRebuildStart(bookNanoseconds);
     publishCurrentEvent();
   }
 
-  public void publishBook(GetOrderBookResponse book, long nanoseconds) {
+  @Override
+  public void onBookOrder(Side side, long orderIdHi, long orderIdLo, long price, long size) {
     GdaxEvent event = takeNextEvent();
-    event.initRebuildStart(nanoseconds);
+    event.initLimitOpen(bookNanoseconds, orderIdHi, orderIdLo, side, price, size);
     publishCurrentEvent();
+  }
 
-    book.getAsks().forEach(ask -> this.publishBookOrder(ask, nanoseconds));
-    book.getBids().forEach(bid -> this.publishBookOrder(bid, nanoseconds));
+  @Override
+  public void onBookEnd(long sequence) {
+    GdaxEvent event = takeNextEvent();
+    event.initRebuildEnd(bookNanoseconds);
+    event.setFeedSequence(sequence);
+    publishCurrentEvent();
+  }
 
-    event = takeNextEvent();
-    event.initRebuildEnd(nanoseconds);
+  @Override
+  public void onBookAbort() {
+    GdaxEvent event = takeNextEvent();
+    event.initRebuildAbort(bookNanoseconds);
     publishCurrentEvent();
   }
 
@@ -35,14 +35,21 @@ import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import org.anhonesteffort.trading.TradeBoiConfig;
 import org.anhonesteffort.trading.Service;
+import org.anhonesteffort.trading.ThreadAffinity;
+import org.anhonesteffort.trading.disruptor.RingMetrics;
 import org.anhonesteffort.trading.http.HttpClientWrapper;
 import org.anhonesteffort.trading.state.GdaxEvent;
+import org.anhonesteffort.trading.ws.message.ByteBufMessageDecoder;
+import org.anhonesteffort.trading.ws.message.MessageDecoder;
+import org.anhonesteffort.trading.ws.message.StreamingMessageDecoder;
+import org.anhonesteffort.trading.ws.message.TreeMessageDecoder;
 
 import javax.net.ssl.SSLException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 public class WsService implements Service {
@@ -51,15 +58,41 @@ public class WsService implements Service {
   private static final String  SANDBOX_WS_HOST = "ws-feed-public.sandbox.gdax.com";
   private static final Integer WS_PORT         = 443;
 
+  public static final String DECODER_TREE      = "tree";
+  public static final String DECODER_STREAMING = "streaming";
+  public static final String DECODER_BYTEBUF   = "bytebuf";
+
   private final CompletableFuture<Void> shutdownFuture = new CompletableFuture<>();
   private final TradeBoiConfig config;
   private final WsMessageSorter messageSorter;
+  private final MessageDecoder messageDecoder;
 
   private Channel channel;
 
-  public WsService(TradeBoiConfig config, RingBuffer<GdaxEvent> ringBuffer, HttpClientWrapper http) {
-    this.config   = config;
-    messageSorter = new WsMessageSorter(new WsRingPublisher(ringBuffer), http);
+  public WsService(
+      TradeBoiConfig config, RingBuffer<GdaxEvent> ringBuffer, RingMetrics metrics, HttpClientWrapper http
+  ) {
+    this.config    = config;
+    messageSorter  = new WsMessageSorter(
+        new WsRingPublisher(ringBuffer, metrics, config.getWsOverflowPolicy()), http, config.getWsResyncMode(), config.getWsResyncBufferSize()
+    );
+    messageDecoder = decoderFor(config.getWsDecoder());
+  }
+
+  private static MessageDecoder decoderFor(String decoder) {
+    switch (decoder) {
+      case DECODER_TREE:
+        return new TreeMessageDecoder();
+
+      case DECODER_STREAMING:
+        return new StreamingMessageDecoder();
+
+      case DECODER_BYTEBUF:
+        return new ByteBufMessageDecoder();
+
+      default:
+        throw new IllegalArgumentException("unknown ws decoder -> " + decoder);
+    }
   }
 
   @Override
@@ -70,14 +103,16 @@ public class WsService implements Service {
   @Override
   public void start() throws URISyntaxException, SSLException {
     final Bootstrap                 bootstrap       = new Bootstrap();
+    final ThreadFactory             wsThreads       = runnable ->
+        new Thread(ThreadAffinity.pinned(config.getWsCpu(), runnable), "ws-feed");
     final SslContext                sslContext      = SslContextBuilder.forClient().build();
-    final WsMessageReceiver         messageReceiver = new WsMessageReceiver(messageSorter);
+    final WsMessageReceiver         messageReceiver = new WsMessageReceiver(messageDecoder, messageSorter);
     final WebSocketClientHandshaker wsHandshake     = WebSocketClientHandshakerFactory.newHandshaker(
         new URI("wss://" + (config.getGdaxSandbox() ? SANDBOX_WS_HOST : PROD_WS_HOST)),
         WebSocketVersion.V13, null, true, new DefaultHttpHeaders()
     );
 
-    bootstrap.group(new NioEventLoopGroup())
+    bootstrap.group(new NioEventLoopGroup(1, wsThreads))
              .channel(NioSocketChannel.class)
              .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getWsConnectTimeoutMs())
              .handler(new ChannelInitializer<SocketChannel>() {
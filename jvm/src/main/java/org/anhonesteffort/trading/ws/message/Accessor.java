@@ -18,6 +18,7 @@
 package org.anhonesteffort.trading.ws.message;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import org.anhonesteffort.trading.book.FixedPoint;
 import org.anhonesteffort.trading.ws.WsException;
 
 public class Accessor {
@@ -33,6 +34,23 @@ public class Accessor {
     return (root.get(tag) == null) ? 0d : root.get(tag).asDouble(0d);
   }
 
+  protected long unitsValueOrZero(JsonNode root, String tag) {
+    JsonNode node = root.get(tag);
+    if (node == null) {
+      return 0l;
+    } else if (node.isTextual()) {
+      try {
+
+        return FixedPoint.parse(node.textValue());
+
+      } catch (NumberFormatException e) {
+        return 0l;
+      }
+    } else {
+      return FixedPoint.fromDouble(node.asDouble(0d));
+    }
+  }
+
   public String getType(JsonNode root) throws WsException {
     if (root.get("type") != null && root.get("type").isTextual()) {
       return root.get("type").textValue();
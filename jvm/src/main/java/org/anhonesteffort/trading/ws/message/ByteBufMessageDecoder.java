@@ -0,0 +1,505 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.anhonesteffort.trading.ws.message;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.util.CharsetUtil;
+import org.anhonesteffort.trading.book.FixedPoint;
+import org.anhonesteffort.trading.book.OrderIds;
+import org.anhonesteffort.trading.book.Orders;
+import org.anhonesteffort.trading.ws.WsException;
+
+public class ByteBufMessageDecoder implements MessageDecoder {
+
+  private static final int FIELD_UNKNOWN        = -1;
+  private static final int FIELD_TYPE           =  0;
+  private static final int FIELD_SEQUENCE       =  1;
+  private static final int FIELD_SIDE           =  2;
+  private static final int FIELD_ORDER_TYPE     =  3;
+  private static final int FIELD_ORDER_ID       =  4;
+  private static final int FIELD_CLIENT_OID     =  5;
+  private static final int FIELD_MAKER_ORDER_ID =  6;
+  private static final int FIELD_TAKER_ORDER_ID =  7;
+  private static final int FIELD_PRICE          =  8;
+  private static final int FIELD_SIZE           =  9;
+  private static final int FIELD_FUNDS          = 10;
+  private static final int FIELD_REMAINING_SIZE = 11;
+  private static final int FIELD_OLD_SIZE       = 12;
+  private static final int FIELD_NEW_SIZE       = 13;
+  private static final int FIELD_OLD_FUNDS      = 14;
+  private static final int FIELD_NEW_FUNDS      = 15;
+  private static final int FIELD_MESSAGE        = 16;
+
+  private static final byte[][] FIELDS = ascii(
+      "type", "sequence", "side", "order_type", "order_id", "client_oid",
+      "maker_order_id", "taker_order_id", "price", "size", "funds", "remaining_size",
+      "old_size", "new_size", "old_funds", "new_funds", "message"
+  );
+
+  private static final String[] TYPES = new String[] {
+      Accessor.TYPE_RECEIVED, Accessor.TYPE_OPEN, Accessor.TYPE_MATCH,
+      Accessor.TYPE_CHANGE,   Accessor.TYPE_DONE, Accessor.TYPE_ERROR
+  };
+
+  private static final byte[][] TYPE_BYTES   = ascii(TYPES);
+  private static final byte[]   SIDE_SELL    = "sell".getBytes(CharsetUtil.US_ASCII);
+  private static final byte[]   SIDE_BUY     = "buy".getBytes(CharsetUtil.US_ASCII);
+  private static final byte[]   ORDER_LIMIT  = FeedMessage.ORDER_TYPE_LIMIT.getBytes(CharsetUtil.US_ASCII);
+  private static final byte[]   ORDER_MARKET = FeedMessage.ORDER_TYPE_MARKET.getBytes(CharsetUtil.US_ASCII);
+  private static final byte[]   NULL         = "null".getBytes(CharsetUtil.US_ASCII);
+
+  private static final long     MAX_UNITS          = (Long.MAX_VALUE - 9l) / 10l;
+  private static final long     MAX_EXACT_MANTISSA = 1l << 53;
+  private static final double[] POWERS_OF_TEN      = new double[] {
+      1e0,  1e1,  1e2,  1e3,  1e4,  1e5,  1e6,  1e7,  1e8,  1e9,  1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private ByteBuf buf;
+  private int     index;
+  private int     end;
+  private long    idHi;
+  private long    idLo;
+
+  private static byte[][] ascii(String... strings) {
+    byte[][] bytes = new byte[strings.length][];
+    for (int i = 0; i < strings.length; i++) {
+      bytes[i] = strings[i].getBytes(CharsetUtil.US_ASCII);
+    }
+    return bytes;
+  }
+
+  private WsException malformed() {
+    return new WsException("message is malformed at byte " + index);
+  }
+
+  private byte peek() throws WsException {
+    if (index >= end) {
+      throw malformed();
+    } else {
+      return buf.getByte(index);
+    }
+  }
+
+  private void skipWhitespace() {
+    while (index < end) {
+      byte next = buf.getByte(index);
+      if (next == ' ' || next == '\n' || next == '\r' || next == '\t') {
+        index++;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private void expect(char expected) throws WsException {
+    skipWhitespace();
+    if (peek() != expected) {
+      throw malformed();
+    }
+    index++;
+  }
+
+  private boolean bytesEqual(int start, int length, byte[] expected) {
+    if (length != expected.length) {
+      return false;
+    }
+
+    for (int i = 0; i < length; i++) {
+      if (buf.getByte(start + i) != expected[i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private int fieldFor(int start, int length) {
+    for (int field = 0; field < FIELDS.length; field++) {
+      if (bytesEqual(start, length, FIELDS[field])) {
+        return field;
+      }
+    }
+    return FIELD_UNKNOWN;
+  }
+
+  private int scanString() throws WsException {
+    int start = index;
+
+    while (peek() != '"') {
+      if (buf.getByte(index) == '\\') {
+        index++;
+      }
+      index++;
+    }
+
+    return start;
+  }
+
+  private void skipNested() throws WsException {
+    int depth = 0;
+
+    do {
+      byte next = peek();
+      index++;
+
+      if (next == '"') {
+        scanString();
+        index++;
+      } else if (next == '{' || next == '[') {
+        depth++;
+      } else if (next == '}' || next == ']') {
+        depth--;
+      }
+    } while (depth > 0);
+  }
+
+  private int scanLiteral() {
+    int start = index;
+
+    while (index < end) {
+      byte next = buf.getByte(index);
+      if (next == ',' || next == '}' || next == ']' || next == ' ' || next == '\n' || next == '\r' || next == '\t') {
+        break;
+      }
+      index++;
+    }
+
+    return start;
+  }
+
+  private String asciiString(int start, int length) {
+    return buf.toString(start, length, CharsetUtil.US_ASCII);
+  }
+
+  private long parseLong(int start, int length) throws WsException {
+    long    value    = 0l;
+    boolean negative = length > 0 && buf.getByte(start) == '-';
+    int     i        = negative ? 1 : 0;
+
+    if (i >= length) {
+      throw new WsException("message has invalid integer -> " + asciiString(start, length));
+    }
+
+    for (; i < length; i++) {
+      int digit = buf.getByte(start + i) - '0';
+      if (digit < 0 || digit > 9) {
+        throw new WsException("message has invalid integer -> " + asciiString(start, length));
+      } else if (value > (Long.MAX_VALUE - digit) / 10l) {
+        throw new WsException("message has out of range integer -> " + asciiString(start, length));
+      }
+      value = (value * 10l) + digit;
+    }
+
+    return negative ? -value : value;
+  }
+
+  private double parseDecimal(int start, int length) throws WsException {
+    long    mantissa = 0l;
+    int     scale    = -1;
+    int     digits   = 0;
+    boolean exact    = true;
+    boolean negative = length > 0 && buf.getByte(start) == '-';
+
+    for (int i = negative ? 1 : 0; i < length; i++) {
+      byte next = buf.getByte(start + i);
+
+      if (next == '.' && scale < 0) {
+        scale = 0;
+      } else if (next >= '0' && next <= '9') {
+        mantissa = (mantissa * 10l) + (next - '0');
+        digits++;
+        if (scale >= 0) { scale++; }
+        if (mantissa >= MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length) {
+          exact    = false;
+          mantissa = 0l;
+          scale    = Math.min(scale, 0);
+        }
+      } else {
+        throw new WsException("message has invalid decimal -> " + asciiString(start, length));
+      }
+    }
+
+    if (digits == 0) {
+      throw new WsException("message has invalid decimal -> " + asciiString(start, length));
+    } else if (!exact) {
+      // only plain digits get here, too many of them to scale exactly
+      return Double.parseDouble(asciiString(start, length));
+    }
+
+    double value = (scale > 0) ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+    return negative ? -value : value;
+  }
+
+  private long parseUnits(int start, int length) throws WsException {
+    long    units    = 0l;
+    int     places   = -1;
+    int     digits   = 0;
+    boolean negative = length > 0 && buf.getByte(start) == '-';
+
+    for (int i = negative ? 1 : 0; i < length; i++) {
+      byte next = buf.getByte(start + i);
+
+      if (next == '.' && places < 0) {
+        places = 0;
+      } else if (next >= '0' && next <= '9') {
+        if (places < FixedPoint.DECIMALS()) {
+          if (units > MAX_UNITS) {
+            throw new WsException("message has out of range decimal -> " + asciiString(start, length));
+          }
+          units = (units * 10l) + (next - '0');
+          if (places >= 0) { places++; }
+        } else if (next != '0') {
+          throw new WsException("message has invalid decimal -> " + asciiString(start, length));
+        }
+        digits++;
+      } else {
+        throw new WsException("message has invalid decimal -> " + asciiString(start, length));
+      }
+    }
+
+    if (digits == 0) {
+      throw new WsException("message has invalid decimal -> " + asciiString(start, length));
+    }
+
+    for (places = Math.max(places, 0); places < FixedPoint.DECIMALS(); places++) {
+      if (units > MAX_UNITS) {
+        throw new WsException("message has out of range decimal -> " + asciiString(start, length));
+      }
+      units *= 10l;
+    }
+
+    return negative ? -units : units;
+  }
+
+  private long parseHex(int start, int length) {
+    long value = 0l;
+    for (int i = 0; i < length; i++) {
+      value = (value << 4) | OrderIds.hexValue((char) buf.getByte(start + i));
+    }
+    return value;
+  }
+
+  private boolean parseUuid(int start, int length) {
+    if (length != OrderIds.UUID_LENGTH()) {
+      return false;
+    }
+
+    for (int i = 0; i < length; i++) {
+      byte next = buf.getByte(start + i);
+      if (OrderIds.isDash(i) ? next != '-' : OrderIds.hexValue((char) next) < 0) {
+        return false;
+      }
+    }
+
+    idHi = (parseHex(start, 8) << 32) | (parseHex(start + 9, 4) << 16) | parseHex(start + 14, 4);
+    idLo = (parseHex(start + 19, 4) << 48) | parseHex(start + 24, 12);
+    return true;
+  }
+
+  private void parseOrderId(int start, int length, String tag) throws WsException {
+    if (!parseUuid(start, length)) {
+      throw new WsException("message has invalid " + tag + " -> " + asciiString(start, length));
+    }
+  }
+
+  private void decodeType(int start, int length, FeedMessage message) throws WsException {
+    for (int i = 0; i < TYPES.length; i++) {
+      if (bytesEqual(start, length, TYPE_BYTES[i])) {
+        message.setType(TYPES[i]);
+        return;
+      }
+    }
+    throw new WsException("json root has invalid type tag -> " + asciiString(start, length));
+  }
+
+  private void decodeSide(int start, int length, FeedMessage message) throws WsException {
+    if (bytesEqual(start, length, SIDE_SELL)) {
+      message.setSide(Orders.SIDE_ASK());
+    } else if (bytesEqual(start, length, SIDE_BUY)) {
+      message.setSide(Orders.SIDE_BID());
+    } else {
+      throw new WsException("message has invalid side -> " + asciiString(start, length));
+    }
+  }
+
+  private void decodeOrderType(int start, int length, FeedMessage message) throws WsException {
+    if (bytesEqual(start, length, ORDER_LIMIT)) {
+      message.setOrderType(FeedMessage.ORDER_TYPE_LIMIT);
+    } else if (bytesEqual(start, length, ORDER_MARKET)) {
+      message.setOrderType(FeedMessage.ORDER_TYPE_MARKET);
+    } else {
+      throw new WsException("received message has invalid order_type");
+    }
+  }
+
+  private void decodeField(int field, int start, int length, boolean quoted, FeedMessage message)
+      throws WsException
+  {
+    switch (field) {
+      case FIELD_TYPE:
+        decodeType(start, length, message);
+        break;
+
+      case FIELD_SEQUENCE:
+        if (quoted) {
+          throw new WsException("message has invalid sequence");
+        }
+        message.setSequence(parseLong(start, length));
+        break;
+
+      case FIELD_SIDE:
+        decodeSide(start, length, message);
+        break;
+
+      case FIELD_ORDER_TYPE:
+        decodeOrderType(start, length, message);
+        break;
+
+      case FIELD_ORDER_ID:
+        parseOrderId(start, length, "order_id");
+        message.setOrderId(idHi, idLo);
+        break;
+
+      case FIELD_CLIENT_OID:
+        if (parseUuid(start, length)) {
+          message.setClientOid(idHi, idLo);
+        }
+        break;
+
+      case FIELD_MAKER_ORDER_ID:
+        parseOrderId(start, length, "maker_order_id");
+        message.setMakerOrderId(idHi, idLo);
+        break;
+
+      case FIELD_TAKER_ORDER_ID:
+        parseOrderId(start, length, "taker_order_id");
+        message.setTakerOrderId(idHi, idLo);
+        break;
+
+      case FIELD_PRICE:
+        message.setPrice(parseUnits(start, length));
+        break;
+
+      case FIELD_SIZE:
+        message.setSize(parseUnits(start, length));
+        break;
+
+      case FIELD_FUNDS:
+        message.setFunds(parseDecimal(start, length));
+        break;
+
+      case FIELD_REMAINING_SIZE:
+        message.setRemainingSize(parseUnits(start, length));
+        break;
+
+      case FIELD_OLD_SIZE:
+        message.setOldSize(parseUnits(start, length));
+        break;
+
+      case FIELD_NEW_SIZE:
+        message.setNewSize(parseUnits(start, length));
+        break;
+
+      case FIELD_OLD_FUNDS:
+        message.setOldFunds(parseDecimal(start, length));
+        break;
+
+      case FIELD_NEW_FUNDS:
+        message.setNewFunds(parseDecimal(start, length));
+        break;
+
+      case FIELD_MESSAGE:
+        message.setMessage(buf.toString(start, length, CharsetUtil.UTF_8));
+        break;
+    }
+  }
+
+  private void decodeValue(int field, FeedMessage message) throws WsException {
+    skipWhitespace();
+    byte next = peek();
+
+    if (next == '"') {
+      index++;
+      int start  = scanString();
+      int length = index - start;
+      index++;
+      if (field != FIELD_UNKNOWN) { decodeField(field, start, length, true, message); }
+    } else if (next == '{' || next == '[') {
+      skipNested();
+    } else {
+      int start  = scanLiteral();
+      int length = index - start;
+      if (length == 0) {
+        throw malformed();
+      } else if (field != FIELD_UNKNOWN && !bytesEqual(start, length, NULL)) {
+        decodeField(field, start, length, false, message);
+      }
+    }
+  }
+
+  private void decodeObject(FeedMessage message) throws WsException {
+    expect('{');
+    skipWhitespace();
+
+    if (peek() == '}') {
+      index++;
+      return;
+    }
+
+    while (true) {
+      expect('"');
+      int keyStart  = scanString();
+      int keyLength = index - keyStart;
+      index++;
+
+      expect(':');
+      decodeValue(fieldFor(keyStart, keyLength), message);
+      skipWhitespace();
+
+      byte next = peek();
+      index++;
+
+      if (next == '}') {
+        return;
+      } else if (next != ',') {
+        index--;
+        throw malformed();
+      }
+    }
+  }
+
+  @Override
+  public void decode(TextWebSocketFrame frame, FeedMessage message) throws WsException {
+    message.clear();
+    buf   = frame.content();
+    index = buf.readerIndex();
+    end   = buf.writerIndex();
+
+    try {
+      decodeObject(message);
+    } finally {
+      buf = null;
+    }
+
+    message.checkValid();
+  }
+
+}
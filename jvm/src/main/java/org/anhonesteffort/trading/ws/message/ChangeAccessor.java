@@ -30,12 +30,12 @@ public class ChangeAccessor extends Accessor {
     }
   }
 
-  public double getNewSize(JsonNode root) {
-    return doubleValueOrZero(root, "new_size");
+  public long getNewSize(JsonNode root) {
+    return unitsValueOrZero(root, "new_size");
   }
 
-  public double getOldSize(JsonNode root) {
-    return doubleValueOrZero(root, "old_size");
+  public long getOldSize(JsonNode root) {
+    return unitsValueOrZero(root, "old_size");
   }
 
   public double getNewFunds(JsonNode root) {
@@ -46,8 +46,8 @@ public class ChangeAccessor extends Accessor {
     return doubleValueOrZero(root, "old_funds");
   }
 
-  public double getPrice(JsonNode root) {
-    return doubleValueOrZero(root, "price");
+  public long getPrice(JsonNode root) {
+    return unitsValueOrZero(root, "price");
   }
 
 }
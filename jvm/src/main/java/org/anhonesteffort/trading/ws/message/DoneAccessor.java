@@ -38,12 +38,12 @@ public class DoneAccessor extends Accessor {
     }
   }
 
-  public double getPrice(JsonNode root) {
-    return doubleValueOrZero(root, "price");
+  public long getPrice(JsonNode root) {
+    return unitsValueOrZero(root, "price");
   }
 
-  public double getRemainingSize(JsonNode root) {
-    return doubleValueOrZero(root, "remaining_size");
+  public long getRemainingSize(JsonNode root) {
+    return unitsValueOrZero(root, "remaining_size");
   }
 
 }
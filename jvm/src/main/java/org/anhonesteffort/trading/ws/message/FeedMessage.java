@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.anhonesteffort.trading.ws.message;
+
+import org.anhonesteffort.trading.book.OrderIds;
+import org.anhonesteffort.trading.book.Orders.Side;
+import org.anhonesteffort.trading.ws.WsException;
+
+public class FeedMessage {
+
+  public static final String ORDER_TYPE_LIMIT  = "limit";
+  public static final String ORDER_TYPE_MARKET = "market";
+
+  private String  type;
+  private long    sequence;
+  private boolean hasSequence;
+  private long    orderIdHi;
+  private long    orderIdLo;
+  private long    clientOidHi;
+  private long    clientOidLo;
+  private long    makerOrderIdHi;
+  private long    makerOrderIdLo;
+  private long    takerOrderIdHi;
+  private long    takerOrderIdLo;
+  private String  orderType;
+  private Side    side;
+  private long    price;
+  private boolean hasPrice;
+  private long    size;
+  private boolean hasSize;
+  private double  funds;
+  private long    remainingSize;
+  private boolean hasRemainingSize;
+  private long    oldSize;
+  private long    newSize;
+  private double  oldFunds;
+  private double  newFunds;
+  private String  message;
+
+  public void clear() {
+    type             = null;
+    sequence         = -1l;
+    hasSequence      = false;
+    orderIdHi        = OrderIds.NONE_HI();
+    orderIdLo        = OrderIds.NONE_LO();
+    clientOidHi      = OrderIds.NONE_HI();
+    clientOidLo      = OrderIds.NONE_LO();
+    makerOrderIdHi   = OrderIds.NONE_HI();
+    makerOrderIdLo   = OrderIds.NONE_LO();
+    takerOrderIdHi   = OrderIds.NONE_HI();
+    takerOrderIdLo   = OrderIds.NONE_LO();
+    orderType        = null;
+    side             = null;
+    price            = 0l;
+    hasPrice         = false;
+    size             = 0l;
+    hasSize          = false;
+    funds            = 0d;
+    remainingSize    = 0l;
+    hasRemainingSize = false;
+    oldSize          = 0l;
+    newSize          = 0l;
+    oldFunds         = 0d;
+    newFunds         = 0d;
+    message          = null;
+  }
+
+  public void copyFrom(FeedMessage other) {
+    type             = other.type;
+    sequence         = other.sequence;
+    hasSequence      = other.hasSequence;
+    orderIdHi        = other.orderIdHi;
+    orderIdLo        = other.orderIdLo;
+    clientOidHi      = other.clientOidHi;
+    clientOidLo      = other.clientOidLo;
+    makerOrderIdHi   = other.makerOrderIdHi;
+    makerOrderIdLo   = other.makerOrderIdLo;
+    takerOrderIdHi   = other.takerOrderIdHi;
+    takerOrderIdLo   = other.takerOrderIdLo;
+    orderType        = other.orderType;
+    side             = other.side;
+    price            = other.price;
+    hasPrice         = other.hasPrice;
+    size             = other.size;
+    hasSize          = other.hasSize;
+    funds            = other.funds;
+    remainingSize    = other.remainingSize;
+    hasRemainingSize = other.hasRemainingSize;
+    oldSize          = other.oldSize;
+    newSize          = other.newSize;
+    oldFunds         = other.oldFunds;
+    newFunds         = other.newFunds;
+    message          = other.message;
+  }
+
+  private void checkOrderId(long hi, long lo, String tag) throws WsException {
+    if (OrderIds.isNone(hi, lo)) {
+      throw new WsException(type + " message has invalid " + tag);
+    }
+  }
+
+  public void checkValid() throws WsException {
+    if (type == null) {
+      throw new WsException("message has invalid type");
+    } else if (type.equals(Accessor.TYPE_ERROR)) {
+      return;
+    } else if (!hasSequence) {
+      throw new WsException("message has invalid sequence");
+    } else if (side == null) {
+      throw new WsException("message has invalid side");
+    }
+
+    switch (type) {
+      case Accessor.TYPE_RECEIVED:
+        checkOrderId(orderIdHi, orderIdLo, "order_id");
+        if (orderType == null) {
+          throw new WsException("received message has invalid order_type");
+        }
+        break;
+
+      case Accessor.TYPE_OPEN:
+        checkOrderId(orderIdHi, orderIdLo, "order_id");
+        if (!hasPrice) {
+          throw new WsException("open message has invalid price");
+        } else if (!hasRemainingSize) {
+          throw new WsException("open message has invalid remaining_size");
+        }
+        break;
+
+      case Accessor.TYPE_MATCH:
+        checkOrderId(makerOrderIdHi, makerOrderIdLo, "maker_order_id");
+        checkOrderId(takerOrderIdHi, takerOrderIdLo, "taker_order_id");
+        if (!hasPrice) {
+          throw new WsException("match message has invalid price");
+        } else if (!hasSize) {
+          throw new WsException("match message has invalid size");
+        }
+        break;
+
+      case Accessor.TYPE_CHANGE:
+      case Accessor.TYPE_DONE:
+        checkOrderId(orderIdHi, orderIdLo, "order_id");
+        break;
+    }
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public void setSequence(long sequence) {
+    this.sequence    = sequence;
+    this.hasSequence = true;
+  }
+
+  public long getOrderIdHi() {
+    return orderIdHi;
+  }
+
+  public long getOrderIdLo() {
+    return orderIdLo;
+  }
+
+  public void setOrderId(long hi, long lo) {
+    this.orderIdHi = hi;
+    this.orderIdLo = lo;
+  }
+
+  public long getClientOidHi() {
+    return clientOidHi;
+  }
+
+  public long getClientOidLo() {
+    return clientOidLo;
+  }
+
+  public void setClientOid(long hi, long lo) {
+    this.clientOidHi = hi;
+    this.clientOidLo = lo;
+  }
+
+  public long getMakerOrderIdHi() {
+    return makerOrderIdHi;
+  }
+
+  public long getMakerOrderIdLo() {
+    return makerOrderIdLo;
+  }
+
+  public void setMakerOrderId(long hi, long lo) {
+    this.makerOrderIdHi = hi;
+    this.makerOrderIdLo = lo;
+  }
+
+  public long getTakerOrderIdHi() {
+    return takerOrderIdHi;
+  }
+
+  public long getTakerOrderIdLo() {
+    return takerOrderIdLo;
+  }
+
+  public void setTakerOrderId(long hi, long lo) {
+    this.takerOrderIdHi = hi;
+    this.takerOrderIdLo = lo;
+  }
+
+  public String getOrderType() {
+    return orderType;
+  }
+
+  public void setOrderType(String orderType) {
+    this.orderType = orderType;
+  }
+
+  public Side getSide() {
+    return side;
+  }
+
+  public void setSide(Side side) {
+    this.side = side;
+  }
+
+  public long getPrice() {
+    return price;
+  }
+
+  public void setPrice(long price) {
+    this.price    = price;
+    this.hasPrice = true;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public void setSize(long size) {
+    this.size    = size;
+    this.hasSize = true;
+  }
+
+  public double getFunds() {
+    return funds;
+  }
+
+  public void setFunds(double funds) {
+    this.funds = funds;
+  }
+
+  public long getRemainingSize() {
+    return remainingSize;
+  }
+
+  public void setRemainingSize(long remainingSize) {
+    this.remainingSize    = remainingSize;
+    this.hasRemainingSize = true;
+  }
+
+  public long getOldSize() {
+    return oldSize;
+  }
+
+  public void setOldSize(long oldSize) {
+    this.oldSize = oldSize;
+  }
+
+  public long getNewSize() {
+    return newSize;
+  }
+
+  public void setNewSize(long newSize) {
+    this.newSize = newSize;
+  }
+
+  public double getOldFunds() {
+    return oldFunds;
+  }
+
+  public void setOldFunds(double oldFunds) {
+    this.oldFunds = oldFunds;
+  }
+
+  public double getNewFunds() {
+    return newFunds;
+  }
+
+  public void setNewFunds(double newFunds) {
+    this.newFunds = newFunds;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public void setMessage(String message) {
+    this.message = message;
+  }
+
+}
@@ -18,6 +18,7 @@
 package org.anhonesteffort.trading.ws.message;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import org.anhonesteffort.trading.book.FixedPoint;
 import org.anhonesteffort.trading.ws.WsException;
 
 public class MatchAccessor extends Accessor {
@@ -46,11 +47,11 @@ public class MatchAccessor extends Accessor {
     }
   }
 
-  public double getSize(JsonNode root) throws WsException {
+  public long getSize(JsonNode root) throws WsException {
     if (root.get("size") != null && root.get("size").isTextual()) {
       try {
 
-        return Double.parseDouble(root.get("size").textValue());
+        return FixedPoint.parse(root.get("size").textValue());
 
       } catch (NumberFormatException e) {
         throw new WsException("math message has invalid size", e);
@@ -60,11 +61,11 @@ public class MatchAccessor extends Accessor {
     }
   }
 
-  public double getPrice(JsonNode root) throws WsException {
+  public long getPrice(JsonNode root) throws WsException {
     if (root.get("price") != null && root.get("price").isTextual()) {
       try {
 
-        return Double.parseDouble(root.get("price").textValue());
+        return FixedPoint.parse(root.get("price").textValue());
 
       } catch (NumberFormatException e) {
         throw new WsException("math message has invalid price", e);
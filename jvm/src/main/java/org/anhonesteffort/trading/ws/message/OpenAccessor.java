@@ -18,6 +18,7 @@
 package org.anhonesteffort.trading.ws.message;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import org.anhonesteffort.trading.book.FixedPoint;
 import org.anhonesteffort.trading.ws.WsException;
 
 public class OpenAccessor extends Accessor {
@@ -30,11 +31,11 @@ public class OpenAccessor extends Accessor {
     }
   }
 
-  public double getPrice(JsonNode root) throws WsException {
+  public long getPrice(JsonNode root) throws WsException {
     if (root.get("price") != null && root.get("price").isTextual()) {
       try {
 
-        return Double.parseDouble(root.get("price").textValue());
+        return FixedPoint.parse(root.get("price").textValue());
 
       } catch (NumberFormatException e) {
         throw new WsException("open message has invalid price", e);
@@ -44,11 +45,11 @@ public class OpenAccessor extends Accessor {
     }
   }
 
-  public double getRemainingSize(JsonNode root) throws WsException {
+  public long getRemainingSize(JsonNode root) throws WsException {
     if (root.get("remaining_size") != null && root.get("remaining_size").isTextual()) {
       try {
 
-        return Double.parseDouble(root.get("remaining_size").textValue());
+        return FixedPoint.parse(root.get("remaining_size").textValue());
 
       } catch (NumberFormatException e) {
         throw new WsException("open message has invalid remaining_size", e);
@@ -46,12 +46,12 @@ public class ReceivedAccessor extends Accessor {
     }
   }
 
-  public double getSize(JsonNode root) {
-    return doubleValueOrZero(root, "size");
+  public long getSize(JsonNode root) {
+    return unitsValueOrZero(root, "size");
   }
 
-  public double getPrice(JsonNode root) {
-    return doubleValueOrZero(root, "price");
+  public long getPrice(JsonNode root) {
+    return unitsValueOrZero(root, "price");
   }
 
   public double getFunds(JsonNode root) {
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.anhonesteffort.trading.ws.message;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.anhonesteffort.trading.book.FixedPoint;
+import org.anhonesteffort.trading.book.OrderIds;
+import org.anhonesteffort.trading.book.Orders;
+import org.anhonesteffort.trading.ws.WsException;
+
+import java.io.IOException;
+
+public class StreamingMessageDecoder implements MessageDecoder {
+
+  private static final String[] TYPES = new String[] {
+      Accessor.TYPE_RECEIVED, Accessor.TYPE_OPEN, Accessor.TYPE_MATCH,
+      Accessor.TYPE_CHANGE,   Accessor.TYPE_DONE, Accessor.TYPE_ERROR
+  };
+
+  private final JsonFactory factory = new JsonFactory();
+
+  private static boolean textEquals(JsonParser parser, String expected) throws IOException {
+    if (parser.getTextLength() != expected.length()) {
+      return false;
+    }
+
+    char[] chars  = parser.getTextCharacters();
+    int    offset = parser.getTextOffset();
+
+    for (int i = 0; i < expected.length(); i++) {
+      if (chars[offset + i] != expected.charAt(i)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static String typeFor(JsonParser parser) throws IOException, WsException {
+    for (String type : TYPES) {
+      if (textEquals(parser, type)) {
+        return type;
+      }
+    }
+    throw new WsException("json root has invalid type tag -> " + parser.getText());
+  }
+
+  private static long unitsFor(JsonParser parser) throws IOException, WsException {
+    if (parser.getCurrentToken() != JsonToken.VALUE_STRING) {
+      return FixedPoint.fromDouble(parser.getValueAsDouble(0d));
+    }
+
+    try {
+
+      return FixedPoint.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+
+    } catch (NumberFormatException e) {
+      throw new WsException("message has invalid decimal -> " + parser.getText(), e);
+    }
+  }
+
+  private static char[] uuidFor(JsonParser parser, String tag) throws IOException, WsException {
+    if (!OrderIds.isUuid(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+      throw new WsException("message has invalid " + tag + " -> " + parser.getText());
+    }
+    return parser.getTextCharacters();
+  }
+
+  private static void decodeSide(JsonParser parser, FeedMessage message) throws IOException, WsException {
+    if (textEquals(parser, "sell")) {
+      message.setSide(Orders.SIDE_ASK());
+    } else if (textEquals(parser, "buy")) {
+      message.setSide(Orders.SIDE_BID());
+    } else {
+      throw new WsException("message has invalid side -> " + parser.getText());
+    }
+  }
+
+  private static void decodeOrderType(JsonParser parser, FeedMessage message) throws IOException, WsException {
+    if (textEquals(parser, FeedMessage.ORDER_TYPE_LIMIT)) {
+      message.setOrderType(FeedMessage.ORDER_TYPE_LIMIT);
+    } else if (textEquals(parser, FeedMessage.ORDER_TYPE_MARKET)) {
+      message.setOrderType(FeedMessage.ORDER_TYPE_MARKET);
+    } else {
+      throw new WsException("received message has invalid order_type");
+    }
+  }
+
+  private static void decodeField(String field, JsonParser parser, FeedMessage message)
+      throws IOException, WsException
+  {
+    switch (field) {
+      case "type":
+        message.setType(typeFor(parser));
+        break;
+
+      case "sequence":
+        if (parser.getCurrentToken() != JsonToken.VALUE_NUMBER_INT) {
+          throw new WsException("message has invalid sequence");
+        }
+        message.setSequence(parser.getLongValue());
+        break;
+
+      case "side":
+        decodeSide(parser, message);
+        break;
+
+      case "order_type":
+        decodeOrderType(parser, message);
+        break;
+
+      case "order_id":
+        char[] orderId = uuidFor(parser, field);
+        message.setOrderId(OrderIds.uuidHi(orderId, parser.getTextOffset()), OrderIds.uuidLo(orderId, parser.getTextOffset()));
+        break;
+
+      case "client_oid":
+        char[] clientOid = parser.getTextCharacters();
+        if (OrderIds.isUuid(clientOid, parser.getTextOffset(), parser.getTextLength())) {
+          message.setClientOid(OrderIds.uuidHi(clientOid, parser.getTextOffset()), OrderIds.uuidLo(clientOid, parser.getTextOffset()));
+        }
+        break;
+
+      case "maker_order_id":
+        char[] makerId = uuidFor(parser, field);
+        message.setMakerOrderId(OrderIds.uuidHi(makerId, parser.getTextOffset()), OrderIds.uuidLo(makerId, parser.getTextOffset()));
+        break;
+
+      case "taker_order_id":
+        char[] takerId = uuidFor(parser, field);
+        message.setTakerOrderId(OrderIds.uuidHi(takerId, parser.getTextOffset()), OrderIds.uuidLo(takerId, parser.getTextOffset()));
+        break;
+
+      case "price":
+        message.setPrice(unitsFor(parser));
+        break;
+
+      case "size":
+        message.setSize(unitsFor(parser));
+        break;
+
+      case "funds":
+        message.setFunds(parser.getValueAsDouble(0d));
+        break;
+
+      case "remaining_size":
+        message.setRemainingSize(unitsFor(parser));
+        break;
+
+      case "old_size":
+        message.setOldSize(unitsFor(parser));
+        break;
+
+      case "new_size":
+        message.setNewSize(unitsFor(parser));
+        break;
+
+      case "old_funds":
+        message.setOldFunds(parser.getValueAsDouble(0d));
+        break;
+
+      case "new_funds":
+        message.setNewFunds(parser.getValueAsDouble(0d));
+        break;
+
+      case "message":
+        message.setMessage(parser.getText());
+        break;
+    }
+  }
+
+  @Override
+  public void decode(TextWebSocketFrame frame, FeedMessage message) throws WsException, IOException {
+    message.clear();
+
+    try (JsonParser parser = factory.createParser(frame.text())) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new WsException("message root is not an object");
+      }
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String    field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+
+        if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+          parser.skipChildren();
+        } else if (value != JsonToken.VALUE_NULL) {
+          decodeField(field, parser, message);
+        }
+      }
+    }
+
+    message.checkValid();
+  }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2016 An Honest Effort LLC.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.anhonesteffort.trading.ws.message;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.anhonesteffort.trading.book.OrderIds;
+import org.anhonesteffort.trading.book.Orders;
+import org.anhonesteffort.trading.ws.WsException;
+
+import java.io.IOException;
+
+public class TreeMessageDecoder implements MessageDecoder {
+
+  private final ObjectReader     reader  = new ObjectMapper().reader();
+  private final Accessor         base    = new Accessor();
+  private final ReceivedAccessor receive = new ReceivedAccessor();
+  private final MatchAccessor    match   = new MatchAccessor();
+  private final OpenAccessor     open    = new OpenAccessor();
+  private final DoneAccessor     done    = new DoneAccessor();
+  private final ChangeAccessor   change  = new ChangeAccessor();
+
+  private static char[] uuidFor(String id, String tag) throws WsException {
+    char[] chars = id.toCharArray();
+    if (!OrderIds.isUuid(chars, 0, chars.length)) {
+      throw new WsException("message has invalid " + tag + " -> " + id);
+    }
+    return chars;
+  }
+
+  private void decodeSide(JsonNode root, FeedMessage message) throws WsException {
+    String side = base.getSide(root);
+
+    switch (side) {
+      case "sell":
+        message.setSide(Orders.SIDE_ASK());
+        break;
+
+      case "buy":
+        message.setSide(Orders.SIDE_BID());
+        break;
+
+      default:
+        throw new WsException("message has invalid side -> " + side);
+    }
+  }
+
+  private void decodeReceived(JsonNode root, FeedMessage message) throws WsException {
+    char[] orderId   = uuidFor(receive.getOrderId(root), "order_id");
+    String clientOid = receive.getClientOid(root);
+
+    message.setOrderId(OrderIds.uuidHi(orderId, 0), OrderIds.uuidLo(orderId, 0));
+    if (clientOid != null && OrderIds.isUuid(clientOid.toCharArray(), 0, clientOid.length())) {
+      message.setClientOid(OrderIds.hi(clientOid), OrderIds.lo(clientOid));
+    }
+    message.setPrice(receive.getPrice(root));
+    message.setSize(receive.getSize(root));
+    message.setFunds(receive.getFunds(root));
+
+    switch (receive.getOrderType(root)) {
+      case FeedMessage.ORDER_TYPE_LIMIT:
+        message.setOrderType(FeedMessage.ORDER_TYPE_LIMIT);
+        break;
+
+      case FeedMessage.ORDER_TYPE_MARKET:
+        message.setOrderType(FeedMessage.ORDER_TYPE_MARKET);
+        break;
+
+      default:
+        throw new WsException("received message has invalid order_type");
+    }
+  }
+
+  @Override
+  public void decode(TextWebSocketFrame frame, FeedMessage message) throws WsException, IOException {
+    JsonNode root = reader.readTree(frame.text());
+    String   type = base.getType(root);
+
+    message.clear();
+
+    switch (type) {
+      case Accessor.TYPE_RECEIVED:
+        message.setType(Accessor.TYPE_RECEIVED);
+        message.setSequence(base.getSequence(root));
+        decodeSide(root, message);
+        decodeReceived(root, message);
+        break;
+
+      case Accessor.TYPE_OPEN:
+        message.setType(Accessor.TYPE_OPEN);
+        message.setSequence(base.getSequence(root));
+        decodeSide(root, message);
+        char[] openId = uuidFor(open.getOrderId(root), "order_id");
+        message.setOrderId(OrderIds.uuidHi(openId, 0), OrderIds.uuidLo(openId, 0));
+        message.setPrice(open.getPrice(root));
+        message.setRemainingSize(open.getRemainingSize(root));
+        break;
+
+      case Accessor.TYPE_MATCH:
+        message.setType(Accessor.TYPE_MATCH);
+        message.setSequence(base.getSequence(root));
+        decodeSide(root, message);
+        char[] makerId = uuidFor(match.getMakerOrderId(root), "maker_order_id");
+        char[] takerId = uuidFor(match.getTakerOrderId(root), "taker_order_id");
+        message.setMakerOrderId(OrderIds.uuidHi(makerId, 0), OrderIds.uuidLo(makerId, 0));
+        message.setTakerOrderId(OrderIds.uuidHi(takerId, 0), OrderIds.uuidLo(takerId, 0));
+        message.setPrice(match.getPrice(root));
+        message.setSize(match.getSize(root));
+        break;
+
+      case Accessor.TYPE_CHANGE:
+        message.setType(Accessor.TYPE_CHANGE);
+        message.setSequence(base.getSequence(root));
+        decodeSide(root, message);
+        char[] changeId = uuidFor(change.getOrderId(root), "order_id");
+        message.setOrderId(OrderIds.uuidHi(changeId, 0), OrderIds.uuidLo(changeId, 0));
+        message.setPrice(change.getPrice(root));
+        message.setOldSize(change.getOldSize(root));
+        message.setNewSize(change.getNewSize(root));
+        message.setOldFunds(change.getOldFunds(root));
+        message.setNewFunds(change.getNewFunds(root));
+        break;
+
+      case Accessor.TYPE_DONE:
+        message.setType(Accessor.TYPE_DONE);
+        message.setSequence(base.getSequence(root));
+        decodeSide(root, message);
+        char[] doneId = uuidFor(done.getOrderId(root), "order_id");
+        message.setOrderId(OrderIds.uuidHi(doneId, 0), OrderIds.uuidLo(doneId, 0));
+        message.setPrice(done.getPrice(root));
+        message.setRemainingSize(done.getRemainingSize(root));
+        break;
+
+      case Accessor.TYPE_ERROR:
+        message.setType(Accessor.TYPE_ERROR);
+        message.setMessage(root.path("message").asText());
+        break;
+
+      default:
+        throw new WsException("json root has invalid type tag -> " + type);
+    }
+  }
+
+}
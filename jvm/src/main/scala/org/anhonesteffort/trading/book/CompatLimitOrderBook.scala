@@ -4,24 +4,32 @@ import java.util.Optional
 
 import org.anhonesteffort.trading.book.Orders.{Order, Side}
 
-class CompatLimitOrderBook extends LimitOrderBook {
+class CompatLimitOrderBook(pool: OrderPool) extends LimitOrderBook(pool) {
 
-  def jadd(taker: Order): CompatTakeResult = {
-    new CompatTakeResult(super.add(taker))
+  def this() = {
+    this(new OrderPool(0))
   }
 
-  def jremove(side: Side, price: Double, orderId: String): java.util.Optional[Order] = {
-    super.remove(side, price, orderId) match {
+  def jremove(side: Side, price: Long, orderIdHi: Long, orderIdLo: Long): java.util.Optional[Order] = {
+    super.remove(side, price, orderIdHi, orderIdLo) match {
       case Some(order) => Optional.of(order)
       case None        => Optional.empty()
     }
   }
 
-  def jreduce(side: Side, price: Double, orderId: String, size: Double): java.util.Optional[Order] = {
-    super.reduce(side, price, orderId, size) match {
+  def jreduce(side: Side, price: Long, orderIdHi: Long, orderIdLo: Long, size: Long): java.util.Optional[Order] = {
+    super.reduce(side, price, orderIdHi, orderIdLo, size) match {
       case Some(order) => Optional.of(order)
       case None        => Optional.empty()
     }
   }
 
+  def jremoveById(orderIdHi: Long, orderIdLo: Long): java.util.Optional[Order] = {
+    Optional.ofNullable(super.removeById(orderIdHi, orderIdLo))
+  }
+
+  def jreduceById(orderIdHi: Long, orderIdLo: Long, size: Long): java.util.Optional[Order] = {
+    Optional.ofNullable(super.reduceById(orderIdHi, orderIdLo, size))
+  }
+
 }
@@ -2,19 +2,34 @@ package org.anhonesteffort.trading.state
 
 import java.util.Optional
 
-import org.anhonesteffort.trading.book.CompatLimitOrderBook
+import org.anhonesteffort.trading.book.{CompatLimitOrderBook, OrderIdMap, OrderIdSet}
 import org.anhonesteffort.trading.book.Orders.Order
 import org.anhonesteffort.trading.state.Events.OrderEvent
 
 import collection.JavaConverters._
+import scala.collection.mutable
+
+class CompatGdaxState(
+  book           : CompatLimitOrderBook,
+  clientOIdMap   : OrderIdMap[Order],
+  rxLimitOrders  : OrderIdMap[Order],
+  marketOrderIds : OrderIdSet,
+  makers         : mutable.ArrayBuffer[Order]
+) extends GdaxState(book, clientOIdMap, rxLimitOrders, marketOrderIds, makers) {
+
+  def this(book: CompatLimitOrderBook) = {
+    this(book, new OrderIdMap[Order](), new OrderIdMap[Order](), new OrderIdSet(), new mutable.ArrayBuffer[Order]())
+  }
 
-class CompatGdaxState(book: CompatLimitOrderBook) extends GdaxState(book) {
+  val getOrderBook      : CompatLimitOrderBook  = book
+  val getClientOIdMap   : OrderIdMap[Order]     = clientOIdMap
+  val getRxLimitOrders  : OrderIdMap[Order]     = rxLimitOrders
+  val getMarketOrderIds : OrderIdSet            = marketOrderIds
+  val getMakers         : java.util.List[Order] = makers.asJava
 
-  val getOrderBook      : CompatLimitOrderBook          = book
-  val getClientOIdMap   : java.util.Map[String, String] = clientOIdMap.asJava
-  val getRxLimitOrders  : java.util.Map[String, Order]  = rxLimitOrders.asJava
-  val getMarketOrderIds : java.util.Set[String]         = marketOrderIds.asJava
-  val getMakers         : java.util.List[Order]         = makers.asJava
+  def view(): CompatGdaxState = {
+    new CompatGdaxState(book, clientOIdMap, rxLimitOrders, marketOrderIds, makers)
+  }
 
   def setEvent(event: OrderEvent): Unit = {
     if (event == null) {
@@ -24,6 +39,18 @@ class CompatGdaxState(book: CompatLimitOrderBook) extends GdaxState(book) {
     }
   }
 
+  // set while changes from a resync are handed to listeners
+  def setResync(diff: BookDiff): Unit = {
+    this.resync = Option(diff)
+  }
+
+  // clears the state and hands resting and received orders back to the book's pool
+  def release(): Unit = {
+    book.release()
+    rxLimitOrders.foreach(book.getPool.release)
+    clear()
+  }
+
   def getEvent: java.util.Optional[OrderEvent] = {
     event match {
       case Some(evt) => Optional.of(evt)
@@ -2,10 +2,10 @@ package org.anhonesteffort.trading.strategy
 
 import java.io.IOException
 
-import org.anhonesteffort.trading.http.HttpClientWrapper
+import org.anhonesteffort.trading.http.ExchangeClient
 import org.anhonesteffort.trading.state.{GdaxState, StateProcessingException}
 
-class OrderCancelingStrategy(http: HttpClientWrapper, orderId: String) extends Strategy[Boolean](false) {
+class OrderCancelingStrategy(http: ExchangeClient, orderId: String) extends Strategy[Boolean](false) {
 
   @volatile private var canceled = false
 
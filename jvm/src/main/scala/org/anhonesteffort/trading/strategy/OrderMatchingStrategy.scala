@@ -1,18 +1,52 @@
 package org.anhonesteffort.trading.strategy
 
+import org.anhonesteffort.trading.book.OrderIds
+import org.anhonesteffort.trading.book.Orders.Order
 import org.anhonesteffort.trading.state.Events.Type
-import org.anhonesteffort.trading.state.{GdaxState, StateProcessingException}
+import org.anhonesteffort.trading.state.{BookDiff, GdaxState, StateProcessingException}
 import org.slf4j.{Logger, LoggerFactory}
 
 abstract class OrderMatchingStrategy(orderId: String) extends AbortableStrategy[Boolean](false) {
 
   private val log: Logger = LoggerFactory.getLogger(classOf[OrderMatchingStrategy])
 
+  private val orderIdHi = OrderIds.hi(orderId)
+  private val orderIdLo = OrderIds.lo(orderId)
+
+  private var takenOnResync : Boolean = false
+
   protected def shouldAbort(state: GdaxState, ns: Long): Boolean
 
+  private def isOurs(order: Order): Boolean = {
+    order.getOrderIdHi == orderIdHi && order.getOrderIdLo == orderIdLo
+  }
+
+  // the diff is all that is left of whatever happened to our order while the feed was out of sync
+  private def onDiff(diff: BookDiff): Unit = {
+    val removed = diff.canceled.exists(isOurs)
+    val opened  = diff.opened.exists(isOurs)
+
+    if (removed && opened) {
+      log.warn("order changed size during resync, unable to tell how much matched")
+      super.abort()
+    } else if (removed) {
+      log.info("order left the book during resync, treating it as matched")
+      takenOnResync = true
+    } else if (diff.reduced.exists(reduce => isOurs(reduce._1))) {
+      log.info("order partially matched during resync")
+    }
+  }
+
+  override def onStateResync(state: GdaxState, diff: BookDiff, ns: Long): Unit = {
+    onDiff(diff)
+    super.onStateResync(state, diff, ns)
+  }
+
   override protected def advanceStrategy(state: GdaxState, ns: Long): Boolean = {
     if (isSyncing) {
       throw new StateProcessingException("unable to handle state synchronization")
+    } else if (takenOnResync) {
+      return true
     } else if (shouldAbort(state, ns)) {
       super.abort()
       return false
@@ -21,12 +55,17 @@ abstract class OrderMatchingStrategy(orderId: String) extends AbortableStrategy[
     state.event match {
       case None        => Unit
       case Some(event) =>
-        if (event.typee != Type.OPEN && event.orderId == orderId) {
-          throw new StateProcessingException("order took, reduced, or canceled unexpectedly")
+        if (event.typee != Type.OPEN && event.orderIdHi == orderIdHi && event.orderIdLo == orderIdLo) {
+          state.resync match {
+            case None       => throw new StateProcessingException("order took, reduced, or canceled unexpectedly")
+            case Some(diff) =>
+              onDiff(diff)
+              return takenOnResync
+          }
         }
     }
 
-    state.makers.find(_.getOrderId == orderId) match {
+    state.makers.find(maker => maker.getOrderIdHi == orderIdHi && maker.getOrderIdLo == orderIdLo) match {
       case None        => false
       case Some(maker) =>
         if (maker.getSizeRemaining > 0d) {
@@ -2,12 +2,16 @@ package org.anhonesteffort.trading.strategy
 
 import java.io.IOException
 
+import org.anhonesteffort.trading.book.OrderIds
 import org.anhonesteffort.trading.book.Orders.{Order, Side}
-import org.anhonesteffort.trading.http.HttpClientWrapper
+import org.anhonesteffort.trading.http.ExchangeClient
 import org.anhonesteffort.trading.http.request.model.PostOrderRequest
 import org.anhonesteffort.trading.state.{GdaxState, StateProcessingException}
 
-class OrderOpeningStrategy(http: HttpClientWrapper, postOrder: PostOrderRequest) extends AbortableStrategy[Option[Order]](None) {
+class OrderOpeningStrategy(http: ExchangeClient, postOrder: PostOrderRequest) extends AbortableStrategy[Option[Order]](None) {
+
+  private val clientOidHi = OrderIds.hi(postOrder.getClientOid)
+  private val clientOidLo = OrderIds.lo(postOrder.getClientOid)
 
   try {
 
@@ -31,22 +35,22 @@ class OrderOpeningStrategy(http: HttpClientWrapper, postOrder: PostOrderRequest)
   }
 
   override protected def advanceStrategy(state: GdaxState, ns: Long): Option[Order] = {
-    val bookOid   = state.clientOIdMap.get(postOrder.getClientOid)
-    val bookOrder = bookOid match {
+    val rxOrder   = Option(state.clientOIdMap.get(clientOidHi, clientOidLo))
+    val bookOrder = rxOrder match {
       case None      => None
-      case Some(oid) => state.rxLimitOrders.get(oid)
+      case Some(rx)  => Option(state.rxLimitOrders.get(rx.getOrderIdHi, rx.getOrderIdLo))
     }
 
     if (isSyncing) {
       throw new StateProcessingException("unable to handle state synchronization")
-    } else if (bookOid.isEmpty) {
+    } else if (rxOrder.isEmpty) {
       None
     } else if (bookOrder.isEmpty) {
       throw new StateProcessingException("order id map entry not found in rx limit order map")
     } else if (!sideMatches(postOrder, bookOrder.get)) {
       throw new StateProcessingException("posted order ended up on wrong side of the book")
     } else {
-      bookOrder
+      Some(bookOrder.get.copy())
     }
   }
 
@@ -1,7 +1,7 @@
 package org.anhonesteffort.trading.strategy
 
 import org.anhonesteffort.trading.compute.Computation
-import org.anhonesteffort.trading.state.{GdaxState, StateProcessingException}
+import org.anhonesteffort.trading.state.{BookDiff, GdaxState, StateProcessingException}
 
 abstract class Strategy[T](initial: T) extends Computation[T](initial) {
 
@@ -30,4 +30,9 @@ abstract class Strategy[T](initial: T) extends Computation[T](initial) {
     if (error != null) throw error
   }
 
+  override def onStateResync(state: GdaxState, diff: BookDiff, ns: Long) {
+    super.onStateResync(state, diff, ns)
+    if (error != null) throw error
+  }
+
 }
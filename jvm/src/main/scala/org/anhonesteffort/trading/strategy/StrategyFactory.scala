@@ -1,10 +1,10 @@
 package org.anhonesteffort.trading.strategy
 
 import org.anhonesteffort.trading.book.Orders
-import org.anhonesteffort.trading.http.HttpClientWrapper
+import org.anhonesteffort.trading.http.ExchangeClient
 import org.anhonesteffort.trading.http.request.model.PostOrderRequest
 
-abstract class StrategyFactory(http: HttpClientWrapper) {
+abstract class StrategyFactory(http: ExchangeClient) {
 
   def newBidIdentifying: BidIdentifyingStrategy
 
@@ -1,19 +1,18 @@
 package org.anhonesteffort.trading.strategy.impl
 
 import org.anhonesteffort.trading.book.Orders.Side
-import org.anhonesteffort.trading.http.HttpClientWrapper
+import org.anhonesteffort.trading.http.ExchangeClient
 import org.anhonesteffort.trading.http.request.RequestFactory
 import org.anhonesteffort.trading.strategy.{AskIdentifyingStrategy, BidIdentifyingStrategy, OrderMatchingStrategy, StrategyFactory}
 
-class SimpleStrategyFactory(http: HttpClientWrapper) extends StrategyFactory(http) {
-
-  private val BID_SIZE      : Double = 0.01d
-  private val BID_PLACEMENT : Double = 0.75d
-  private val BID_ABORT_MS  : Long   = 12000l
-  private val ASK_ABORT_MS  : Long   =  2250l
+class SimpleStrategyFactory(http: ExchangeClient, params: SimpleStrategyParams) extends StrategyFactory(http) {
 
   private val requests : RequestFactory = new RequestFactory()
 
+  def this(http: ExchangeClient) = {
+    this(http, SimpleStrategyParams.DEFAULT)
+  }
+
   override def newBidIdentifying: BidIdentifyingStrategy = {
     new SimpleBidIdentifyingStrategy(requests)
   }
@@ -24,8 +23,8 @@ class SimpleStrategyFactory(http: HttpClientWrapper) extends StrategyFactory(htt
 
   override def newOrderMatching(side: Side, orderId: String): OrderMatchingStrategy = {
     side match {
-      case Side.ASK => new SimpleOrderMatchingStrategy(orderId, ASK_ABORT_MS)
-      case Side.BID => new SimpleOrderMatchingStrategy(orderId, BID_ABORT_MS)
+      case Side.ASK => new SimpleOrderMatchingStrategy(orderId, params.askAbortMs)
+      case Side.BID => new SimpleOrderMatchingStrategy(orderId, params.bidAbortMs)
     }
   }
 
@@ -0,0 +1,15 @@
+package org.anhonesteffort.trading.strategy.impl
+
+object SimpleStrategyParams {
+
+  val DEFAULT : SimpleStrategyParams = SimpleStrategyParams(0.01d, 0.75d, 12000l, 2250l)
+
+}
+
+case class SimpleStrategyParams(bidSize: Double, bidPlacement: Double, bidAbortMs: Long, askAbortMs: Long) {
+
+  override def toString: String = {
+    s"bid size $bidSize, bid placement $bidPlacement, bid abort $bidAbortMs ms, ask abort $askAbortMs ms"
+  }
+
+}
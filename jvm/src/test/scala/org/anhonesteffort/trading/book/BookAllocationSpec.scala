@@ -0,0 +1,173 @@
+package org.anhonesteffort.trading.book
+
+import java.lang.management.ManagementFactory
+
+import org.anhonesteffort.trading.book.Orders.{Order, Side}
+
+import scala.collection.mutable
+
+class BookAllocationSpec extends BaseSpec {
+
+  private val THREADS = ManagementFactory.getThreadMXBean.asInstanceOf[com.sun.management.ThreadMXBean]
+  private val LIVE    = 2048
+  private val TICK    = FixedPoint.fromDouble(0.01d)
+  private val MID     = FixedPoint.fromDouble(1000d)
+
+  private class Feed(book: LimitOrderBook, spread: Int) {
+    private val pool   = book.getPool
+    private val live   = new Array[Long](LIVE)
+    private val makers = new mutable.ArrayBuffer[Order](LIVE)
+    private val take   = new Take(makers)
+    private var count  = 0
+    private var nextId = 1L
+    private var seed   = 0x2545f4914f6cdd1dL
+
+    private def random(bound: Int): Int = {
+      seed ^= seed << 13
+      seed ^= seed >>> 7
+      seed ^= seed << 17
+      ((seed >>> 33) % bound).toInt
+    }
+
+    private def open(): Unit = {
+      val side  = if (random(2) == 0) Side.ASK else Side.BID
+      val ticks = 1 + random(spread)
+      val price = if (side == Side.ASK) MID + (ticks * TICK) else MID - (ticks * TICK)
+      val order = pool.acquire(0L, nextId, side, price, FixedPoint.fromDouble(0.5d) * (1 + random(4)))
+
+      if (book.open(order)) {
+        rest(nextId)
+      } else {
+        pool.release(order)
+      }
+      nextId += 1
+    }
+
+    // a limit taker at the opposite touch sized to never outlast it
+    private def cross(): Unit = {
+      val side  = if (random(2) == 0) Side.ASK else Side.BID
+      val touch = if (side == Side.ASK) book.getBidLimits.best else book.getAskLimits.best
+      if (touch == null) {
+        return
+      }
+
+      val size  = Math.min(FixedPoint.fromDouble(0.5d) * (1 + random(8)), touch.getVolumeUnits)
+      val taker = pool.acquire(0L, nextId, side, touch.getPriceUnits, size)
+      nextId += 1
+      book.add(taker, take)
+
+      var index = 0
+      while (index < makers.size) {
+        if (makers(index).getSizeRemainingUnits <= 0L) {
+          pool.release(makers(index))
+        }
+        index += 1
+      }
+      makers.clear()
+      pool.release(taker)
+    }
+
+    private def rest(orderId: Long): Unit = {
+      live(count) = orderId
+      count      += 1
+    }
+
+    private def takeLive(): Long = {
+      val slot = random(count)
+      val id   = live(slot)
+      count     -= 1
+      live(slot) = live(count)
+      id
+    }
+
+    // ids of makers filled by a take are still in the live list
+    private def cancel(): Unit = {
+      val order = book.removeById(0L, takeLive())
+      if (order != null) {
+        pool.release(order)
+      }
+    }
+
+    private def reduce(): Unit = {
+      val slot  = random(count)
+      val order = book.reduceById(0L, live(slot), FixedPoint.fromDouble(0.5d))
+      if (order == null || order.getSizeRemainingUnits <= 0L) {
+        count     -= 1
+        live(slot) = live(count)
+        if (order != null) { pool.release(order) }
+      }
+    }
+
+    // the most orders and levels the feed will ever have resting
+    def fill(): Unit = {
+      while (count < LIVE) { open() }
+    }
+
+    // rests and removes as many distinct levels per side as there can ever be live orders
+    def prime(): Unit = {
+      val stride = Math.max(1, spread / LIVE)
+      for (side <- Seq(Side.ASK, Side.BID); level <- 1 to LIVE) {
+        val ticks = level * stride
+        val price = if (side == Side.ASK) MID + (ticks * TICK) else MID - (ticks * TICK)
+        book.open(pool.acquire(0L, -level, side, price, FixedPoint.fromDouble(0.5d)))
+      }
+      for (level <- 1 to LIVE) {
+        pool.release(book.removeById(0L, -level))
+      }
+    }
+
+    def run(events: Int): Unit = {
+      var event = 0
+      while (event < events) {
+        if (count >= LIVE) {
+          cancel()
+        } else {
+          random(8) match {
+            case 0 | 1 | 2 => open()
+            case 3 | 4     => cancel()
+            case 5 | 6     => reduce()
+            case _         => cross()
+          }
+        }
+        event += 1
+      }
+    }
+  }
+
+  private def allocatedBytes: Long = {
+    THREADS.getThreadAllocatedBytes(Thread.currentThread.getId)
+  }
+
+  private def assertWarmedUpFeedDoesNotAllocate(spread: Int): Unit = {
+    assume(THREADS.isThreadAllocatedMemorySupported)
+    THREADS.setThreadAllocatedMemoryEnabled(true)
+
+    val BOOK = new LimitOrderBook(new OrderPool(LIVE * 2))
+    val FEED = new Feed(BOOK, spread)
+
+    FEED.prime()
+    FEED.fill()
+
+    var round = 0
+    while (round < 20) {
+      FEED.run(50000)
+      round += 1
+    }
+
+    val BASELINE = -allocatedBytes + allocatedBytes
+    val BEFORE   = allocatedBytes
+    FEED.run(200000)
+    val AFTER    = allocatedBytes
+
+    assert(AFTER - BEFORE - BASELINE == 0L)
+  }
+
+  "a pooled book" should "not allocate once warmed up" in {
+    assertWarmedUpFeedDoesNotAllocate(100)
+  }
+
+  it should "not allocate with levels outside the ladder window" in {
+    assertWarmedUpFeedDoesNotAllocate(LimitQueue.DEFAULT_LADDER_TICKS * 2)
+  }
+
+}
@@ -0,0 +1,45 @@
+package org.anhonesteffort.trading.disruptor
+
+import java.util.concurrent.{CompletableFuture, TimeUnit}
+
+import com.lmax.disruptor.{AlertException, BlockingWaitStrategy, Sequence}
+import org.scalatest.FlatSpec
+
+class ListenerGateSpec extends FlatSpec {
+
+  private def await(gate: ListenerGate, sequence: Long): CompletableFuture[Long] = {
+    CompletableFuture.supplyAsync(() => gate.waitFor(sequence))
+  }
+
+  "a listener gate" should "block until every listener reaches the sequence" in {
+    val listeners = Array(new Sequence(0L), new Sequence(0L))
+    val gate      = new ListenerGate(new BlockingWaitStrategy, listeners)
+    val waiting   = await(gate, 1L)
+
+    listeners(0).set(1L)
+    gate.signal()
+    Thread.sleep(50L)
+    assert(!waiting.isDone)
+
+    listeners(1).set(1L)
+    gate.signal()
+    assert(waiting.get(1L, TimeUnit.SECONDS) == 1L)
+  }
+
+  it should "not block when listeners are already caught up" in {
+    val gate = new ListenerGate(new BlockingWaitStrategy, Array(new Sequence(5L)))
+    assert(gate.waitFor(5L) == 5L)
+  }
+
+  it should "release the curator when alerted" in {
+    val gate    = new ListenerGate(new BlockingWaitStrategy, Array(new Sequence(0L)))
+    val waiting = await(gate, 1L)
+
+    Thread.sleep(50L)
+    gate.alert()
+
+    val error = intercept[java.util.concurrent.ExecutionException] { waiting.get(1L, TimeUnit.SECONDS) }
+    assert(error.getCause.isInstanceOf[AlertException])
+  }
+
+}
@@ -0,0 +1,68 @@
+package org.anhonesteffort.trading.disruptor
+
+import java.util.Arrays
+
+import com.lmax.disruptor.{EventFactory, RingBuffer, Sequence}
+import org.scalatest.FlatSpec
+
+class RingMetricsSpec extends FlatSpec {
+
+  private class Handler(name: String, sequence: Sequence) extends MeteredHandler[AnyRef] {
+    override def getName: String = name
+    override def getSequence: Sequence = sequence
+    override def setSequenceCallback(sequence: Sequence): Unit = { }
+    override def onEvent(event: AnyRef, sequence: Long, endOfBatch: Boolean): Unit = { }
+  }
+
+  private def fixture(published: Int): (RingBuffer[AnyRef], Sequence, Sequence, RingMetrics) = {
+    val ring   = RingBuffer.createSingleProducer(new EventFactory[AnyRef] { override def newInstance(): AnyRef = new Object }, 16)
+    val first  = new Sequence(-1L)
+    val second = new Sequence(-1L)
+    val metrics = new RingMetrics(ring, Arrays.asList(new Handler("first", first), new Handler("second", second)), 10L, 1000L)
+
+    ring.addGatingSequences(first, second)
+    (0 until published).foreach(_ => ring.publish(ring.next()))
+    (ring, first, second, metrics)
+  }
+
+  "ring metrics" should "report handler sequences and lag by name" in {
+    val (_, first, second, metrics) = fixture(8)
+
+    first.set(7L)
+    second.set(3L)
+
+    assert(metrics.getCursor == 7L)
+    assert(metrics.getRemainingCapacity == 12L)
+    assert(metrics.getHandlerSequences.get("first") == 7L)
+    assert(metrics.getHandlerSequences.get("second") == 3L)
+    assert(metrics.getHandlerLag.get("first") == 0L)
+    assert(metrics.getHandlerLag.get("second") == 4L)
+    assert(metrics.getHandlerSequences.keySet.toArray.toSeq == Seq("first", "second"))
+  }
+
+  it should "sample occupancy and lag into histograms" in {
+    val (_, first, second, metrics) = fixture(8)
+
+    first.set(7L)
+    second.set(-1L)
+    metrics.run()
+
+    assert(metrics.getOccupancyP99 == 8L)
+    assert(metrics.getHandlerLagP99.get("first") == 0L)
+    assert(metrics.getHandlerLagP99.get("second") == 8L)
+  }
+
+  it should "count producer stalls and overflows" in {
+    val (_, _, _, metrics) = fixture(0)
+
+    metrics.onProducerBlocked(100L)
+    metrics.onProducerBlocked(3000L)
+    metrics.onProducerOverflow()
+
+    assert(metrics.getProducerBlockedCount == 2L)
+    assert(metrics.getProducerBlockedNanos == 3100L)
+    assert(metrics.getProducerBlockedMaxNanos == 3000L)
+    assert(metrics.getProducerOverflowCount == 1L)
+  }
+
+}
@@ -0,0 +1,89 @@
+package org.anhonesteffort.trading.http.response
+
+import java.util.concurrent.{CompletableFuture, ExecutionException}
+
+import com.fasterxml.jackson.core.JsonFactory
+import okhttp3.{MediaType, Protocol, Request, Response, ResponseBody}
+import org.anhonesteffort.trading.book.Orders.Side
+import org.anhonesteffort.trading.book.{FixedPoint, OrderIds}
+import org.anhonesteffort.trading.http.HttpException
+import org.scalatest.FlatSpec
+
+import scala.collection.mutable
+
+class GetOrderBookCallbackSpec extends FlatSpec {
+
+  private val ASK_ID = "d50ec984-77a8-460a-b958-66f114b0de9b"
+  private val BID_ID = "6d2ca39f-7f5c-4e34-9b3b-9a4d6ed3a1e0"
+
+  private class Recorder extends GetOrderBookListener {
+    val calls = new mutable.ArrayBuffer[String]()
+    override def onBookStart(): Unit = calls += "start"
+    override def onBookOrder(side: Side, orderIdHi: Long, orderIdLo: Long, price: Long, size: Long): Unit =
+      calls += s"$side ${OrderIds.toText(orderIdHi, orderIdLo)} ${FixedPoint.toDouble(price)} ${FixedPoint.toDouble(size)}"
+    override def onBookEnd(sequence: Long): Unit = calls += s"end $sequence"
+    override def onBookAbort(): Unit = calls += "abort"
+  }
+
+  private def respond(body: String): (Recorder, CompletableFuture[java.lang.Long]) = {
+    val recorder = new Recorder
+    val future   = new CompletableFuture[java.lang.Long]()
+    val response = new Response.Builder()
+      .request(new Request.Builder().url("https://localhost/products/BTC-USD/book?level=3").build())
+      .protocol(Protocol.HTTP_1_1)
+      .code(200)
+      .message("OK")
+      .body(ResponseBody.create(MediaType.parse("application/json"), body))
+      .build()
+
+    new GetOrderBookCallback(new JsonFactory(), recorder, future).onResponse(null, response)
+    (recorder, future)
+  }
+
+  private def failure(future: CompletableFuture[java.lang.Long]): Throwable = {
+    intercept[ExecutionException] { future.get() }.getCause
+  }
+
+  "a snapshot" should "stream start, every order and end in order" in {
+    val (recorder, future) = respond(
+      s"""{"sequence":3,"bids":[["295.96","0.05","$BID_ID"]],"asks":[["295.97","5.72","$ASK_ID"],["296.00","1","$BID_ID"]]}"""
+    )
+
+    assert(future.get() == 3L)
+    assert(recorder.calls == Seq(
+      "start",
+      s"BID $BID_ID 295.96 0.05",
+      s"ASK $ASK_ID 295.97 5.72",
+      s"ASK $BID_ID 296.0 1.0",
+      "end 3"
+    ))
+  }
+
+  "a snapshot with a sequence after the orders" should "still end with that sequence" in {
+    val (recorder, future) = respond(s"""{"bids":[],"asks":[["1.5","2","$ASK_ID"]],"sequence":9}""")
+    assert(future.get() == 9L)
+    assert(recorder.calls.last == "end 9")
+  }
+
+  "a snapshot failing before any order" should "never start the book" in {
+    val (recorder, future) = respond("""{"sequence":"3","bids":[]""")
+    assert(failure(future).isInstanceOf[HttpException])
+    assert(recorder.calls.isEmpty)
+  }
+
+  "a snapshot failing after the book started" should "abort the book" in {
+    val BAD_ENTRY = respond(s"""{"sequence":3,"bids":[["295.96","0.05","$BID_ID"],["oops","1","$ASK_ID"]],"asks":[]}""")
+    assert(failure(BAD_ENTRY._2).isInstanceOf[HttpException])
+    assert(BAD_ENTRY._1.calls == Seq("start", s"BID $BID_ID 295.96 0.05", "abort"))
+
+    val NO_SEQUENCE = respond(s"""{"bids":[],"asks":[]}""")
+    assert(failure(NO_SEQUENCE._2).isInstanceOf[HttpException])
+    assert(NO_SEQUENCE._1.calls == Seq("start", "abort"))
+
+    val TRUNCATED = respond(s"""{"sequence":3,"bids":[["295.96","0.05","$BID_ID"],["295""")
+    assert(failure(TRUNCATED._2).isInstanceOf[java.io.IOException])
+    assert(TRUNCATED._1.calls.last == "abort")
+    assert(!TRUNCATED._1.calls.contains("end 3"))
+  }
+
+}
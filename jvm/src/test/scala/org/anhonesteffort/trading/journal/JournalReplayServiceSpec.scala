@@ -0,0 +1,108 @@
+package org.anhonesteffort.trading.journal
+
+import java.nio.file.{Files, Path}
+import java.util.Optional
+import java.util.concurrent.TimeUnit
+
+import com.lmax.disruptor.{EventFactory, RingBuffer}
+import org.anhonesteffort.trading.book.{FixedPoint, OrderIds, Orders}
+import org.anhonesteffort.trading.http.request.model.PostOrderRequest
+import org.anhonesteffort.trading.sim.SimulatedExchange
+import org.anhonesteffort.trading.state.{GdaxEvent, HeapGdaxEvent}
+import org.scalatest.FlatSpec
+
+class JournalReplayServiceSpec extends FlatSpec {
+
+  private val MS = 1000000L
+
+  // each session records receive times from its own jvm's nanoTime
+  private def record(directory: Path, sessionMs: Long, recordedNs: Seq[Long]): Unit = {
+    val segment = JournalSegment.create(directory.resolve(JournalWriter.segmentName(sessionMs, 0)), 16, 0L, sessionMs)
+    val event   = new HeapGdaxEvent
+
+    recordedNs.zipWithIndex.foreach { case (nanos, index) =>
+      event.initLimitRx(nanos, 1L, index + 1L, 0L, 0L, Orders.SIDE_BID, 100L, 100L)
+      segment.append(event, index, sessionMs)
+    }
+    segment.close()
+  }
+
+  private def ring(): RingBuffer[GdaxEvent] = {
+    RingBuffer.createSingleProducer(new EventFactory[GdaxEvent] { override def newInstance(): GdaxEvent = new HeapGdaxEvent }, 64)
+  }
+
+  private def run(service: JournalReplayService): Unit = {
+    service.start()
+    service.shutdownFuture().get(5L, TimeUnit.SECONDS)
+  }
+
+  private def replay(directory: Path, speed: Double, exchange: Boolean): Seq[Long] = {
+    val events    = ring()
+    val simulated = if (exchange) Optional.of(new SimulatedExchange(0L)) else Optional.empty[SimulatedExchange]()
+
+    simulated.ifPresent(_.setRingBuffer(events))
+    run(new JournalReplayService(events, directory, speed, simulated))
+    (0L to events.getCursor).map(sequence => events.get(sequence).getNanoseconds)
+  }
+
+  private def sessions(): Path = {
+    val directory = Files.createTempDirectory("replay")
+    record(directory, 1000L, Seq(900000L * MS, 900001L * MS, 900003L * MS))
+    record(directory, 2000L, Seq(5L * MS, 6L * MS))
+    record(directory, 3000L, Seq(7000000L * MS, 7000002L * MS))
+    directory
+  }
+
+  "a simulated replay" should "carry elapsed time across sessions recorded by different jvms" in {
+    val nanos = replay(sessions(), 0d, exchange = true)
+    val steps = nanos.zip(nanos.tail).map { case (a, b) => (b - a) / MS }
+
+    assert(nanos.size == 7)
+    assert(steps == Seq(1L, 2L, 0L, 1L, 0L, 2L))
+  }
+
+  "a paced replay" should "not wait out the gap between sessions" in {
+    val started = System.nanoTime()
+    val nanos   = replay(sessions(), 1d, exchange = false)
+
+    assert(nanos.size == 7)
+    assert(System.nanoTime() - started < 2000L * MS)
+  }
+
+  "a simulated replay" should "fill and reject orders against the replayed book" in {
+    val directory = Files.createTempDirectory("replay")
+    val segment   = JournalSegment.create(directory.resolve(JournalWriter.segmentName(1000L, 0)), 16, 0L, 1000L)
+    val event     = new HeapGdaxEvent
+    val price     = FixedPoint.fromDouble(100d)
+    val size      = FixedPoint.fromDouble(1d)
+    val recorded  = Seq[(GdaxEvent, Long) => Unit](
+      (e, ns) => e.initRebuildStart(ns),
+      (e, ns) => e.initLimitOpen(ns, 0L, 1L, Orders.SIDE_ASK, price, size),
+      (e, ns) => e.initRebuildEnd(ns),
+      (e, ns) => e.initLimitOpen(ns, 0L, 2L, Orders.SIDE_ASK, price, size),
+      (e, ns) => e.initMatch(ns, 0L, 2L, 0L, 9L, Orders.SIDE_ASK, price, size)
+    )
+
+    recorded.zipWithIndex.foreach { case (init, index) =>
+      init(event, 50000L * MS + (index * MS))
+      segment.append(event, index, 1000L)
+    }
+    segment.close()
+
+    val events   = ring()
+    val exchange = new SimulatedExchange(3L)
+    exchange.setRingBuffer(events)
+
+    // both arrive after the rebuild, between the two replayed asks
+    val ask = exchange.postOrder(new PostOrderRequest(OrderIds.toText(5L, 6L), "sell", "100.00", "1"))
+    val bid = exchange.postOrder(new PostOrderRequest(OrderIds.toText(5L, 7L), "buy", "100.00", "1"))
+
+    run(new JournalReplayService(events, directory, 0d, Optional.of(exchange)))
+
+    assert(ask.get)
+    assert(!bid.get)
+    assert(exchange.getFilled == 1L)
+    assert(exchange.getPosition == -1d)
+  }
+
+}
@@ -0,0 +1,116 @@
+package org.anhonesteffort.trading.journal
+
+import java.nio.file.{Files, Path}
+
+import org.anhonesteffort.trading.book.Orders
+import org.anhonesteffort.trading.state.{GdaxEvent, HeapGdaxEvent}
+import org.scalatest.FlatSpec
+
+import scala.collection.JavaConverters._
+
+class JournalSpec extends FlatSpec {
+
+  private val START = System.nanoTime()
+
+  private def at(ms: Long): Long = START + (ms * 1000000L)
+
+  // one of every event type, spaced 10ms apart on the receive clock
+  private def events(): Seq[GdaxEvent] = {
+    val inits: Seq[(GdaxEvent, Long) => Unit] = Seq(
+      (e, ns) => e.initRebuildStart(ns),
+      (e, ns) => e.initLimitOpen(ns, 1L, 2L, Orders.SIDE_ASK, 10000000000L, 100000000L),
+      (e, ns) => e.initRebuildEnd(ns),
+      (e, ns) => e.initLimitRx(ns, 3L, 4L, 5L, 6L, Orders.SIDE_BID, 9900000000L, 200000000L),
+      (e, ns) => e.initMarketRx(ns, 7L, 8L, Orders.SIDE_BID, 300000000L, 12.5d),
+      (e, ns) => e.initMatch(ns, 1L, 2L, 7L, 8L, Orders.SIDE_ASK, 10000000000L, 50000000L),
+      (e, ns) => e.initLimitChange(ns, 1L, 2L, Orders.SIDE_ASK, 10000000000L, 50000000L, 25000000L),
+      (e, ns) => e.initMarketChange(ns, 7L, 8L, Orders.SIDE_BID, 300000000L, 100000000L, 12.5d, 2.5d),
+      (e, ns) => e.initMarketDone(ns, 7L, 8L, Orders.SIDE_BID),
+      (e, ns) => e.initLimitDone(ns, 1L, 2L, Orders.SIDE_ASK, 10000000000L, 25000000L),
+      (e, ns) => e.initRebuildStart(ns),
+      (e, ns) => e.initRebuildAbort(ns)
+    )
+
+    inits.zipWithIndex.map { case (init, index) =>
+      val event = new HeapGdaxEvent
+      init(event, at(index * 10L))
+      event.setFeedSequence(1000L + index)
+      event
+    }
+  }
+
+  private def fields(event: GdaxEvent): Seq[Any] = Seq(
+    event.getType, event.getNanoseconds, event.getFeedSequence, event.getSide,
+    event.getOrderIdHi, event.getOrderIdLo, event.getClientOidHi, event.getClientOidLo,
+    event.getMakerIdHi, event.getMakerIdLo, event.getTakerIdHi, event.getTakerIdLo,
+    event.getPrice, event.getSize, event.getFunds,
+    event.getOldSize, event.getNewSize, event.getOldFunds, event.getNewFunds
+  )
+
+  private def write(directory: Path, written: Seq[GdaxEvent], records: Int): Unit = {
+    val writer = new JournalWriter(directory, records)
+    writer.onStart()
+    written.zipWithIndex.foreach { case (event, sequence) => writer.onEvent(event, sequence, false) }
+    writer.onShutdown()
+  }
+
+  "a journal" should "read back every event type as it was written" in {
+    val directory = Files.createTempDirectory("journal")
+    val written   = events()
+    write(directory, written, 5)
+
+    val paths = JournalReplayService.segments(directory).asScala
+    assert(paths.size == 3)
+
+    val read = paths.flatMap { path =>
+      val segment = JournalSegment.open(path)
+      try {
+        (0L until segment.getCount).map { index =>
+          val event = new HeapGdaxEvent
+          segment.read(index, event)
+          assert(segment.getSequence(index) == segment.getFirstSequence + index)
+          event
+        }
+      } finally {
+        segment.close()
+      }
+    }
+
+    assert(read.map(fields) == written.map(fields))
+  }
+
+  it should "keep sequences contiguous across segments" in {
+    val directory = Files.createTempDirectory("journal")
+    write(directory, events(), 5)
+
+    val segments = JournalReplayService.segments(directory).asScala.map(JournalSegment.open)
+    assert(segments.map(_.getFirstSequence) == Seq(0L, 5L, 10L))
+    assert(segments.map(_.getLastSequence) == Seq(4L, 9L, 11L))
+    assert(segments(1).indexOfSequence(7L) == 2L)
+    assert(segments(1).indexOfSequence(4L) == -1L)
+    assert(segments(1).indexOfSequence(10L) == -1L)
+    segments.foreach(_.close())
+  }
+
+  "indexOfWallMs" should "find the first record at or after a wall time" in {
+    val directory = Files.createTempDirectory("journal")
+    write(directory, events(), 16)
+
+    val segment = JournalSegment.open(JournalReplayService.segments(directory).get(0))
+    val first   = segment.getFirstMs
+
+    assert(segment.getCount == 12L)
+    assert(segment.getLastMs - first >= 100L)
+    assert(segment.indexOfWallMs(first - 1L) == 0L)
+    assert(segment.indexOfWallMs(first) == 0L)
+    (0L until segment.getCount).foreach { index =>
+      val ms = segment.getWallMs(index)
+      assert(segment.indexOfWallMs(ms) <= index)
+      assert(segment.getWallMs(segment.indexOfWallMs(ms)) == ms)
+      assert(segment.indexOfWallMs(ms + 1L) > index)
+    }
+    assert(segment.indexOfWallMs(segment.getLastMs + 1L) == segment.getCount)
+    segment.close()
+  }
+
+}
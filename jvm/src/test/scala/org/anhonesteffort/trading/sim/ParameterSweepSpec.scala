@@ -0,0 +1,98 @@
+package org.anhonesteffort.trading.sim
+
+import java.nio.file.{Files, Path}
+import java.util.Properties
+
+import org.anhonesteffort.trading.TradeBoiConfig
+import org.anhonesteffort.trading.book.{FixedPoint, Orders}
+import org.anhonesteffort.trading.journal.{JournalSegment, JournalWriter}
+import org.anhonesteffort.trading.state.{GdaxEvent, HeapGdaxEvent}
+import org.scalatest.FlatSpec
+
+import scala.collection.JavaConverters._
+
+class ParameterSweepSpec extends FlatSpec {
+
+  private val MS = 1000000L
+
+  private def journal(inits: Seq[(GdaxEvent, Long) => Unit]): Path = {
+    val directory = Files.createTempDirectory("sweep")
+    val segment   = JournalSegment.create(directory.resolve(JournalWriter.segmentName(1000L, 0)), 64, 0L, 1000L)
+    val event     = new HeapGdaxEvent
+
+    inits.zipWithIndex.foreach { case (init, index) =>
+      init(event, index * MS)
+      segment.append(event, index, 1000L)
+    }
+    segment.close()
+    directory
+  }
+
+  private val BOOK: Seq[(GdaxEvent, Long) => Unit] = Seq(
+    (e, ns) => e.initRebuildStart(ns),
+    (e, ns) => e.initLimitOpen(ns, 0L, 1L, Orders.SIDE_BID, FixedPoint.fromDouble(99d), FixedPoint.fromDouble(1d)),
+    (e, ns) => e.initLimitOpen(ns, 0L, 2L, Orders.SIDE_ASK, FixedPoint.fromDouble(101d), FixedPoint.fromDouble(1d)),
+    (e, ns) => e.initRebuildEnd(ns),
+    (e, ns) => e.initLimitRx(ns, 0L, 3L, 0L, 0L, Orders.SIDE_BID, FixedPoint.fromDouble(100d), FixedPoint.fromDouble(1d)),
+    (e, ns) => e.initLimitOpen(ns, 0L, 3L, Orders.SIDE_BID, FixedPoint.fromDouble(100d), FixedPoint.fromDouble(1d)),
+    (e, ns) => e.initLimitDone(ns, 0L, 3L, Orders.SIDE_BID, FixedPoint.fromDouble(100d), FixedPoint.fromDouble(1d))
+  )
+
+  private def config(replayDir: Path, threads: Int): TradeBoiConfig = {
+    val properties = new Properties()
+    properties.setProperty("ws_buffer_size", "1024")
+    properties.setProperty("ws_connect_timeout_ms", "1000")
+    properties.setProperty("ws_read_timeout_ms", "1000")
+    properties.setProperty("stats_port", "0")
+    properties.setProperty("replay_dir", replayDir.toString)
+    properties.setProperty("sweep_bid_sizes", "0.01, 0.02")
+    properties.setProperty("sweep_bid_placements", "0.5,0.75, 1")
+    properties.setProperty("sweep_bid_abort_ms", "1000,1500")
+    properties.setProperty("sweep_ask_abort_ms", "2000,3000")
+    properties.setProperty("sweep_threads", threads.toString)
+    new TradeBoiConfig(properties)
+  }
+
+  private def summary(result: Backtest.Result): (Double, Double, Long, Long, Double, Long, Boolean) = {
+    val params = result.getParams
+    (params.bidSize, params.bidPlacement, params.bidAbortMs, params.askAbortMs, result.getProfit, result.getPosted, result.getError.isPresent)
+  }
+
+  "a parameter sweep" should "backtest every point of the grid" in {
+    val results = new ParameterSweep(config(journal(BOOK), 2)).run().asScala
+
+    assert(results.size == 4)
+    assert(results.map(summary).map(point => (point._1, point._2, point._3, point._4)).toSet.size == 4)
+    assert(results.map(_.getParams.bidAbortMs).toSet == Set(1000L, 1500L))
+    assert(results.map(_.getParams.askAbortMs).toSet == Set(2000L, 3000L))
+    assert(results.forall(!_.getError.isPresent))
+  }
+
+  it should "sweep only the first bid size and placement while the bid strategy ignores them" in {
+    val results = new ParameterSweep(config(journal(BOOK), 2)).run().asScala
+
+    assert(results.map(_.getParams.bidSize).toSet == Set(0.01d))
+    assert(results.map(_.getParams.bidPlacement).toSet == Set(0.5d))
+  }
+
+  it should "rank results by profit" in {
+    val profits = new ParameterSweep(config(journal(BOOK), 3)).run().asScala.map(_.getProfit)
+    assert(profits == profits.sortBy(-_))
+  }
+
+  it should "give the same results however many threads share the journal" in {
+    val directory = journal(BOOK)
+    val single    = new ParameterSweep(config(directory, 1)).run().asScala.map(summary).toSet
+    val parallel  = new ParameterSweep(config(directory, 4)).run().asScala.map(summary).toSet
+    assert(single == parallel)
+  }
+
+  it should "report a failed backtest instead of failing the sweep" in {
+    val broken  = BOOK :+ ((e: GdaxEvent, ns: Long) => e.initMatch(ns, 0L, 42L, 0L, 43L, Orders.SIDE_ASK, FixedPoint.fromDouble(101d), FixedPoint.fromDouble(1d)))
+    val results = new ParameterSweep(config(journal(broken), 2)).run().asScala
+
+    assert(results.size == 4)
+    assert(results.forall(_.getError.isPresent))
+  }
+
+}
@@ -0,0 +1,158 @@
+package org.anhonesteffort.trading.sim
+
+import java.util.concurrent.CompletableFuture
+
+import com.lmax.disruptor.{EventFactory, RingBuffer}
+import org.anhonesteffort.trading.book.{FixedPoint, OrderIds, Orders}
+import org.anhonesteffort.trading.book.Orders.Side
+import org.anhonesteffort.trading.http.request.model.PostOrderRequest
+import org.anhonesteffort.trading.state.{GdaxEvent, HeapGdaxEvent}
+import org.scalatest.FlatSpec
+
+class SimulatedExchangeSpec extends FlatSpec {
+
+  private val MS = 1000000L
+
+  private class Fixture {
+    val ring     : RingBuffer[GdaxEvent] = RingBuffer.createSingleProducer(new EventFactory[GdaxEvent] {
+      override def newInstance(): GdaxEvent = new HeapGdaxEvent
+    }, 256)
+    val exchange : SimulatedExchange     = new SimulatedExchange(0L, 16)
+    val event    : GdaxEvent             = new HeapGdaxEvent
+    var elapsed  : Long                  = 0L
+
+    exchange.setRingBuffer(ring)
+
+    def replay(init: (GdaxEvent, Long) => Unit): Unit = {
+      elapsed += MS
+      init(event, elapsed)
+      exchange.advance(elapsed, elapsed)
+      exchange.onMarketEvent(event, elapsed)
+    }
+
+    def open(id: Long, side: Side, price: Double, size: Double): Unit = {
+      replay((e, ns) => e.initLimitOpen(ns, 0L, id, side, FixedPoint.fromDouble(price), FixedPoint.fromDouble(size)))
+    }
+
+    def matched(makerId: Long, side: Side, price: Double, size: Double): Unit = {
+      replay((e, ns) => e.initMatch(ns, 0L, makerId, 0L, 99L, side, FixedPoint.fromDouble(price), FixedPoint.fromDouble(size)))
+    }
+
+    def rebuild(orders: (Long, Side, Double, Double)*): Unit = {
+      replay((e, ns) => e.initRebuildStart(ns))
+      orders.foreach { case (id, side, price, size) => open(id, side, price, size) }
+      replay((e, ns) => e.initRebuildEnd(ns))
+    }
+
+    // requests are delivered on the next replayed event
+    def post(side: String, price: String, size: String): CompletableFuture[java.lang.Boolean] = {
+      val posted = exchange.postOrder(new PostOrderRequest(OrderIds.toText(5L, 6L), side, price, size))
+      replay((e, ns) => e.initRebuildEnd(ns))
+      posted
+    }
+
+    def published: Seq[GdaxEvent.Type] = (0L to ring.getCursor).map(sequence => ring.get(sequence).getType)
+  }
+
+  private val FILL = Seq(GdaxEvent.Type.MARKET_RX, GdaxEvent.Type.MATCH, GdaxEvent.Type.LIMIT_DONE, GdaxEvent.Type.MARKET_DONE)
+
+  "a simulated exchange" should "reject post-only orders that would take" in {
+    val fixture = new Fixture
+    fixture.rebuild((1L, Side.ASK, 100d, 1d))
+
+    assert(!fixture.post("buy", "100.00", "1").get)
+    assert(fixture.post("buy", "99.99", "1").get)
+    assert(fixture.exchange.getRejected == 1L)
+    assert(fixture.exchange.getPosted == 1L)
+  }
+
+  it should "fill ours when a match takes from a maker queued behind it" in {
+    val fixture = new Fixture
+    fixture.rebuild((1L, Side.ASK, 100d, 1d))
+    assert(fixture.post("sell", "100.00", "1").get)
+
+    fixture.open(2L, Side.ASK, 100d, 1d)
+    fixture.matched(2L, Side.ASK, 100d, 1d)
+
+    assert(fixture.exchange.getFilled == 1L)
+    assert(fixture.exchange.getPosition == -1d)
+    assert(fixture.published.takeRight(4) == FILL)
+  }
+
+  it should "fill ours in the same match when it takes more than the maker ahead of ours" in {
+    val fixture = new Fixture
+    fixture.rebuild((1L, Side.ASK, 100d, 1d))
+    assert(fixture.post("sell", "100.00", "1").get)
+
+    fixture.matched(1L, Side.ASK, 100d, 2d)
+
+    assert(fixture.exchange.getFilled == 1L)
+    assert(fixture.published.takeRight(4) == FILL)
+  }
+
+  it should "leave ours at the head once the makers ahead are exhausted" in {
+    val fixture = new Fixture
+    fixture.rebuild((1L, Side.ASK, 100d, 1d))
+    assert(fixture.post("sell", "100.00", "1").get)
+
+    fixture.matched(1L, Side.ASK, 100d, 1d)
+    assert(fixture.exchange.getFilled == 0L)
+
+    fixture.matched(7L, Side.ASK, 100.01d, 1d)
+    assert(fixture.exchange.getFilled == 1L)
+  }
+
+  it should "fill ours and drop stale orders ahead of a crossing replayed open" in {
+    val fixture = new Fixture
+    fixture.rebuild((1L, Side.ASK, 100d, 1d))
+    assert(fixture.post("sell", "100.00", "1").get)
+
+    fixture.open(2L, Side.BID, 100d, 3d)
+    assert(fixture.exchange.getFilled == 1L)
+    assert(fixture.post("sell", "100.01", "1").get)
+    assert(!fixture.post("sell", "100.00", "1").get)
+  }
+
+  it should "fill only what a match takes beyond the maker ahead of a larger order of ours" in {
+    val fixture = new Fixture
+    fixture.rebuild((1L, Side.ASK, 100d, 1d))
+    assert(fixture.post("sell", "100.00", "5").get)
+
+    fixture.matched(1L, Side.ASK, 100d, 2d)
+
+    assert(fixture.exchange.getFilled == 0L)
+    assert(fixture.exchange.getPosition == -1d)
+    assert(fixture.published.takeRight(3) == Seq(GdaxEvent.Type.MARKET_RX, GdaxEvent.Type.MATCH, GdaxEvent.Type.MARKET_DONE))
+
+    fixture.matched(7L, Side.ASK, 100.01d, 4d)
+    assert(fixture.exchange.getFilled == 1L)
+    assert(fixture.exchange.getPosition == -5d)
+    assert(fixture.published.takeRight(4) == FILL)
+  }
+
+  it should "fill only the size of a crossing replayed open smaller than ours" in {
+    val fixture = new Fixture
+    assert(fixture.post("sell", "100.00", "5").get)
+
+    fixture.open(2L, Side.BID, 100d, 2d)
+
+    assert(fixture.exchange.getFilled == 0L)
+    assert(fixture.exchange.getPosition == -2d)
+    assert(fixture.exchange.toString.contains("open 1"))
+  }
+
+  it should "deliver requests on replay time that carries across sessions" in {
+    val fixture  = new Fixture
+    val exchange = new SimulatedExchange(5L, 16)
+    exchange.setRingBuffer(fixture.ring)
+
+    exchange.advance(100L * MS, 0L)
+    val posted = exchange.postOrder(new PostOrderRequest(OrderIds.toText(5L, 6L), "buy", "1.00", "1"))
+
+    exchange.advance(104L * MS, 0L)
+    assert(!posted.isDone)
+    exchange.advance(105L * MS, 0L)
+    assert(posted.get)
+  }
+
+}
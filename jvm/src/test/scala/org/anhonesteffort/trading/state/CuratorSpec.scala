@@ -0,0 +1,85 @@
+package org.anhonesteffort.trading.state
+
+import com.lmax.disruptor.Sequence
+import org.anhonesteffort.trading.book.{BaseSpec, CompatLimitOrderBook, FixedPoint}
+import org.anhonesteffort.trading.book.Orders.Side
+
+import scala.collection.JavaConverters._
+
+class CuratorSpec extends BaseSpec {
+
+  protected class Feed(val curator: StateCurator, listeners: StateListener*) {
+    val book  : CompatLimitOrderBook = curator.getState.getOrderBook
+    val event : GdaxEvent            = new HeapGdaxEvent
+    val stage : StateListenerStage   = new StateListenerStage(curator, listeners.toSet.asJava)
+    var sequence : Long = 0L
+    var nanos    : Long = 0L
+
+    stage.setSequenceCallback(new Sequence)
+
+    def next(): GdaxEvent = {
+      nanos += 1000L
+      event
+    }
+
+    def publish(): Unit = {
+      sequence += 1L
+      curator.onEvent(event, sequence, true)
+      stage.onEvent(event, sequence, true)
+    }
+
+    def rebuildStart(): Unit = {
+      next().initRebuildStart(nanos)
+      publish()
+    }
+
+    def rebuildOpen(id: Long, side: Side, price: Double, size: Double): Unit = {
+      next().initLimitOpen(nanos, 0L, id, side, FixedPoint.fromDouble(price), FixedPoint.fromDouble(size))
+      publish()
+    }
+
+    def rebuildEnd(): Unit = {
+      next().initRebuildEnd(nanos)
+      publish()
+    }
+
+    def rebuildAbort(): Unit = {
+      next().initRebuildAbort(nanos)
+      publish()
+    }
+
+    // a full rebuild with one order per price and ids counting up from 1
+    def rebuild(size: Double, orders: (Side, Double)*): Unit = {
+      rebuildStart()
+      orders.zipWithIndex.foreach { case ((side, price), index) => rebuildOpen(index + 1L, side, price, size) }
+      rebuildEnd()
+    }
+
+    def rx(id: Long, side: Side, price: Double, size: Double): Unit = {
+      next().initLimitRx(nanos, 0L, id, 0L, 0L, side, FixedPoint.fromDouble(price), FixedPoint.fromDouble(size))
+      publish()
+    }
+
+    def open(id: Long, side: Side, price: Double, size: Double): Unit = {
+      rx(id, side, price, size)
+      next().initLimitOpen(nanos, 0L, id, side, FixedPoint.fromDouble(price), FixedPoint.fromDouble(size))
+      publish()
+    }
+
+    def done(id: Long, side: Side, price: Double, size: Double): Unit = {
+      next().initLimitDone(nanos, 0L, id, side, FixedPoint.fromDouble(price), FixedPoint.fromDouble(size))
+      publish()
+    }
+
+    def change(id: Long, side: Side, price: Double, oldSize: Double, newSize: Double): Unit = {
+      next().initLimitChange(nanos, 0L, id, side, FixedPoint.fromDouble(price), FixedPoint.fromDouble(oldSize), FixedPoint.fromDouble(newSize))
+      publish()
+    }
+
+    def matched(makerId: Long, takerId: Long, side: Side, price: Double, size: Double): Unit = {
+      next().initMatch(nanos, 0L, makerId, 0L, takerId, side, FixedPoint.fromDouble(price), FixedPoint.fromDouble(size))
+      publish()
+    }
+  }
+
+}
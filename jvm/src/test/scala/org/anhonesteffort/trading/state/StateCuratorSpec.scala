@@ -0,0 +1,73 @@
+package org.anhonesteffort.trading.state
+
+import org.anhonesteffort.trading.book.{CompatLimitOrderBook, FixedPoint, OrderPool, Orders}
+
+class StateCuratorSpec extends CuratorSpec {
+
+  "an aborted shadow rebuild" should "leave the live book as it was" in {
+    val FEED = new Feed(new MatchingStateCurator(new CompatLimitOrderBook(new OrderPool(16)), StateCurator.REBUILD_SHADOW))
+
+    FEED.rebuild(3L, Orders.SIDE_ASK -> 100d, Orders.SIDE_BID -> 90d)
+    FEED.rebuildStart()
+    FEED.rebuildOpen(7L, Orders.SIDE_ASK, 101d, 1d)
+    FEED.rebuildAbort()
+
+    assert(FEED.book.getAskLimits.peek.get.getPrice == 100d)
+    assert(FEED.book.getBidLimits.peek.get.getPrice == 90d)
+    assert(FEED.book.getById(0L, 7L) == null)
+
+    FEED.open(8L, Orders.SIDE_ASK, 99d, 1d)
+    assert(FEED.book.getAskLimits.peek.get.getPrice == 99d)
+  }
+
+  "an aborted diff rebuild" should "apply nothing from the snapshot" in {
+    val FEED = new Feed(new MatchingStateCurator(new CompatLimitOrderBook(new OrderPool(16)), StateCurator.REBUILD_DIFF))
+
+    FEED.rebuild(3L, Orders.SIDE_ASK -> 100d)
+    FEED.rebuildStart()
+    FEED.rebuildOpen(7L, Orders.SIDE_ASK, 101d, 1d)
+    FEED.rebuildAbort()
+
+    assert(FEED.curator.getNotice == StateCurator.Notice.NONE)
+    assert(FEED.book.getById(0L, 1L) != null)
+    assert(FEED.book.getById(0L, 7L) == null)
+  }
+
+  "an aborted clear rebuild" should "drop the partly loaded book" in {
+    val FEED = new Feed(new MatchingStateCurator(new CompatLimitOrderBook(new OrderPool(16)), StateCurator.REBUILD_CLEAR))
+
+    FEED.rebuildStart()
+    FEED.rebuildOpen(7L, Orders.SIDE_ASK, 101d, 1d)
+    FEED.rebuildAbort()
+
+    assert(FEED.book.isEmpty)
+    FEED.open(8L, Orders.SIDE_ASK, 99d, 1d)
+    assert(FEED.book.getAskLimits.peek.get.getPrice == 99d)
+    assert(FixedPoint.toDouble(FEED.book.getById(0L, 8L).getSizeRemainingUnits) == 1d)
+  }
+
+  private def assertResyncReleases(mode: String): Unit = {
+    val POOL = new OrderPool(16)
+    val FEED = new Feed(new MatchingStateCurator(new CompatLimitOrderBook(POOL), mode))
+
+    FEED.rebuild(3L, Orders.SIDE_ASK -> 100d, Orders.SIDE_ASK -> 101d, Orders.SIDE_BID -> 90d)
+    FEED.rebuildStart()
+    FEED.rebuildOpen(1L, Orders.SIDE_ASK, 100d, 3d)
+    FEED.rebuildOpen(2L, Orders.SIDE_ASK, 101d, 1d)
+    FEED.rebuildOpen(4L, Orders.SIDE_BID,  89d, 1d)
+    FEED.rebuildEnd()
+    FEED.open(8L, Orders.SIDE_ASK, 102d, 1d)
+
+    assert(FEED.book.getById(0L, 3L) == null)
+    assert(POOL.getAcquired - POOL.getRecycled - POOL.getFree == 4L)
+  }
+
+  "a shadow resync" should "hand back the orders it dropped" in {
+    assertResyncReleases(StateCurator.REBUILD_SHADOW)
+  }
+
+  "a diff resync" should "hand back the orders it dropped" in {
+    assertResyncReleases(StateCurator.REBUILD_DIFF)
+  }
+
+}
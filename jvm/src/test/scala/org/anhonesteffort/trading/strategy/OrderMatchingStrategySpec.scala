@@ -0,0 +1,71 @@
+package org.anhonesteffort.trading.strategy
+
+import org.anhonesteffort.trading.book.{CompatLimitOrderBook, OrderIds, OrderPool}
+import org.anhonesteffort.trading.book.Orders.Side
+import org.anhonesteffort.trading.state.{CuratorSpec, MatchingStateCurator, StateCurator, StateProcessingException}
+import org.anhonesteffort.trading.strategy.impl.SimpleOrderMatchingStrategy
+
+class OrderMatchingStrategySpec extends CuratorSpec {
+
+  private val OURS = 1L
+
+  private def resting(rebuildMode: String): (Feed, OrderMatchingStrategy) = {
+    val strategy = new SimpleOrderMatchingStrategy(OrderIds.toText(0L, OURS), 60000L)
+    val feed     = new Feed(new MatchingStateCurator(new CompatLimitOrderBook(new OrderPool(16)), rebuildMode), strategy)
+
+    feed.rebuild(3d, Side.ASK -> 100d, Side.ASK -> 101d, Side.BID -> 90d)
+    feed.open(10L, Side.BID, 89d, 1d)
+    feed.rebuild(3d, Side.ASK -> 100d, Side.ASK -> 101d, Side.BID -> 90d)
+    (feed, strategy)
+  }
+
+  private def resync(feed: Feed, orders: (Long, Side, Double, Double)*): Unit = {
+    feed.rebuildStart()
+    orders.foreach { case (id, side, price, size) => feed.rebuildOpen(id, side, price, size) }
+    feed.rebuildEnd()
+  }
+
+  Seq(StateCurator.REBUILD_SHADOW, StateCurator.REBUILD_DIFF).foreach { mode =>
+    s"a $mode resync that reduces our order" should "keep waiting on the rest of it" in {
+      val (feed, strategy) = resting(mode)
+
+      resync(feed, (OURS, Side.ASK, 100d, 1d), (2L, Side.ASK, 101d, 3d), (3L, Side.BID, 90d, 3d))
+      assert(!strategy.getResult)
+      assert(!strategy.isAborted)
+
+      feed.rx(11L, Side.BID, 100d, 1d)
+      feed.matched(OURS, 11L, Side.ASK, 100d, 1d)
+      assert(strategy.getResult)
+    }
+
+    s"a $mode resync that drops our order" should "treat it as matched" in {
+      val (feed, strategy) = resting(mode)
+
+      resync(feed, (2L, Side.ASK, 101d, 3d), (3L, Side.BID, 90d, 3d))
+      assert(strategy.getResult)
+      assert(!strategy.isAborted)
+    }
+
+    s"a $mode resync that grows our order" should "abort the strategy" in {
+      val (feed, strategy) = resting(mode)
+
+      resync(feed, (OURS, Side.ASK, 100d, 5d), (2L, Side.ASK, 101d, 3d), (3L, Side.BID, 90d, 3d))
+      assert(!strategy.getResult)
+      assert(strategy.isAborted)
+    }
+
+    s"a $mode resync that leaves our order alone" should "change nothing" in {
+      val (feed, strategy) = resting(mode)
+
+      resync(feed, (OURS, Side.ASK, 100d, 3d), (3L, Side.BID, 90d, 3d))
+      assert(!strategy.getResult)
+      assert(!strategy.isAborted)
+    }
+  }
+
+  "a live cancel of our order" should "still fail the strategy" in {
+    val (feed, _) = resting(StateCurator.REBUILD_SHADOW)
+    assertThrows[StateProcessingException] { feed.done(OURS, Side.ASK, 100d, 3d) }
+  }
+
+}
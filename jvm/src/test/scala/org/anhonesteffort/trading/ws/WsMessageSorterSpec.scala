@@ -0,0 +1,142 @@
+package org.anhonesteffort.trading.ws
+
+import java.util.Collections
+import java.util.concurrent.CompletableFuture
+
+import com.lmax.disruptor.{EventFactory, RingBuffer, Sequence}
+import io.netty.channel.embedded.EmbeddedChannel
+import io.netty.channel.{ChannelHandlerAdapter, ChannelHandlerContext}
+import org.anhonesteffort.trading.book.Orders
+import org.anhonesteffort.trading.disruptor.{MeteredHandler, RingMetrics}
+import org.anhonesteffort.trading.http.OrderBookClient
+import org.anhonesteffort.trading.http.response.GetOrderBookListener
+import org.anhonesteffort.trading.state.{GdaxEvent, HeapGdaxEvent}
+import org.anhonesteffort.trading.ws.message.{Accessor, FeedMessage}
+import org.scalatest.FlatSpec
+
+import scala.collection.mutable
+
+class WsMessageSorterSpec extends FlatSpec {
+
+  private class Snapshots extends OrderBookClient {
+    val requests = new mutable.Queue[(GetOrderBookListener, CompletableFuture[java.lang.Long])]()
+
+    override def geOrderBook(listener: GetOrderBookListener): CompletableFuture[java.lang.Long] = {
+      val future = new CompletableFuture[java.lang.Long]()
+      requests += ((listener, future))
+      future
+    }
+
+    def complete(sequence: Long): Unit = {
+      val (listener, future) = requests.dequeue()
+      listener.onBookStart()
+      listener.onBookOrder(Orders.SIDE_ASK, 1L, 1L, 100L, 100L)
+      listener.onBookEnd(sequence)
+      future.complete(sequence)
+    }
+  }
+
+  private class Fixture(ringSize: Int, overflowPolicy: String, bufferLimit: Int) {
+    val ring      : RingBuffer[GdaxEvent] = RingBuffer.createSingleProducer(new EventFactory[GdaxEvent] {
+      override def newInstance(): GdaxEvent = new HeapGdaxEvent
+    }, ringSize)
+    val consumed  : Sequence        = new Sequence()
+    val snapshots : Snapshots       = new Snapshots
+    val channel   : EmbeddedChannel = new EmbeddedChannel(new ChannelHandlerAdapter { })
+    val context   : ChannelHandlerContext = channel.pipeline().firstContext()
+    val metrics   : RingMetrics     = new RingMetrics(ring, Collections.emptyList[MeteredHandler[_]](), 100L, 1000L)
+    val sorter    : WsMessageSorter = new WsMessageSorter(
+      new WsRingPublisher(ring, metrics, overflowPolicy), snapshots, WsMessageSorter.RESYNC_ASYNC, bufferLimit
+    )
+    private var read = 0L
+
+    ring.addGatingSequences(consumed)
+
+    def sort(sequence: Long): Unit = {
+      val message = new FeedMessage
+      message.clear()
+      message.setType(Accessor.TYPE_OPEN)
+      message.setSequence(sequence)
+      message.setSide(Orders.SIDE_BID)
+      message.setOrderId(0L, sequence)
+      message.setPrice(100L)
+      message.setRemainingSize(100L)
+      sorter.sort(context, message, sequence)
+    }
+
+    def complete(sequence: Long): Unit = {
+      snapshots.complete(sequence)
+      channel.runPendingTasks()
+      channel.checkException()
+    }
+
+    // the feed sequences of live events published since the last call, snapshot events as -1
+    def published(): Seq[Long] = {
+      val events = new mutable.ArrayBuffer[Long]()
+      while (read <= ring.getCursor) {
+        val event = ring.get(read)
+        events += (if (event.getType == GdaxEvent.Type.LIMIT_OPEN && event.getNanoseconds == event.getFeedSequence) event.getFeedSequence else -1L)
+        read += 1
+      }
+      consumed.set(ring.getCursor)
+      events
+    }
+  }
+
+  "async resync" should "buffer messages and replay those after the snapshot" in {
+    val FIXTURE = new Fixture(64, WsRingPublisher.OVERFLOW_BLOCK, 16)
+
+    (5L to 9L).foreach(FIXTURE.sort)
+    assert(FIXTURE.snapshots.requests.size == 1)
+    assert(FIXTURE.published().isEmpty)
+
+    FIXTURE.complete(7L)
+    assert(FIXTURE.published() == Seq(-1L, -1L, -1L, 8L, 9L))
+
+    FIXTURE.sort(10L)
+    FIXTURE.sort(12L)
+    FIXTURE.sort(13L)
+    assert(FIXTURE.published() == Seq(10L))
+    assert(FIXTURE.snapshots.requests.size == 1)
+
+    FIXTURE.sort(14L)
+    FIXTURE.complete(12L)
+    assert(FIXTURE.published() == Seq(-1L, -1L, -1L, 13L, 14L))
+
+    FIXTURE.sort(14L)
+    FIXTURE.sort(15L)
+    assert(FIXTURE.published() == Seq(15L))
+  }
+
+  "async resync" should "drop messages past the buffer limit" in {
+    val FIXTURE = new Fixture(64, WsRingPublisher.OVERFLOW_BLOCK, 2)
+
+    (1L to 5L).foreach(FIXTURE.sort)
+    FIXTURE.complete(1L)
+    assert(FIXTURE.published() == Seq(-1L, -1L, -1L, 2L))
+
+    FIXTURE.sort(6L)
+    assert(FIXTURE.snapshots.requests.size == 1)
+    FIXTURE.complete(5L)
+    assert(FIXTURE.published() == Seq(-1L, -1L, -1L, 6L))
+  }
+
+  "ring overflow" should "resync instead of blocking the feed" in {
+    val FIXTURE = new Fixture(8, WsRingPublisher.OVERFLOW_RESYNC, 16)
+
+    FIXTURE.sort(1L)
+    FIXTURE.complete(1L)
+    (2L to 6L).foreach(FIXTURE.sort)
+    assert(FIXTURE.snapshots.requests.isEmpty)
+
+    FIXTURE.sort(7L)
+    FIXTURE.sort(8L)
+    assert(FIXTURE.metrics.getProducerOverflowCount == 1L)
+    assert(FIXTURE.snapshots.requests.size == 1)
+    assert(FIXTURE.published() == Seq(-1L, -1L, -1L, 2L, 3L, 4L, 5L, 6L))
+
+    FIXTURE.complete(7L)
+    assert(FIXTURE.published() == Seq(-1L, -1L, -1L, 8L))
+  }
+
+}
@@ -0,0 +1,82 @@
+package org.anhonesteffort.trading.ws.message
+
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame
+import org.anhonesteffort.trading.book.FixedPoint
+import org.anhonesteffort.trading.ws.WsException
+import org.scalatest.FlatSpec
+
+class MessageDecoderSpec extends FlatSpec {
+
+  private val DECODERS = Seq(new TreeMessageDecoder, new StreamingMessageDecoder, new ByteBufMessageDecoder)
+  private val ORDER_ID = "d50ec984-77a8-460a-b958-66f114b0de9b"
+  private val OTHER_ID = "6d2ca39f-7f5c-4e34-9b3b-9a4d6ed3a1e0"
+
+  private val FRAMES = Seq(
+    s"""{"type":"received","time":"2014-11-07T08:19:27.028459Z","product_id":"BTC-USD","sequence":10,"order_id":"$ORDER_ID","size":"1.34","price":"502.1","side":"buy","order_type":"limit","client_oid":"$OTHER_ID"}""",
+    s"""{"type":"received","time":"2014-11-07T08:19:27.028459Z","product_id":"BTC-USD","sequence":11,"order_id":"$ORDER_ID","funds":"3000.234","side":"sell","order_type":"market"}""",
+    s"""{"type":"open","time":"2014-11-07T08:19:27.028459Z","product_id":"BTC-USD","sequence":12,"order_id":"$ORDER_ID","price":"200.2","remaining_size":"1.00000001","side":"sell"}""",
+    s"""{"type":"match","trade_id":10,"sequence":13,"maker_order_id":"$ORDER_ID","taker_order_id":"$OTHER_ID","time":"2014-11-07T08:19:27.028459Z","product_id":"BTC-USD","size":"5.23512","price":"400.23","side":"sell"}""",
+    s"""{"type":"change","time":"2014-11-07T08:19:27.028459Z","sequence":14,"order_id":"$ORDER_ID","product_id":"BTC-USD","new_size":"5.23512","old_size":"12.234412","price":"400.23","side":"sell"}""",
+    s"""{"type":"done","time":"2014-11-07T08:19:27.028459Z","product_id":"BTC-USD","sequence":15,"price":"200.2","order_id":"$ORDER_ID","reason":"filled","side":"sell","remaining_size":"0.2"}""",
+    s"""{ "type" : "done", "sequence" : 16, "order_id" : "$ORDER_ID", "reason" : "canceled", "side" : "buy", "price" : "0.01", "remaining_size" : "0", "extra" : { "nested" : [1, "}"] } }""",
+    """{"type":"error","message":"failed to subscribe"}"""
+  )
+
+  private def decode(decoder: MessageDecoder, json: String): FeedMessage = {
+    val frame   = new TextWebSocketFrame(json)
+    val message = new FeedMessage
+    try {
+      decoder.decode(frame, message)
+    } finally {
+      frame.release()
+    }
+    message
+  }
+
+  private def fields(message: FeedMessage): Seq[Any] = Seq(
+    message.getType, message.getSequence, message.getSide, message.getOrderType,
+    message.getOrderIdHi, message.getOrderIdLo, message.getClientOidHi, message.getClientOidLo,
+    message.getMakerOrderIdHi, message.getMakerOrderIdLo, message.getTakerOrderIdHi, message.getTakerOrderIdLo,
+    message.getPrice, message.getSize, message.getFunds, message.getRemainingSize,
+    message.getOldSize, message.getNewSize, message.getMessage
+  )
+
+  "tree, streaming and bytebuf decoders" should "decode the same frames to the same message" in {
+    FRAMES.foreach { json =>
+      val decoded = DECODERS.map(decoder => fields(decode(decoder, json)))
+      assert(decoded.distinct.size == 1, json)
+    }
+  }
+
+  "decoders" should "carry prices and sizes as exact units" in {
+    DECODERS.foreach { decoder =>
+      val open = decode(decoder, FRAMES(2))
+      assert(open.getPrice == 20020000000L)
+      assert(open.getRemainingSize == 100000001L)
+
+      val change = decode(decoder, FRAMES(4))
+      assert(change.getOldSize == FixedPoint.parse("12.234412"))
+      assert(change.getNewSize == FixedPoint.parse("5.23512"))
+    }
+  }
+
+  "bytebuf decoder" should "reject malformed and out of range numbers" in {
+    val DECODER = new ByteBufMessageDecoder
+    val OPEN    = (sequence: String, price: String) =>
+      s"""{"type":"open","sequence":$sequence,"order_id":"$ORDER_ID","price":$price,"remaining_size":"1","side":"sell"}"""
+
+    assert(decode(DECODER, OPEN("12", "200.2")).getPrice == FixedPoint.parse("200.2"))
+    Seq("\"1e-3\"", "\"2.0.1\"", "\"NaN\"", "\"12a\"", "\"0.000000001\"", "\"999999999999999\"", "1e2").foreach { price =>
+      assertThrows[WsException] { decode(DECODER, OPEN("12", price)) }
+    }
+    Seq("99999999999999999999", "12.5", "-").foreach { sequence =>
+      assertThrows[WsException] { decode(DECODER, OPEN(sequence, "\"200.2\"")) }
+    }
+
+    val funds = s"""{"type":"received","sequence":1,"order_id":"$ORDER_ID","funds":"%s","side":"buy","order_type":"market"}"""
+    assert(decode(DECODER, funds.format("12345678901234567.5")).getFunds == 12345678901234567.5d)
+    assertThrows[WsException] { decode(DECODER, funds.format("Infinity")) }
+    assertThrows[WsException] { decode(DECODER, funds.format("1e3")) }
+  }
+
+}
@@ -0,0 +1,67 @@
+package org.anhonesteffort.trading.book
+
+object FixedPoint {
+
+  val DECIMALS : Int  = 8
+  val SCALE    : Long = 100000000L
+
+  private val MAX_UNITS : Long = (Long.MaxValue - 9) / 10
+
+  def fromDouble(value: Double): Long = {
+    Math.round(value * SCALE)
+  }
+
+  def toDouble(units: Long): Double = {
+    units.toDouble / SCALE
+  }
+
+  def parse(text: String): Long = {
+    parse(text.toCharArray, 0, text.length)
+  }
+
+  def parse(chars: Array[Char], offset: Int, length: Int): Long = {
+    val end      = offset + length
+    val negative = length > 0 && chars(offset) == '-'
+    var index    = if (negative) offset + 1 else offset
+    var units    = 0L
+    var digits   = 0
+    var decimals = -1
+
+    while (index < end) {
+      val c = chars(index)
+      if (c == '.' && decimals < 0) {
+        decimals = 0
+      } else if (c >= '0' && c <= '9') {
+        if (decimals < DECIMALS) {
+          if (units > MAX_UNITS) {
+            throw new NumberFormatException("decimal out of range -> " + new String(chars, offset, length))
+          }
+          units = (units * 10) + (c - '0')
+          if (decimals >= 0) { decimals += 1 }
+        } else if (c != '0') {
+          throw new NumberFormatException("decimal has more than " + DECIMALS + " places -> " + new String(chars, offset, length))
+        }
+        digits += 1
+      } else {
+        throw new NumberFormatException("invalid decimal -> " + new String(chars, offset, length))
+      }
+      index += 1
+    }
+
+    if (digits == 0) {
+      throw new NumberFormatException("invalid decimal -> " + new String(chars, offset, length))
+    }
+
+    var places = Math.max(decimals, 0)
+    while (places < DECIMALS) {
+      if (units > MAX_UNITS) {
+        throw new NumberFormatException("decimal out of range -> " + new String(chars, offset, length))
+      }
+      units   = units * 10
+      places += 1
+    }
+
+    if (negative) -units else units
+  }
+
+}
@@ -2,96 +2,207 @@ package org.anhonesteffort.trading.book
 
 import org.anhonesteffort.trading.book.Orders.{MarketOrder, Order}
 
-import scala.collection.mutable
-
-class Limit(price: Double) {
+/*
+orders are the nodes of an intrusive fifo and know the limit they rest in,
+the id index may be shared book wide so one probe finds an order and its
+level, unlinking on cancel, reduce or take never scans the level. limits
+are in turn linked best to worst by their queue.
+ */
+class Limit(price: Long, index: OrderIdMap[Order]) {
+
+  private[book] var queue  : LimitQueue = _
+  private[book] var spare  : Limit      = _
+  private[book] var better : Limit      = _
+  private[book] var worse  : Limit      = _
+
+  private var priceUnits : Long  = price
+  private var head       : Order = _
+  private var tail       : Order = _
+  private var volume     : Long  = 0L
+  private var orders     : Int   = 0
+
+  def this(price: Long) = {
+    this(price, new OrderIdMap[Order]())
+  }
 
-  private val map   : mutable.Map[String, Order] = new mutable.HashMap[String, Order]()
-  private val queue : mutable.Queue[Order]       = new mutable.Queue[Order]()
+  def this(price: Double) = {
+    this(FixedPoint.fromDouble(price))
+  }
 
-  private var volume : Double = 0d
+  def getPrice       : Double = FixedPoint.toDouble(priceUnits)
+  def getVolume      : Double = FixedPoint.toDouble(volume)
+  def getPriceUnits  : Long   = priceUnits
+  def getVolumeUnits : Long   = volume
+  def getOrderCount  : Int    = orders
+
+  private[book] def reset(price: Long): Unit = {
+    priceUnits = price
+    spare      = null
+    better     = null
+    worse      = null
+    head       = null
+    tail       = null
+    volume     = 0L
+    orders     = 0
+  }
 
-  def getPrice  : Double = price
-  def getVolume : Double = volume
+  def isEmpty: Boolean = head == null
 
   def peek: Option[Order] = {
-    queue.headOption
+    Option(head)
+  }
+
+  private def resting(orderIdHi: Long, orderIdLo: Long): Order = {
+    val order = index.get(orderIdHi, orderIdLo)
+    if (order != null && (order.limit eq this)) order else null
+  }
+
+  def get(orderIdHi: Long, orderIdLo: Long): Option[Order] = {
+    Option(resting(orderIdHi, orderIdLo))
+  }
+
+  def foreach(f: Order => Unit): Unit = {
+    var order = head
+    while (order != null) {
+      val next = order.next
+      f(order)
+      order = next
+    }
+  }
+
+  private def link(order: Order): Unit = {
+    order.limit = this
+    order.prev  = tail
+    order.next  = null
+    if (tail == null) head = order else tail.next = order
+    tail    = order
+    orders += 1
+  }
+
+  private def unlink(order: Order): Unit = {
+    if (order.prev == null) head = order.next else order.prev.next = order.next
+    if (order.next == null) tail = order.prev else order.next.prev = order.prev
+    order.limit = null
+    order.prev  = null
+    order.next  = null
+    orders     -= 1
+  }
+
+  // an order whose id was taken over by an order resting in another limit
+  private def displace(order: Order): Unit = {
+    unlink(order)
+    volume -= order.getSizeRemainingUnits
+    if (isEmpty && queue != null) {
+      queue.removeLimit(this)
+    }
   }
 
   def add(order: Order): Unit = {
-    map.put(order.getOrderId, order)
-    queue.enqueue(order)
-    volume += order.getSizeRemaining
+    index.put(order.getOrderIdHi, order.getOrderIdLo, order) match {
+      case null     => ()
+      case previous => previous.limit match {
+        case null                  => ()
+        case limit if limit eq this =>
+          unlink(previous)
+          volume -= previous.getSizeRemainingUnits
+        case limit                 => limit.displace(previous)
+      }
+    }
+    link(order)
+    volume += order.getSizeRemainingUnits
   }
 
-  def remove(orderId: String): Option[Order] = {
-    map.remove(orderId) match {
-      case None        => None
-      case Some(order) =>
-        queue.dequeueAll(_.equals(order))
-        volume -= order.getSizeRemaining
+  private[book] def remove(order: Order): Unit = {
+    index.remove(order.getOrderIdHi, order.getOrderIdLo)
+    unlink(order)
+    volume -= order.getSizeRemainingUnits
+  }
+
+  def remove(orderIdHi: Long, orderIdLo: Long): Option[Order] = {
+    resting(orderIdHi, orderIdLo) match {
+      case null  => None
+      case order =>
+        remove(order)
         Some(order)
     }
   }
 
-  def reduce(orderId: String, size: Double): Option[Order] = {
-    map.get(orderId) match {
-      case None        => None
-      case Some(order) =>
-        order.subtract(size, price)
-        volume -= size
-        if (order.getSizeRemaining <= 0d) {
-          map.remove(orderId)
-          queue.dequeueAll(_.equals(order))
-        }
+  def remove(orderId: String): Option[Order] = {
+    remove(OrderIds.hi(orderId), OrderIds.lo(orderId))
+  }
+
+  // the level never loses more than the order had left, whatever the order is told
+  private[book] def reduce(order: Order, size: Long): Unit = {
+    volume -= Math.min(size, order.getSizeRemainingUnits)
+    order.subtractUnits(size, priceUnits)
+    if (order.getSizeRemainingUnits <= 0L) {
+      index.remove(order.getOrderIdHi, order.getOrderIdLo)
+      unlink(order)
+    }
+  }
+
+  def reduce(orderIdHi: Long, orderIdLo: Long, size: Long): Option[Order] = {
+    resting(orderIdHi, orderIdLo) match {
+      case null  => None
+      case order =>
+        reduce(order, size)
         Some(order)
     }
   }
 
-  private def getTakeSize(taker: Order): Double = {
+  private def getTakeSize(taker: Order): Long = {
     taker match {
-      case market : MarketOrder => market.getSizeRemainingFor(price)
-      case limit  : Order       => limit.getSizeRemaining
+      case market : MarketOrder => market.getSizeRemainingUnitsFor(priceUnits)
+      case limit  : Order       => limit.getSizeRemainingUnits
     }
   }
 
-  private def takeLiquidityFromNextMaker(taker: Order, takeSize: Double): Option[Order] = {
-    queue.headOption match {
-      case None        => None
-      case Some(maker) =>
-        val volumeRemoved = maker.takeSize(takeSize)
+  def takeLiquidity(taker: Order, take: Take): Unit = {
+    var takeSize = getTakeSize(taker)
 
-        if (maker.getSizeRemaining <= 0d) {
-          map.remove(maker.getOrderId)
-          queue.dequeue()
-        }
+    while (takeSize > 0L && head != null) {
+      val maker         = head
+      val volumeRemoved = maker.takeSizeUnits(takeSize)
 
-        volume -= volumeRemoved
-        taker.subtract(volumeRemoved, price)
-        Some(maker)
+      if (maker.getSizeRemainingUnits <= 0L) {
+        index.remove(maker.getOrderIdHi, maker.getOrderIdLo)
+        unlink(maker)
+      }
+
+      volume -= volumeRemoved
+      taker.subtractUnits(volumeRemoved, priceUnits)
+      take.onMaker(maker, volumeRemoved, priceUnits)
+      takeSize = getTakeSize(taker)
     }
   }
 
   def takeLiquidity(taker: Order): Seq[Order] = {
-    val makers   : mutable.Buffer[Order] = new mutable.ArrayBuffer[Order]()
-    var takeSize : Double                = getTakeSize(taker)
-
-    while (takeSize > 0d) {
-      takeLiquidityFromNextMaker(taker, takeSize) match {
-        case None        => takeSize = -1d;
-        case Some(maker) =>
-          makers  += maker
-          takeSize = getTakeSize(taker)
-      }
-    }
-
-    makers
+    val take = new Take()
+    takeLiquidity(taker, take)
+    take.getMakers
   }
 
   def clear(): Unit = {
-    queue.clear()
-    map.clear()
-    volume = 0d
+    clear(null)
+  }
+
+  // hands every order back to the pool once it is off the limit, unless there is no pool
+  private[book] def clear(pool: OrderPool): Unit = {
+    var order = head
+    while (order != null) {
+      val next = order.next
+      index.remove(order.getOrderIdHi, order.getOrderIdLo)
+      order.limit = null
+      order.prev  = null
+      order.next  = null
+      if (pool != null) { pool.release(order) }
+      order = next
+    }
+
+    head   = null
+    tail   = null
+    volume = 0L
+    orders = 0
   }
 
 }
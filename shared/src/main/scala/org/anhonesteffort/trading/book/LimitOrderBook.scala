@@ -2,12 +2,24 @@ package org.anhonesteffort.trading.book
 
 import org.anhonesteffort.trading.book.Orders.{MarketOrder, Order, Side}
 
-import scala.collection.mutable
-
-class LimitOrderBook {
+/*
+both sides share one id index of resting orders, every order knows its
+limit so cancel, reduce and fill by id need no price. the by id calls
+hand back the order or null like the index itself, so they never allocate.
+ */
+class LimitOrderBook(pool: OrderPool) {
+
+  private var index     = new OrderIdMap[Order]()
+  private var askLimits = new LimitQueue(Side.ASK, index)
+  private var bidLimits = new LimitQueue(Side.BID, index)
+
+  def this() = {
+    this(new OrderPool(0))
+  }
 
-  private val askLimits = new LimitQueue(Side.ASK)
-  private val bidLimits = new LimitQueue(Side.BID)
+  def getPool: OrderPool = {
+    pool
+  }
 
   def getAskLimits: LimitQueue = {
     askLimits
@@ -17,73 +29,138 @@ class LimitOrderBook {
     bidLimits
   }
 
-  private def processAsk(ask: Order): Seq[Order] = {
-    val makers = new mutable.ArrayBuffer[Order]()
-    var next   = bidLimits.takeLiquidityFromBestLimit(ask)
+  def isEmpty: Boolean = {
+    askLimits.peek.isEmpty && bidLimits.peek.isEmpty
+  }
 
-    while (next.nonEmpty) {
-      makers ++= next
-      next = bidLimits.takeLiquidityFromBestLimit(ask)
+  private def limitsAgainst(taker: Order): LimitQueue = {
+    taker.getSide match {
+      case Side.ASK => bidLimits
+      case Side.BID => askLimits
     }
+  }
 
-    ask match {
-      case _     : MarketOrder => makers
+  def add(taker: Order, take: Take): Unit = {
+    val makers = limitsAgainst(taker)
+
+    take.start()
+    while (makers.takeLiquidityFromBestLimit(taker, take)) { }
+
+    taker match {
+      case _     : MarketOrder => ()
       case limit : Order       =>
-        if (limit.getSizeRemaining > 0d) {
-          askLimits.add(ask)
+        if (limit.getSizeRemainingUnits > 0L) {
+          limitsFor(limit).add(limit)
         }
-        makers
     }
   }
 
-  private def processBid(bid: Order): Seq[Order] = {
-    val makers = new mutable.ArrayBuffer[Order]()
-    var next   = askLimits.takeLiquidityFromBestLimit(bid)
+  def add(taker: Order): TakeResult = {
+    val take = new Take()
+    add(taker, take)
+    TakeResult(taker, take.getMakers, take.getTakeSizeUnits)
+  }
 
-    while (next.nonEmpty) {
-      makers ++= next
-      next = askLimits.takeLiquidityFromBestLimit(bid)
+  private def crosses(order: Order): Boolean = {
+    order.getSide match {
+      case Side.ASK => bidLimits.best != null && bidLimits.best.getPriceUnits >= order.getPriceUnits
+      case Side.BID => askLimits.best != null && askLimits.best.getPriceUnits <= order.getPriceUnits
     }
+  }
 
-    bid match {
-      case _     : MarketOrder => makers
-      case limit : Order       =>
-        if (limit.getSizeRemaining > 0d) {
-          bidLimits.add(bid)
-        }
-        makers
+  // rests a limit order that must not take, false if it would have
+  def open(order: Order): Boolean = {
+    if (crosses(order)) {
+      false
+    } else {
+      limitsFor(order).add(order)
+      true
     }
   }
 
-  private def resultFor(taker: Order, makers: Seq[Order], priorSize: Double): TakeResult = {
-    taker match {
-      case market : MarketOrder => TakeResult(market, makers, market.getVolumeRemoved)
-      case limit  : Order       => TakeResult(limit, makers, priorSize - limit.getSizeRemaining)
+  def get(side: Side, price: Long, orderIdHi: Long, orderIdLo: Long): Option[Order] = {
+    side match {
+      case Side.ASK => askLimits.get(price, orderIdHi, orderIdLo)
+      case Side.BID => bidLimits.get(price, orderIdHi, orderIdLo)
     }
   }
 
-  def add(taker: Order): TakeResult = {
-    val priorSize = taker.getSizeRemaining
-    val makers    = taker.getSide match {
-      case Side.ASK => processAsk(taker)
-      case Side.BID => processBid(taker)
+  def getById(orderIdHi: Long, orderIdLo: Long): Order = {
+    index.get(orderIdHi, orderIdLo)
+  }
+
+  def foreach(f: Order => Unit): Unit = {
+    askLimits.foreach(f)
+    bidLimits.foreach(f)
+  }
+
+  def load(order: Order): Unit = {
+    order.getSide match {
+      case Side.ASK => askLimits.load(order)
+      case Side.BID => bidLimits.load(order)
     }
+  }
 
-    resultFor(taker, makers, priorSize)
+  def endLoad(): Unit = {
+    askLimits.endLoad()
+    bidLimits.endLoad()
   }
 
-  def remove(side: Side, price: Double, orderId: String): Option[Order] = {
+  def remove(side: Side, price: Long, orderIdHi: Long, orderIdLo: Long): Option[Order] = {
     side match {
-      case Side.ASK => askLimits.remove(price, orderId)
-      case Side.BID => bidLimits.remove(price, orderId)
+      case Side.ASK => askLimits.remove(price, orderIdHi, orderIdLo)
+      case Side.BID => bidLimits.remove(price, orderIdHi, orderIdLo)
     }
   }
 
-  def reduce(side: Side, price: Double, orderId: String, size: Double): Option[Order] = {
+  def remove(side: Side, price: Double, orderId: String): Option[Order] = {
+    remove(side, FixedPoint.fromDouble(price), OrderIds.hi(orderId), OrderIds.lo(orderId))
+  }
+
+  def reduce(side: Side, price: Long, orderIdHi: Long, orderIdLo: Long, size: Long): Option[Order] = {
     side match {
-      case Side.ASK => askLimits.reduce(price, orderId, size)
-      case Side.BID => bidLimits.reduce(price, orderId, size)
+      case Side.ASK => askLimits.reduce(price, orderIdHi, orderIdLo, size)
+      case Side.BID => bidLimits.reduce(price, orderIdHi, orderIdLo, size)
+    }
+  }
+
+  private def limitsFor(order: Order): LimitQueue = {
+    order.getSide match {
+      case Side.ASK => askLimits
+      case Side.BID => bidLimits
+    }
+  }
+
+  def removeById(orderIdHi: Long, orderIdLo: Long): Order = {
+    val order = index.get(orderIdHi, orderIdLo)
+    if (order != null) {
+      limitsFor(order).remove(order)
+    }
+    order
+  }
+
+  def removeById(orderId: String): Order = {
+    removeById(OrderIds.hi(orderId), OrderIds.lo(orderId))
+  }
+
+  def reduceById(orderIdHi: Long, orderIdLo: Long, size: Long): Order = {
+    val order = index.get(orderIdHi, orderIdLo)
+    if (order != null) {
+      limitsFor(order).reduce(order, size)
     }
+    order
+  }
+
+  def swap(other: LimitOrderBook): Unit = {
+    val ids  = index
+    val asks = askLimits
+    val bids = bidLimits
+    index     = other.index
+    askLimits = other.askLimits
+    bidLimits = other.bidLimits
+    other.index     = ids
+    other.askLimits = asks
+    other.bidLimits = bids
   }
 
   def clear(): Unit = {
@@ -91,4 +168,10 @@ class LimitOrderBook {
     bidLimits.clear()
   }
 
+  // clears the book and hands every order that was resting back to the pool
+  def release(): Unit = {
+    askLimits.clear(pool)
+    bidLimits.clear(pool)
+  }
+
 }
@@ -2,85 +2,479 @@ package org.anhonesteffort.trading.book
 
 import org.anhonesteffort.trading.book.Orders.{MarketOrder, Order, Side}
 
-import scala.collection.mutable
+object LimitQueue {
 
-class LimitQueue(side: Side) {
+  val DEFAULT_TICK_UNITS   : Long = FixedPoint.fromDouble(0.01d)
+  val DEFAULT_LADDER_TICKS : Int  = 4096
+  val INITIAL_SPARSE       : Int  = 16
 
-  private val map   : mutable.Map[Double, Limit] = new mutable.HashMap[Double, Limit]()
-  private val queue : LimitPriorityQueue         = new LimitPriorityQueue(side)
+}
+
+/*
+levels within the ladder window live in a tick indexed array with an
+occupancy bitmap, levels outside the window or off tick go to arrays kept
+sorted best first. the window is re-centered when a new best level lands
+outside of it or the best drifts out of its middle half. every level is also
+linked best to worst so the best level, top-n and depth never search at all.
+ */
+class LimitQueue(side: Side, tickUnits: Long, ladderTicks: Int, index: OrderIdMap[Order]) {
+
+  private val asks     : Boolean      = side == Side.ASK
+  private val ladder   : Array[Limit] = new Array[Limit](ladderTicks)
+  private val occupied : Array[Long]  = new Array[Long]((ladderTicks + 63) >>> 6)
+
+  private var sparsePrices : Array[Long]  = new Array[Long](LimitQueue.INITIAL_SPARSE)
+  private var sparseLimits : Array[Limit] = new Array[Limit](LimitQueue.INITIAL_SPARSE)
+  private var sparseCount  : Int          = 0
+
+  private var centered    : Boolean = false
+  private var baseTick    : Long    = 0L
+  private var ladderCount : Int     = 0
+  private var levels      : Int     = 0
+  private var first       : Limit   = _
+  private var last        : Limit   = _
+  private var lastLoaded  : Limit   = _
+  private var spare       : Limit   = _
+
+  def this(side: Side, index: OrderIdMap[Order]) = {
+    this(side, LimitQueue.DEFAULT_TICK_UNITS, LimitQueue.DEFAULT_LADDER_TICKS, index)
+  }
+
+  def this(side: Side, tickUnits: Long, ladderTicks: Int) = {
+    this(side, tickUnits, ladderTicks, new OrderIdMap[Order]())
+  }
+
+  def this(side: Side) = {
+    this(side, new OrderIdMap[Order]())
+  }
+
+  private def isBetter(price: Long, than: Long): Boolean = {
+    if (asks) price < than else price > than
+  }
+
+  private def indexOf(price: Long): Int = {
+    if (!centered || price % tickUnits != 0L) {
+      -1
+    } else {
+      val offset = (price / tickUnits) - baseTick
+      if (offset >= 0L && offset < ladderTicks) offset.toInt else -1
+    }
+  }
+
+  // the first sparse slot whose price is not better than price
+  private def sparseSlot(price: Long): Int = {
+    var low  = 0
+    var high = sparseCount
+    while (low < high) {
+      val mid = (low + high) >>> 1
+      if (isBetter(sparsePrices(mid), price)) low = mid + 1 else high = mid
+    }
+    low
+  }
+
+  private def sparseGet(price: Long): Limit = {
+    val slot = sparseSlot(price)
+    if (slot < sparseCount && sparsePrices(slot) == price) sparseLimits(slot) else null
+  }
+
+  private def sparsePut(limit: Limit): Unit = {
+    if (sparseCount == sparsePrices.length) {
+      sparsePrices = java.util.Arrays.copyOf(sparsePrices, sparseCount * 2)
+      sparseLimits = java.util.Arrays.copyOf(sparseLimits, sparseCount * 2)
+    }
+
+    val slot = sparseSlot(limit.getPriceUnits)
+    System.arraycopy(sparsePrices, slot, sparsePrices, slot + 1, sparseCount - slot)
+    System.arraycopy(sparseLimits, slot, sparseLimits, slot + 1, sparseCount - slot)
+    sparsePrices(slot) = limit.getPriceUnits
+    sparseLimits(slot) = limit
+    sparseCount       += 1
+  }
+
+  private def sparseRemove(price: Long): Unit = {
+    val slot = sparseSlot(price)
+    if (slot < sparseCount && sparsePrices(slot) == price) {
+      System.arraycopy(sparsePrices, slot + 1, sparsePrices, slot, sparseCount - slot - 1)
+      System.arraycopy(sparseLimits, slot + 1, sparseLimits, slot, sparseCount - slot - 1)
+      sparseCount              -= 1
+      sparseLimits(sparseCount) = null
+    }
+  }
+
+  private def limitAt(price: Long): Limit = {
+    val index = indexOf(price)
+    if (index >= 0) ladder(index) else sparseGet(price)
+  }
+
+  private[book] def best: Limit = first
 
   def peek: Option[Limit] = {
-    queue.peek()
+    Option(first)
+  }
+
+  def getLevels: Int = levels
+
+  private def resting(price: Long, orderIdHi: Long, orderIdLo: Long): Order = {
+    val order = index.get(orderIdHi, orderIdLo)
+    if (order != null && order.limit != null && (order.limit.queue eq this) && order.getPriceUnits == price) {
+      order
+    } else {
+      null
+    }
+  }
+
+  def get(price: Long, orderIdHi: Long, orderIdLo: Long): Option[Order] = {
+    Option(resting(price, orderIdHi, orderIdLo))
+  }
+
+  private def foreachLimit(f: Limit => Unit): Unit = {
+    var limit = first
+    while (limit != null) {
+      val worse = limit.worse
+      f(limit)
+      limit = worse
+    }
+  }
+
+  def foreach(f: Order => Unit): Unit = {
+    foreachLimit(_.foreach(f))
+  }
+
+  // visits at most count levels best first and returns how many were visited
+  def top(count: Int, f: Limit => Unit): Int = {
+    var limit   = first
+    var visited = 0
+    while (limit != null && visited < count) {
+      f(limit)
+      limit    = limit.worse
+      visited += 1
+    }
+    visited
+  }
+
+  private def worstWithin(distance: Long): Long = {
+    if (asks) first.getPriceUnits + distance else first.getPriceUnits - distance
+  }
+
+  // volume resting at prices no further than distance from the best price
+  def volumeWithin(distance: Long): Long = {
+    var volume = 0L
+    if (first != null) {
+      val bound = worstWithin(distance)
+      var limit = first
+      while (limit != null && !isBetter(bound, limit.getPriceUnits)) {
+        volume += limit.getVolumeUnits
+        limit   = limit.worse
+      }
+    }
+    volume
+  }
+
+  def volumeWithin(distance: Double): Double = {
+    FixedPoint.toDouble(volumeWithin(FixedPoint.fromDouble(distance)))
+  }
+
+  def ordersWithin(distance: Long): Int = {
+    var orders = 0
+    if (first != null) {
+      val bound = worstWithin(distance)
+      var limit = first
+      while (limit != null && !isBetter(bound, limit.getPriceUnits)) {
+        orders += limit.getOrderCount
+        limit   = limit.worse
+      }
+    }
+    orders
+  }
+
+  private def center(price: Long): Unit = {
+    baseTick = (price / tickUnits) - (ladderTicks / 2)
+    centered = true
+  }
+
+  private def place(limit: Limit): Unit = {
+    val index = indexOf(limit.getPriceUnits)
+    if (index >= 0) {
+      ladder(index)          = limit
+      occupied(index >>> 6) |= 1L << index
+      ladderCount           += 1
+    } else {
+      sparsePut(limit)
+    }
+  }
+
+  // only occupied ladder slots are visited
+  private def reset(): Unit = {
+    var word = 0
+    while (word < occupied.length) {
+      var bits = occupied(word)
+      while (bits != 0L) {
+        ladder((word << 6) + java.lang.Long.numberOfTrailingZeros(bits)) = null
+        bits &= bits - 1L
+      }
+      occupied(word) = 0L
+      word += 1
+    }
+
+    java.util.Arrays.fill(sparseLimits.asInstanceOf[Array[AnyRef]], 0, sparseCount, null)
+    sparseCount = 0
+    ladderCount = 0
+  }
+
+  private def recenter(price: Long): Unit = {
+    reset()
+    center(price)
+
+    var limit = first
+    while (limit != null) {
+      place(limit)
+      limit = limit.worse
+    }
+  }
+
+  private def occupiedAtOrBelow(index: Int): Int = {
+    var word = index >>> 6
+    var bits = occupied(word) & (-1L >>> (63 - (index & 63)))
+    while (bits == 0L && word > 0) {
+      word -= 1
+      bits  = occupied(word)
+    }
+    if (bits == 0L) -1 else (word << 6) + 63 - java.lang.Long.numberOfLeadingZeros(bits)
+  }
+
+  private def occupiedAtOrAbove(index: Int): Int = {
+    var word = index >>> 6
+    var bits = occupied(word) & (-1L << (index & 63))
+    while (bits == 0L && word < occupied.length - 1) {
+      word += 1
+      bits  = occupied(word)
+    }
+    if (bits == 0L) -1 else (word << 6) + java.lang.Long.numberOfTrailingZeros(bits)
+  }
+
+  // the closest occupied ladder level better than price, a word of the bitmap at a time
+  private def ladderBetter(price: Long): Limit = {
+    val from = if (asks) ((price - 1L) / tickUnits) - baseTick else (price / tickUnits) + 1L - baseTick
+
+    if (ladderCount == 0 || (asks && from < 0L) || (!asks && from >= ladderTicks)) {
+      null
+    } else {
+      val index = {
+        if (asks) occupiedAtOrBelow(Math.min(ladderTicks - 1L, from).toInt)
+        else      occupiedAtOrAbove(Math.max(0L, from).toInt)
+      }
+      if (index >= 0) ladder(index) else null
+    }
+  }
+
+  private def sparseBetter(price: Long): Limit = {
+    val slot = sparseSlot(price)
+    if (slot > 0) sparseLimits(slot - 1) else null
+  }
+
+  // the level a new level at price should follow, null if it becomes the best
+  private def betterThan(price: Long): Limit = {
+    if (first == null || isBetter(price, first.getPriceUnits)) {
+      null
+    } else if (isBetter(last.getPriceUnits, price)) {
+      last
+    } else {
+      val ladderLimit = ladderBetter(price)
+      val sparseLimit = sparseBetter(price)
+      if (ladderLimit == null) {
+        sparseLimit
+      } else if (sparseLimit == null || isBetter(sparseLimit.getPriceUnits, ladderLimit.getPriceUnits)) {
+        ladderLimit
+      } else {
+        sparseLimit
+      }
+    }
+  }
+
+  private def link(limit: Limit, better: Limit): Unit = {
+    limit.better = better
+    limit.worse  = if (better == null) first else better.worse
+    if (limit.better == null) first = limit else limit.better.worse = limit
+    if (limit.worse  == null) last  = limit else limit.worse.better  = limit
+    levels += 1
+  }
+
+  private def unlink(limit: Limit): Unit = {
+    if (limit.better == null) first = limit.worse  else limit.better.worse = limit.worse
+    if (limit.worse  == null) last  = limit.better else limit.worse.better = limit.better
+    limit.better = null
+    limit.worse  = null
+    levels      -= 1
+  }
+
+  private def insert(limit: Limit): Unit = {
+    val price = limit.getPriceUnits
+    if (!centered) {
+      center(price)
+    } else if (indexOf(price) < 0 && price % tickUnits == 0L && (ladderCount == 0 || isBetter(price, first.getPriceUnits))) {
+      recenter(price)
+    }
+    link(limit, betterThan(price))
+    place(limit)
+  }
+
+  // emptied limits are kept for reuse, nothing should hold a limit past a state callback
+  private def newLimit(price: Long): Limit = {
+    spare match {
+      case null  =>
+        val limit = new Limit(price, index)
+        limit.queue = this
+        limit
+      case limit =>
+        spare = limit.spare
+        limit.reset(price)
+        limit
+    }
+  }
+
+  private def recycle(limit: Limit): Unit = {
+    limit.spare = spare
+    spare       = limit
+  }
+
+  // a best left in the outer quarters of the window by removals has drifted away from where the ladder is
+  private def drifted(price: Long): Boolean = {
+    val index = indexOf(price)
+    price % tickUnits == 0L && (index < 0 || index < ladderTicks / 4 || index >= ladderTicks - (ladderTicks / 4))
+  }
+
+  private[book] def removeLimit(limit: Limit): Unit = {
+    val index   = indexOf(limit.getPriceUnits)
+    val wasBest = limit eq first
+    if (index >= 0) {
+      ladder(index)          = null
+      occupied(index >>> 6) &= ~(1L << index)
+      ladderCount           -= 1
+    } else {
+      sparseRemove(limit.getPriceUnits)
+    }
+
+    unlink(limit)
+
+    if (wasBest && first != null && drifted(first.getPriceUnits)) {
+      recenter(first.getPriceUnits)
+    }
+
+    if (lastLoaded eq limit) {
+      lastLoaded = null
+    }
+
+    recycle(limit)
   }
 
   def add(order: Order): Unit = {
-    map.get(order.getPrice) match {
-      case Some(limit) => limit.add(order)
-      case None        =>
-        val limit = new Limit(order.getPrice)
-        map.put(limit.getPrice, limit)
-        queue.enqueue(limit)
+    limitAt(order.getPriceUnits) match {
+      case null  =>
+        val limit = newLimit(order.getPriceUnits)
+        insert(limit)
+        limit.add(order)
+      case limit =>
         limit.add(order)
     }
   }
 
+  def load(order: Order): Unit = {
+    if (lastLoaded != null && lastLoaded.getPriceUnits == order.getPriceUnits) {
+      lastLoaded.add(order)
+    } else {
+      add(order)
+      lastLoaded = limitAt(order.getPriceUnits)
+    }
+  }
+
+  def endLoad(): Unit = {
+    lastLoaded = null
+  }
+
+  private[book] def remove(order: Order): Unit = {
+    val limit = order.limit
+    limit.remove(order)
+    if (limit.isEmpty) {
+      removeLimit(limit)
+    }
+  }
+
+  def remove(price: Long, orderIdHi: Long, orderIdLo: Long): Option[Order] = {
+    resting(price, orderIdHi, orderIdLo) match {
+      case null  => None
+      case order =>
+        remove(order)
+        Some(order)
+    }
+  }
+
   def remove(price: Double, orderId: String): Option[Order] = {
-    map.get(price) match {
-      case None        => None
-      case Some(limit) =>
-        val order = limit.remove(orderId)
-        if (order.isDefined && limit.peek.isEmpty) {
-          map.remove(price)
-          queue.dequeue(limit)
-        }
-        order
+    remove(FixedPoint.fromDouble(price), OrderIds.hi(orderId), OrderIds.lo(orderId))
+  }
+
+  private[book] def reduce(order: Order, size: Long): Unit = {
+    val limit = order.limit
+    limit.reduce(order, size)
+    if (limit.isEmpty) {
+      removeLimit(limit)
     }
   }
 
-  def reduce(price: Double, orderId: String, size: Double): Option[Order] = {
-    map.get(price) match {
-      case None        => None
-      case Some(limit) =>
-        val order = limit.reduce(orderId, size)
-        if (order.isDefined && limit.peek.isEmpty) {
-          map.remove(price)
-          queue.dequeue(limit)
-        }
-        order
+  def reduce(price: Long, orderIdHi: Long, orderIdLo: Long, size: Long): Option[Order] = {
+    resting(price, orderIdHi, orderIdLo) match {
+      case null  => None
+      case order =>
+        reduce(order, size)
+        Some(order)
     }
   }
 
   private def isTaken(maker: Limit, taker: Order): Boolean = {
     taker match {
-      case marketTaker : MarketOrder => marketTaker.getSizeRemainingFor(maker.getPrice) >= 0d
+      case marketTaker : MarketOrder => marketTaker.getSizeRemainingUnitsFor(maker.getPriceUnits) >= 0L
       case limitTaker  : Order       => limitTaker.getSide match {
-        case Side.ASK => limitTaker.getPrice <= maker.getPrice
-        case Side.BID => limitTaker.getPrice >= maker.getPrice
+        case Side.ASK => limitTaker.getPriceUnits <= maker.getPriceUnits
+        case Side.BID => limitTaker.getPriceUnits >= maker.getPriceUnits
       }
     }
   }
 
-  def takeLiquidityFromBestLimit(taker: Order): Seq[Order] = {
-    peek match {
-      case Some(maker) =>
-        if (isTaken(maker, taker)) {
-          val makers = maker.takeLiquidity(taker)
-          if (makers.nonEmpty && maker.peek.isEmpty) {
-            map.remove(maker.getPrice)
-            queue.dequeue()
-          }
-          makers
-        } else {
-          Seq()
-        }
-
-      case None => Seq()
+  // true if any maker at the best limit was taken from
+  def takeLiquidityFromBestLimit(taker: Order, take: Take): Boolean = {
+    val maker = best
+    if (maker == null || !isTaken(maker, taker)) {
+      false
+    } else {
+      val makers = take.getMakerCount
+      maker.takeLiquidity(taker, take)
+      if (maker.isEmpty) {
+        removeLimit(maker)
+      }
+      take.getMakerCount > makers
     }
   }
 
+  def takeLiquidityFromBestLimit(taker: Order): Seq[Order] = {
+    val take = new Take()
+    takeLiquidityFromBestLimit(taker, take)
+    take.getMakers
+  }
+
   def clear(): Unit = {
-    map.clear()
-    while (queue.peek().isDefined) { queue.dequeue().clear() }
+    clear(null)
+  }
+
+  private[book] def clear(pool: OrderPool): Unit = {
+    foreachLimit { limit =>
+      limit.clear(pool)
+      recycle(limit)
+    }
+    reset()
+    centered   = false
+    levels     = 0
+    first      = null
+    last       = null
+    lastLoaded = null
   }
 
 }
@@ -0,0 +1,132 @@
+package org.anhonesteffort.trading.book
+
+class OrderIdMap[V >: Null <: AnyRef](initialCapacity: Int) {
+
+  private var his    : Array[Long]   = _
+  private var los    : Array[Long]   = _
+  private var values : Array[AnyRef] = _
+  private var mask   : Int           = 0
+  private var count  : Int           = 0
+
+  allocate(Integer.highestOneBit(Math.max(initialCapacity, 8) - 1) << 2)
+
+  def this() = {
+    this(16)
+  }
+
+  private def allocate(capacity: Int): Unit = {
+    his    = new Array[Long](capacity)
+    los    = new Array[Long](capacity)
+    values = new Array[AnyRef](capacity)
+    mask   = capacity - 1
+  }
+
+  private def slotFor(hi: Long, lo: Long): Int = {
+    val mixed = (hi * 0x9e3779b97f4a7c15L) ^ lo
+    (((mixed ^ (mixed >>> 32)) * 0x9e3779b97f4a7c15L) >>> 32).toInt & mask
+  }
+
+  private def indexOf(hi: Long, lo: Long): Int = {
+    var slot = slotFor(hi, lo)
+    while (values(slot) != null) {
+      if (his(slot) == hi && los(slot) == lo) {
+        return slot
+      }
+      slot = (slot + 1) & mask
+    }
+    -1
+  }
+
+  def size: Int = count
+
+  def isEmpty: Boolean = count == 0
+
+  def contains(hi: Long, lo: Long): Boolean = {
+    indexOf(hi, lo) >= 0
+  }
+
+  def get(hi: Long, lo: Long): V = {
+    val slot = indexOf(hi, lo)
+    if (slot < 0) null else values(slot).asInstanceOf[V]
+  }
+
+  def put(hi: Long, lo: Long, value: V): V = {
+    if ((count + 1) * 2 > values.length) {
+      resize()
+    }
+
+    var slot = slotFor(hi, lo)
+    while (values(slot) != null) {
+      if (his(slot) == hi && los(slot) == lo) {
+        val previous = values(slot).asInstanceOf[V]
+        values(slot) = value
+        return previous
+      }
+      slot = (slot + 1) & mask
+    }
+
+    his(slot)    = hi
+    los(slot)    = lo
+    values(slot) = value
+    count       += 1
+    null
+  }
+
+  def remove(hi: Long, lo: Long): V = {
+    var slot = indexOf(hi, lo)
+    if (slot < 0) {
+      return null
+    }
+
+    val removed = values(slot).asInstanceOf[V]
+    var next    = (slot + 1) & mask
+
+    while (values(next) != null) {
+      val home = slotFor(his(next), los(next))
+      if (((next - home) & mask) >= ((next - slot) & mask)) {
+        his(slot)    = his(next)
+        los(slot)    = los(next)
+        values(slot) = values(next)
+        slot         = next
+      }
+      next = (next + 1) & mask
+    }
+
+    values(slot) = null
+    count       -= 1
+    removed
+  }
+
+  private def resize(): Unit = {
+    val oldHis    = his
+    val oldLos    = los
+    val oldValues = values
+
+    allocate(oldValues.length * 2)
+    count = 0
+
+    var i = 0
+    while (i < oldValues.length) {
+      if (oldValues(i) != null) {
+        put(oldHis(i), oldLos(i), oldValues(i).asInstanceOf[V])
+      }
+      i += 1
+    }
+  }
+
+  def foreach(f: V => Unit): Unit = {
+    var i = 0
+    while (i < values.length) {
+      if (values(i) != null) {
+        f(values(i).asInstanceOf[V])
+      }
+      i += 1
+    }
+  }
+
+  def clear(): Unit = {
+    java.util.Arrays.fill(values, null)
+    count = 0
+  }
+
+}
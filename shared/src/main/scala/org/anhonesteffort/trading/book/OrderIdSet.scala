@@ -0,0 +1,25 @@
+package org.anhonesteffort.trading.book
+
+class OrderIdSet {
+
+  private val map = new OrderIdMap[java.lang.Boolean]()
+
+  def size: Int = map.size
+
+  def contains(hi: Long, lo: Long): Boolean = {
+    map.contains(hi, lo)
+  }
+
+  def add(hi: Long, lo: Long): Boolean = {
+    map.put(hi, lo, java.lang.Boolean.TRUE) == null
+  }
+
+  def remove(hi: Long, lo: Long): Boolean = {
+    map.remove(hi, lo) != null
+  }
+
+  def clear(): Unit = {
+    map.clear()
+  }
+
+}
@@ -0,0 +1,166 @@
+package org.anhonesteffort.trading.book
+
+object OrderIds {
+
+  val NONE_HI : Long = 0L
+  val NONE_LO : Long = 0L
+
+  val UUID_LENGTH : Int = 36
+
+  private val HEX_CHARS   = "0123456789abcdef".toCharArray
+  private val TAG_MASK    = 3L << 62
+  private val TAG_PACKED  = 3L << 62
+  private val TAG_HASHED  = 1L << 62
+  private val PACK_LENGTH = 15
+
+  def isNone(hi: Long, lo: Long): Boolean = {
+    hi == NONE_HI && lo == NONE_LO
+  }
+
+  def hexValue(c: Char): Int = {
+    if (c >= '0' && c <= '9') {
+      c - '0'
+    } else if (c >= 'a' && c <= 'f') {
+      c - 'a' + 10
+    } else if (c >= 'A' && c <= 'F') {
+      c - 'A' + 10
+    } else {
+      -1
+    }
+  }
+
+  def isDash(index: Int): Boolean = {
+    index == 8 || index == 13 || index == 18 || index == 23
+  }
+
+  def isUuid(chars: Array[Char], offset: Int, length: Int): Boolean = {
+    if (length != UUID_LENGTH) {
+      return false
+    }
+
+    var i = 0
+    while (i < UUID_LENGTH) {
+      val c = chars(offset + i)
+      if (isDash(i)) {
+        if (c != '-') { return false }
+      } else if (hexValue(c) < 0) {
+        return false
+      }
+      i += 1
+    }
+
+    true
+  }
+
+  private def hexLong(chars: Array[Char], offset: Int, length: Int): Long = {
+    var value = 0L
+    var i     = 0
+    while (i < length) {
+      value = (value << 4) | hexValue(chars(offset + i))
+      i += 1
+    }
+    value
+  }
+
+  def uuidHi(chars: Array[Char], offset: Int): Long = {
+    (hexLong(chars, offset, 8) << 32) | (hexLong(chars, offset + 9, 4) << 16) | hexLong(chars, offset + 14, 4)
+  }
+
+  def uuidLo(chars: Array[Char], offset: Int): Long = {
+    (hexLong(chars, offset + 19, 4) << 48) | hexLong(chars, offset + 24, 12)
+  }
+
+  private def isPackable(text: String): Boolean = {
+    text.length <= PACK_LENGTH && text.forall(_ < 128)
+  }
+
+  private def packedHi(text: String): Long = {
+    var hi = 0L
+    var i  = 0
+    while (i < Math.min(text.length, 9)) {
+      hi |= text.charAt(i).toLong << (7 * i)
+      i  += 1
+    }
+    hi
+  }
+
+  private def packedLo(text: String): Long = {
+    var lo = TAG_PACKED | (text.length.toLong << 42)
+    var i  = 9
+    while (i < text.length) {
+      lo |= text.charAt(i).toLong << (7 * (i - 9))
+      i  += 1
+    }
+    lo
+  }
+
+  private def unpack(hi: Long, lo: Long): String = {
+    val length = ((lo >>> 42) & 0xF).toInt
+    val chars  = new Array[Char](length)
+    var i      = 0
+    while (i < length) {
+      chars(i) = if (i < 9) ((hi >>> (7 * i)) & 0x7F).toChar else ((lo >>> (7 * (i - 9))) & 0x7F).toChar
+      i += 1
+    }
+    new String(chars)
+  }
+
+  private def hash(text: String, seed: Long): Long = {
+    var hash = seed
+    var i    = 0
+    while (i < text.length) {
+      hash = (hash ^ text.charAt(i)) * 0x100000001b3L
+      i   += 1
+    }
+    hash
+  }
+
+  def hi(text: String): Long = {
+    val chars = text.toCharArray
+    if (isUuid(chars, 0, chars.length)) {
+      uuidHi(chars, 0)
+    } else if (isPackable(text)) {
+      packedHi(text)
+    } else {
+      hash(text, 0xcbf29ce484222325L)
+    }
+  }
+
+  def lo(text: String): Long = {
+    val chars = text.toCharArray
+    if (isUuid(chars, 0, chars.length)) {
+      uuidLo(chars, 0)
+    } else if (isPackable(text)) {
+      packedLo(text)
+    } else {
+      (hash(text, 0x84222325cbf29ce4L) & ~TAG_MASK) | TAG_HASHED
+    }
+  }
+
+  private def appendHex(chars: Array[Char], offset: Int, value: Long, digits: Int): Unit = {
+    var i = 0
+    while (i < digits) {
+      chars(offset + i) = HEX_CHARS(((value >>> (4 * (digits - 1 - i))) & 0xF).toInt)
+      i += 1
+    }
+  }
+
+  // hashed ids can't be reversed, only the Order created from their text remembers it
+  def toText(hi: Long, lo: Long): String = {
+    if (isNone(hi, lo)) {
+      ""
+    } else if ((lo & TAG_MASK) == TAG_PACKED) {
+      unpack(hi, lo)
+    } else {
+      val chars = new Array[Char](UUID_LENGTH)
+      appendHex(chars,  0, hi >>> 32, 8)
+      appendHex(chars,  9, hi >>> 16, 4)
+      appendHex(chars, 14, hi,        4)
+      appendHex(chars, 19, lo >>> 48, 4)
+      appendHex(chars, 24, lo,       12)
+      chars(8) = '-'; chars(13) = '-'; chars(18) = '-'; chars(23) = '-'
+      new String(chars)
+    }
+  }
+
+}
@@ -0,0 +1,52 @@
+package org.anhonesteffort.trading.book
+
+import org.anhonesteffort.trading.book.Orders.{MarketOrder, Order, Side}
+
+/*
+an order acquired from the pool belongs to whoever holds it, the book owns
+it while it rests and hands it back on remove, reduce or take. the book
+never releases on its own, the holder releases once nothing refers to it.
+ */
+class OrderPool(capacity: Int) {
+
+  private var free     : Order = _
+  private var count    : Int   = 0
+  private var acquired : Long  = 0L
+  private var recycled : Long  = 0L
+
+  def getCapacity : Int  = capacity
+  def getFree     : Int  = count
+  def getAcquired : Long = acquired
+  def getRecycled : Long = recycled
+
+  def acquire(orderIdHi: Long, orderIdLo: Long, side: Side, price: Long, size: Long): Order = {
+    acquired += 1
+    free match {
+      case null  => new Order(orderIdHi, orderIdLo, side, price, size)
+      case order =>
+        free       = order.next
+        order.next = null
+        count     -= 1
+        recycled  += 1
+        order.reset(orderIdHi, orderIdLo, side, price, size)
+        order
+    }
+  }
+
+  def release(order: Order): Unit = {
+    if (order.limit != null) {
+      throw new IllegalStateException("order " + order.getOrderId + " is still resting on the book")
+    } else if (count < capacity && !order.isInstanceOf[MarketOrder] && !order.pooled) {
+      order.pooled = true
+      order.next   = free
+      free         = order
+      count       += 1
+    }
+  }
+
+  def clear(): Unit = {
+    free  = null
+    count = 0
+  }
+
+}
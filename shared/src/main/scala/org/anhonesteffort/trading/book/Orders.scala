@@ -11,34 +11,97 @@ object Orders {
   val SIDE_ASK = Side.ASK
   val SIDE_BID = Side.BID
 
-  class Order(orderId: String, side: Side, price: Double, size: Double) {
-    protected var sizeRemaining : Double = size
+  class Order(orderIdHi: Long, orderIdLo: Long, orderIdText: String, side: Side, price: Long, size: Long) {
+    private   var idHi          : Long   = orderIdHi
+    private   var idLo          : Long   = orderIdLo
+    private   var orderId       : String = orderIdText
+    private   var orderSide     : Side   = side
+    private   var priceUnits    : Long   = price
+    private   var sizeUnits     : Long   = size
+    protected var sizeRemaining : Long   = size
     protected var valueRemoved  : Double = 0d
 
-    def isAsk: Boolean = side == Side.ASK
-    def isBid: Boolean = side == Side.BID
+    private[book] var limit  : Limit   = _
+    private[book] var prev   : Order   = _
+    private[book] var next   : Order   = _
+    private[book] var pooled : Boolean = false
 
-    def getOrderId       : String = orderId
-    def getSide          : Side   = side
-    def getPrice         : Double = price
-    def getSize          : Double = size
-    def getSizeRemaining : Double = sizeRemaining
+    def this(orderIdHi: Long, orderIdLo: Long, side: Side, price: Long, size: Long) = {
+      this(orderIdHi, orderIdLo, null, side, price, size)
+    }
+
+    def this(orderId: String, side: Side, price: Long, size: Long) = {
+      this(OrderIds.hi(orderId), OrderIds.lo(orderId), orderId, side, price, size)
+    }
+
+    def this(orderId: String, side: Side, price: Double, size: Double) = {
+      this(orderId, side, FixedPoint.fromDouble(price), FixedPoint.fromDouble(size))
+    }
+
+    private[book] def reset(orderIdHi: Long, orderIdLo: Long, side: Side, price: Long, size: Long): Unit = {
+      idHi          = orderIdHi
+      idLo          = orderIdLo
+      orderId       = null
+      orderSide     = side
+      priceUnits    = price
+      sizeUnits     = size
+      sizeRemaining = size
+      valueRemoved  = 0d
+      pooled        = false
+    }
+
+    def isAsk: Boolean = orderSide == Side.ASK
+    def isBid: Boolean = orderSide == Side.BID
+
+    def getOrderId: String = {
+      if (orderId == null) {
+        orderId = OrderIds.toText(idHi, idLo)
+      }
+      orderId
+    }
+
+    def getOrderIdHi     : Long   = idHi
+    def getOrderIdLo     : Long   = idLo
+    def getSide          : Side   = orderSide
+    def getPrice         : Double = FixedPoint.toDouble(priceUnits)
+    def getSize          : Double = FixedPoint.toDouble(sizeUnits)
+    def getSizeRemaining : Double = FixedPoint.toDouble(sizeRemaining)
     def getValueRemoved  : Double = valueRemoved
 
+    def getPriceUnits         : Long = priceUnits
+    def getSizeUnits          : Long = sizeUnits
+    def getSizeRemainingUnits : Long = sizeRemaining
+
+    // orders from a pool are recycled once released, anything kept past a state callback should be a copy
+    def copy(): Order = {
+      val copy = new Order(idHi, idLo, orderId, orderSide, priceUnits, sizeUnits)
+      copy.sizeRemaining = sizeRemaining
+      copy.valueRemoved  = valueRemoved
+      copy
+    }
+
     def clearValueRemoved() : Unit = {
       valueRemoved = 0d
     }
 
-    def subtract(size: Double, price: Double): Unit = {
+    def subtractUnits(size: Long, price: Long): Unit = {
       sizeRemaining -= size
     }
 
-    def takeSize(size: Double): Double = {
+    def subtract(size: Double, price: Double): Unit = {
+      subtractUnits(FixedPoint.fromDouble(size), FixedPoint.fromDouble(price))
+    }
+
+    def takeSizeUnits(size: Long): Long = {
       val taken = Math.min(size, sizeRemaining)
       sizeRemaining -= taken
-      valueRemoved  += price * taken
+      valueRemoved  += FixedPoint.toDouble(priceUnits) * FixedPoint.toDouble(taken)
       taken
     }
+
+    def takeSize(size: Double): Double = {
+      FixedPoint.toDouble(takeSizeUnits(FixedPoint.fromDouble(size)))
+    }
   }
 
   def limitAsk(orderId: String, price: Double, size: Double): Order = {
@@ -49,22 +112,25 @@ object Orders {
     new Order(orderId, Side.BID, price, size)
   }
 
-  class MarketOrder(orderId: String, side: Side, size: Double, funds: Double) extends Order(orderId, side, 0d, size) {
+  class MarketOrder(orderId: String, side: Side, size: Double, funds: Double)
+    extends Order(orderId, side, 0L, FixedPoint.fromDouble(size)) {
+
     private var fundsRemaining : Double = funds
-    private var volumeRemoved  : Double = 0d
+    private var volumeRemoved  : Long   = 0L
 
-    def getFunds          : Double = funds
-    def getFundsRemaining : Double = fundsRemaining
-    def getVolumeRemoved  : Double = volumeRemoved
+    def getFunds              : Double = funds
+    def getFundsRemaining     : Double = fundsRemaining
+    def getVolumeRemoved      : Double = FixedPoint.toDouble(volumeRemoved)
+    def getVolumeRemovedUnits : Long   = volumeRemoved
 
-    override def subtract(size: Double, price: Double): Unit = {
-      super.subtract(size, price)
-      fundsRemaining -= (price * size)
+    override def subtractUnits(size: Long, price: Long): Unit = {
+      super.subtractUnits(size, price)
+      fundsRemaining -= (FixedPoint.toDouble(price) * FixedPoint.toDouble(size))
       volumeRemoved  += size
     }
 
-    def getSizeRemainingFor(price: Double): Double = {
-      val fundsTakeSize = fundsRemaining / price
+    def getSizeRemainingUnitsFor(price: Long): Long = {
+      val fundsTakeSize = FixedPoint.fromDouble(fundsRemaining / FixedPoint.toDouble(price))
 
       if (funds > 0d && size > 0d) {
         Math.min(fundsTakeSize, sizeRemaining)
@@ -73,9 +139,22 @@ object Orders {
       } else if (size > 0d) {
         sizeRemaining
       } else {
-        0d
+        0L
       }
     }
+
+    override def copy(): MarketOrder = {
+      val copy = new MarketOrder(getOrderId, getSide, size, funds)
+      copy.sizeRemaining  = sizeRemaining
+      copy.valueRemoved   = valueRemoved
+      copy.fundsRemaining = fundsRemaining
+      copy.volumeRemoved  = volumeRemoved
+      copy
+    }
+
+    def getSizeRemainingFor(price: Double): Double = {
+      FixedPoint.toDouble(getSizeRemainingUnitsFor(FixedPoint.fromDouble(price)))
+    }
   }
 
   def marketAsk(orderId: String, size: Double, funds: Double): MarketOrder = {
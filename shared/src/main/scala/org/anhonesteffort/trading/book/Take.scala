@@ -0,0 +1,41 @@
+package org.anhonesteffort.trading.book
+
+import org.anhonesteffort.trading.book.Orders.Order
+
+import scala.collection.mutable
+
+/*
+a reusable take, the book appends every maker it takes from to the sink
+and leaves the totals in primitive fields so nothing is allocated per take.
+the sink belongs to the caller and is never cleared by the book.
+ */
+class Take(makers: mutable.Buffer[Order]) {
+
+  private var makerCount    : Int    = 0
+  private var takeSizeUnits : Long   = 0L
+  private var takeValue     : Double = 0d
+
+  def this() = {
+    this(new mutable.ArrayBuffer[Order]())
+  }
+
+  def getMakers        : mutable.Buffer[Order] = makers
+  def getMakerCount    : Int                   = makerCount
+  def getTakeSize      : Double                = FixedPoint.toDouble(takeSizeUnits)
+  def getTakeSizeUnits : Long                  = takeSizeUnits
+  def getTakeValue     : Double                = takeValue
+
+  private[book] def start(): Unit = {
+    makerCount    = 0
+    takeSizeUnits = 0L
+    takeValue     = 0d
+  }
+
+  private[book] def onMaker(maker: Order, size: Long, price: Long): Unit = {
+    makers        += maker
+    makerCount    += 1
+    takeSizeUnits += size
+    takeValue     += FixedPoint.toDouble(price) * FixedPoint.toDouble(size)
+  }
+
+}
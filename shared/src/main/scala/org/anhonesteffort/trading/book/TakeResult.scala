@@ -2,8 +2,17 @@ package org.anhonesteffort.trading.book
 
 import org.anhonesteffort.trading.book.Orders.Order
 
-case class TakeResult(taker: Order, makers: Seq[Order], takeSize: Double) {
+object TakeResult {
 
+  def apply(taker: Order, makers: Seq[Order], takeSize: Double): TakeResult = {
+    TakeResult(taker, makers, FixedPoint.fromDouble(takeSize))
+  }
+
+}
+
+case class TakeResult(taker: Order, makers: Seq[Order], takeSizeUnits: Long) {
+
+  val takeSize  : Double = FixedPoint.toDouble(takeSizeUnits)
   val takeValue : Double = makers.map(_.getValueRemoved).sum
 
   def clearMakerValueRemoved(): Unit = {
@@ -1,6 +1,6 @@
 package org.anhonesteffort.trading.compute
 
-import org.anhonesteffort.trading.state.{GdaxState, StateListener, StateProcessingException}
+import org.anhonesteffort.trading.state.{BookDiff, GdaxState, StateBatch, StateListener, StateProcessingException}
 
 import scala.collection.mutable
 
@@ -39,6 +39,20 @@ abstract class Computation[T](initial: T) extends StateListener {
     result = computeNextResult(state, ns)
   }
 
+  override def onStateBatch(state: GdaxState, batch: StateBatch, ns: Long): Unit = {
+    children.foreach(_.onStateBatch(state, batch, ns))
+    syncing = batch.isSyncing
+
+    if (batch.getChanges > 0 && !syncing) {
+      result = computeNextResult(state, ns)
+    }
+  }
+
+  override def onStateResync(state: GdaxState, diff: BookDiff, ns: Long): Unit = {
+    children.foreach(_.onStateResync(state, diff, ns))
+    result = computeNextResult(state, ns)
+  }
+
   override def onStateSyncStart(ns: Long): Unit = {
     syncing = true
     children.foreach(_.onStateSyncStart(ns))
@@ -0,0 +1,19 @@
+package org.anhonesteffort.trading.compute
+
+import org.anhonesteffort.trading.book.FixedPoint
+import org.anhonesteffort.trading.book.Orders.Side
+import org.anhonesteffort.trading.state.GdaxState
+
+class DepthComputation(side: Side, distance: Double) extends Computation[Double](0d) {
+
+  private val distanceUnits : Long = FixedPoint.fromDouble(distance)
+
+  override def computeNextResult(state: GdaxState, ns: Long): Double = {
+    val limits = side match {
+      case Side.ASK => state.orderBook.getAskLimits
+      case Side.BID => state.orderBook.getBidLimits
+    }
+    FixedPoint.toDouble(limits.volumeWithin(distanceUnits))
+  }
+
+}
@@ -2,12 +2,22 @@ package org.anhonesteffort.trading.compute
 
 import org.anhonesteffort.trading.book.Orders.Side
 import org.anhonesteffort.trading.state.Events.Type
-import org.anhonesteffort.trading.state.GdaxState
+import org.anhonesteffort.trading.state.{GdaxState, StateBatch}
 
 class TakeVolumeComputation(side: Side) extends Computation[Double](0d) {
 
+  private var batchVolume : Option[Double] = None
+
+  override def onStateBatch(state: GdaxState, batch: StateBatch, ns: Long): Unit = {
+    batchVolume = Some(batch.events.filter(e => e.typee == Type.TAKE && e.side == side).map(_.size).sum)
+    super.onStateBatch(state, batch, ns)
+    batchVolume = None
+  }
+
   override def computeNextResult(state: GdaxState, ns: Long): Double = {
-    if (state.event.isEmpty) {
+    if (batchVolume.isDefined) {
+      batchVolume.get
+    } else if (state.event.isEmpty) {
       0d
     } else if (state.event.get.typee != Type.TAKE || state.event.get.side != side) {
       0d
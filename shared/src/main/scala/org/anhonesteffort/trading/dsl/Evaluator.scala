@@ -1,6 +1,6 @@
 package org.anhonesteffort.trading.dsl
 
-import org.anhonesteffort.trading.state.{GdaxState, StateListener}
+import org.anhonesteffort.trading.state.{BookDiff, GdaxState, StateBatch, StateListener}
 
 import scala.collection.mutable
 
@@ -119,6 +119,14 @@ case class Evaluator(ctx: Runtime.DslContext, exp: Ast.Expression) extends State
     COMPUTERS.values.foreach(_.listener.onStateSyncEnd(ns))
   }
 
+  override def onStateBatch(state: GdaxState, batch: StateBatch, ns: Long): Unit = {
+    COMPUTERS.values.foreach(_.listener.onStateBatch(state, batch, ns))
+  }
+
+  override def onStateResync(state: GdaxState, diff: BookDiff, ns: Long): Unit = {
+    COMPUTERS.values.foreach(_.listener.onStateResync(state, diff, ns))
+  }
+
   def destroy(): Unit = {
     COMPUTERS.clear()
   }
@@ -1,7 +1,7 @@
 package org.anhonesteffort.trading.dsl
 
 import org.anhonesteffort.trading.dsl.Ast.{Expression, Statement}
-import org.anhonesteffort.trading.state.{GdaxState, StateListener}
+import org.anhonesteffort.trading.state.{BookDiff, GdaxState, StateBatch, StateListener}
 
 import scala.collection.mutable
 
@@ -13,6 +13,8 @@ object Runtime {
   class DslContext extends StateListener {
     private val VARIABLES = mutable.HashMap[String, Evaluator]()
 
+    override def isConflated: Boolean = true
+
     def readVar(name: String): EvalOption = {
       VARIABLES.get(name) match {
         case Some(eval) => eval.eval()
@@ -79,6 +81,14 @@ object Runtime {
     override def onStateSyncEnd(ns: Long): Unit = {
       VARIABLES.values.foreach(_.onStateSyncEnd(ns))
     }
+
+    override def onStateBatch(state: GdaxState, batch: StateBatch, ns: Long): Unit = {
+      VARIABLES.values.foreach(_.onStateBatch(state, batch, ns))
+    }
+
+    override def onStateResync(state: GdaxState, diff: BookDiff, ns: Long): Unit = {
+      VARIABLES.values.foreach(_.onStateResync(state, diff, ns))
+    }
   }
 
 }
@@ -0,0 +1,102 @@
+package org.anhonesteffort.trading.state
+
+import org.anhonesteffort.trading.book.{FixedPoint, LimitOrderBook, OrderIdSet, OrderPool}
+import org.anhonesteffort.trading.book.Orders.Order
+import org.anhonesteffort.trading.state.Events.OrderEvent
+
+import scala.collection.mutable
+
+class BookDiff {
+
+  private val seen    : OrderIdSet = new OrderIdSet()
+  private var applied : Int        = 0
+
+  val opened   : mutable.ArrayBuffer[Order]         = new mutable.ArrayBuffer[Order]()
+  val reduced  : mutable.ArrayBuffer[(Order, Long)] = new mutable.ArrayBuffer[(Order, Long)]()
+  val canceled : mutable.ArrayBuffer[Order]         = new mutable.ArrayBuffer[Order]()
+
+  def size: Int = opened.size + reduced.size + canceled.size
+
+  def isEmpty: Boolean = size == 0
+
+  // true if the snapshot order is kept to be opened, otherwise the diff never refers to it
+  def compare(book: LimitOrderBook, order: Order): Boolean = {
+    book.get(order.getSide, order.getPriceUnits, order.getOrderIdHi, order.getOrderIdLo) match {
+      case None       =>
+        opened += order
+        true
+      case Some(live) =>
+        seen.add(live.getOrderIdHi, live.getOrderIdLo)
+        if (live.getSizeRemainingUnits > order.getSizeRemainingUnits) {
+          reduced += ((live, live.getSizeRemainingUnits - order.getSizeRemainingUnits))
+          false
+        } else if (live.getSizeRemainingUnits < order.getSizeRemainingUnits) {
+          canceled += live
+          opened   += order
+          true
+        } else {
+          false
+        }
+    }
+  }
+
+  def sweep(book: LimitOrderBook): Unit = {
+    book.foreach(live =>
+      if (!seen.contains(live.getOrderIdHi, live.getOrderIdLo)) { canceled += live }
+    )
+  }
+
+  def events(timeNs: Long): Seq[OrderEvent] = {
+    canceled.map(order => Events.cancel(order, timeNs)) ++
+      reduced.map(reduce => Events.reduce(reduce._1, FixedPoint.toDouble(reduce._2), timeNs)) ++
+      opened.map(order => Events.open(order, timeNs))
+  }
+
+  def applyNext(book: LimitOrderBook, timeNs: Long): Option[OrderEvent] = {
+    val index = applied
+
+    if (index < canceled.size) {
+      val order = canceled(index)
+      applied += 1
+      book.remove(order.getSide, order.getPriceUnits, order.getOrderIdHi, order.getOrderIdLo)
+      Some(Events.cancel(order, timeNs))
+    } else if (index < canceled.size + reduced.size) {
+      val (order, size) = reduced(index - canceled.size)
+      applied += 1
+      book.reduce(order.getSide, order.getPriceUnits, order.getOrderIdHi, order.getOrderIdLo, size)
+      Some(Events.reduce(order, FixedPoint.toDouble(size), timeNs))
+    } else if (index < size) {
+      val order = opened(index - canceled.size - reduced.size)
+      applied += 1
+      book.load(order)
+      book.endLoad()
+      Some(Events.open(order, timeNs))
+    } else {
+      None
+    }
+  }
+
+  // hands back canceled orders already taken off the book and opened orders never put on it
+  def release(pool: OrderPool): Unit = {
+    var index = 0
+    while (index < canceled.size) {
+      if (index < applied) { pool.release(canceled(index)) }
+      index += 1
+    }
+
+    index = 0
+    while (index < opened.size) {
+      if (canceled.size + reduced.size + index >= applied) { pool.release(opened(index)) }
+      index += 1
+    }
+  }
+
+  def clear(): Unit = {
+    applied = 0
+    seen.clear()
+    opened.clear()
+    reduced.clear()
+    canceled.clear()
+  }
+
+}
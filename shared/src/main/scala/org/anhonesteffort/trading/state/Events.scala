@@ -1,6 +1,6 @@
 package org.anhonesteffort.trading.state
 
-import org.anhonesteffort.trading.book.Orders
+import org.anhonesteffort.trading.book.{OrderIds, Orders}
 import org.anhonesteffort.trading.book.Orders.Order
 
 object Events {
@@ -20,47 +20,51 @@ object Events {
   val TYPE_SYNC_START = Type.OPEN
   val TYPE_SYNC_END   = Type.OPEN
 
-  case class OrderEvent(typee: Type, timeMs: Long, timeNs: Long, orderId: String, side: Orders.Side, price: Double, size: Double)
+  case class OrderEvent(
+    typee: Type, timeMs: Long, timeNs: Long, orderIdHi: Long, orderIdLo: Long, side: Orders.Side, price: Double, size: Double
+  ) {
+    lazy val orderId: String = OrderIds.toText(orderIdHi, orderIdLo)
+  }
 
   def open(order: Order, timeNs: Long): OrderEvent = {
     OrderEvent(
       Type.OPEN, System.currentTimeMillis(), timeNs,
-      order.getOrderId, order.getSide, order.getPrice, order.getSize
+      order.getOrderIdHi, order.getOrderIdLo, order.getSide, order.getPrice, order.getSize
     )
   }
 
   def take(order: Order, timeNs: Long): OrderEvent = {
     OrderEvent(
       Type.TAKE, System.currentTimeMillis(), timeNs,
-      order.getOrderId, order.getSide, order.getPrice, order.getSize
+      order.getOrderIdHi, order.getOrderIdLo, order.getSide, order.getPrice, order.getSize
     )
   }
 
   def reduce(order: Order, reduceBy: Double, timeNs: Long): OrderEvent = {
     OrderEvent(
       Type.REDUCE, System.currentTimeMillis(), timeNs,
-      order.getOrderId, order.getSide, order.getPrice, reduceBy
+      order.getOrderIdHi, order.getOrderIdLo, order.getSide, order.getPrice, reduceBy
     )
   }
 
   def cancel(order: Order, timeNs: Long): OrderEvent = {
     OrderEvent(
       Type.REDUCE, System.currentTimeMillis(), timeNs,
-      order.getOrderId, order.getSide, order.getPrice, order.getSize
+      order.getOrderIdHi, order.getOrderIdLo, order.getSide, order.getPrice, order.getSize
     )
   }
 
   def syncStart(timeNs: Long): OrderEvent = {
     OrderEvent(
       Type.SYNC_START, System.currentTimeMillis(), timeNs,
-      "", Orders.Side.ASK, -1d, -1d
+      OrderIds.NONE_HI, OrderIds.NONE_LO, Orders.Side.ASK, -1d, -1d
     )
   }
 
   def syncEnd(timeNs: Long): OrderEvent = {
     OrderEvent(
       Type.SYNC_END, System.currentTimeMillis(), timeNs,
-      "", Orders.Side.ASK, -1d, -1d
+      OrderIds.NONE_HI, OrderIds.NONE_LO, Orders.Side.ASK, -1d, -1d
     )
   }
 
@@ -1,18 +1,25 @@
 package org.anhonesteffort.trading.state
 
-import org.anhonesteffort.trading.book.LimitOrderBook
+import org.anhonesteffort.trading.book.{LimitOrderBook, OrderIdMap, OrderIdSet}
 import org.anhonesteffort.trading.book.Orders.Order
 import org.anhonesteffort.trading.state.Events.OrderEvent
 
 import scala.collection.mutable
 
-case class GdaxState(orderBook: LimitOrderBook) {
+case class GdaxState(
+  orderBook      : LimitOrderBook,
+  clientOIdMap   : OrderIdMap[Order],
+  rxLimitOrders  : OrderIdMap[Order],
+  marketOrderIds : OrderIdSet,
+  makers         : mutable.ArrayBuffer[Order]
+) {
 
-  val clientOIdMap   : mutable.Map[String, String] = new mutable.HashMap[String, String]()
-  val rxLimitOrders  : mutable.Map[String, Order]  = new mutable.HashMap[String, Order]()
-  val marketOrderIds : mutable.Set[String]         = new mutable.HashSet[String]()
-  val makers         : mutable.ArrayBuffer[Order]  = new mutable.ArrayBuffer[Order]()
-  var event          : Option[OrderEvent]          = None
+  var event  : Option[OrderEvent] = None
+  var resync : Option[BookDiff]   = None
+
+  def this(orderBook: LimitOrderBook) = {
+    this(orderBook, new OrderIdMap[Order](), new OrderIdMap[Order](), new OrderIdSet(), new mutable.ArrayBuffer[Order]())
+  }
 
   def clear(): Unit = {
     orderBook.clear()
@@ -20,7 +27,8 @@ case class GdaxState(orderBook: LimitOrderBook) {
     rxLimitOrders.clear()
     marketOrderIds.clear()
     makers.clear()
-    event = None
+    event  = None
+    resync = None
   }
 
 }
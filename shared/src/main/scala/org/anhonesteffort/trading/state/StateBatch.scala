@@ -0,0 +1,65 @@
+package org.anhonesteffort.trading.state
+
+import org.anhonesteffort.trading.state.Events.OrderEvent
+
+import scala.collection.mutable
+
+class StateBatch {
+
+  val events : mutable.ArrayBuffer[OrderEvent] = new mutable.ArrayBuffer[OrderEvent]()
+
+  private var changes   : Int                = 0
+  private var opens     : Int                = 0
+  private var takes     : Int                = 0
+  private var reduces   : Int                = 0
+  private var takeSize  : Double             = 0d
+  private var syncing   : Boolean            = false
+  private var lastEvent : Option[OrderEvent] = None
+
+  def getChanges  : Int    = changes
+  def getOpens    : Int    = opens
+  def getTakes    : Int    = takes
+  def getReduces  : Int    = reduces
+  def getTakeSize : Double = takeSize
+
+  def isSyncing: Boolean = syncing
+
+  def isEmpty: Boolean = changes == 0 && events.isEmpty
+
+  def last: Option[OrderEvent] = lastEvent
+
+  def addChange(): Unit = {
+    changes += 1
+  }
+
+  def add(event: OrderEvent): Unit = {
+    events += event
+
+    event.typee match {
+      case Events.Type.SYNC_START => syncing = true
+      case Events.Type.SYNC_END   => syncing = false
+      case typee                  =>
+        changes  += 1
+        lastEvent = Some(event)
+
+        typee match {
+          case Events.Type.OPEN   => opens   += 1
+          case Events.Type.REDUCE => reduces += 1
+          case _                  =>
+            takes    += 1
+            takeSize += event.size
+        }
+    }
+  }
+
+  def clear(): Unit = {
+    events.clear()
+    changes   = 0
+    opens     = 0
+    takes     = 0
+    reduces   = 0
+    takeSize  = 0d
+    lastEvent = None
+  }
+
+}
@@ -11,4 +11,24 @@ trait StateListener {
   @throws[StateProcessingException]
   def onStateSyncEnd(ns: Long)
 
+  def isConflated: Boolean = false
+
+  @throws[StateProcessingException]
+  def onStateBatch(state: GdaxState, batch: StateBatch, ns: Long): Unit = {
+    batch.events.foreach { event =>
+      event.typee match {
+        case Events.Type.SYNC_START => onStateSyncStart(event.timeNs)
+        case Events.Type.SYNC_END   => onStateSyncEnd(event.timeNs)
+        case _                      => Unit
+      }
+    }
+
+    if (batch.getChanges > 0 && !batch.isSyncing) {
+      onStateChange(state, ns)
+    }
+  }
+
+  @throws[StateProcessingException]
+  def onStateResync(state: GdaxState, diff: BookDiff, ns: Long): Unit = { }
+
 }
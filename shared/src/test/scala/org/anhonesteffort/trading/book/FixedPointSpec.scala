@@ -0,0 +1,50 @@
+package org.anhonesteffort.trading.book
+
+import org.scalatest.FlatSpec
+
+class FixedPointSpec extends FlatSpec {
+
+  "parse" should "read decimals exactly" in {
+    assert(FixedPoint.parse("0")           == 0L)
+    assert(FixedPoint.parse("1")           == 100000000L)
+    assert(FixedPoint.parse("1.5")         == 150000000L)
+    assert(FixedPoint.parse("431.07")      == 43107000000L)
+    assert(FixedPoint.parse("0.00000001")  == 1L)
+    assert(FixedPoint.parse("0.100000000") == 10000000L)
+    assert(FixedPoint.parse(".25")         == 25000000L)
+    assert(FixedPoint.parse("-2.5")        == -250000000L)
+  }
+
+  "parse" should "read from a char range" in {
+    val CHARS = "xx12.34yy".toCharArray
+    assert(FixedPoint.parse(CHARS, 2, 5) == 1234000000L)
+  }
+
+  "parse" should "reject invalid decimals" in {
+    assertThrows[NumberFormatException](FixedPoint.parse(""))
+    assertThrows[NumberFormatException](FixedPoint.parse("-"))
+    assertThrows[NumberFormatException](FixedPoint.parse("."))
+    assertThrows[NumberFormatException](FixedPoint.parse("1.2.3"))
+    assertThrows[NumberFormatException](FixedPoint.parse("1e5"))
+    assertThrows[NumberFormatException](FixedPoint.parse("0.000000001"))
+    assertThrows[NumberFormatException](FixedPoint.parse("99999999999999999999"))
+  }
+
+  "units" should "round trip through doubles" in {
+    assert(FixedPoint.fromDouble(0.1d)                 == 10000000L)
+    assert(FixedPoint.toDouble(FixedPoint.parse("0.3")) == 0.3d)
+    assert(FixedPoint.fromDouble(FixedPoint.toDouble(123456789L)) == 123456789L)
+  }
+
+  "sums of units" should "not drift" in {
+    var UNITS = 0L
+    (1 to 10).foreach(_ => UNITS += FixedPoint.parse("0.1"))
+    assert(UNITS == FixedPoint.parse("1"))
+
+    val ORDER = new Orders.Order("lol", Orders.Side.BID, FixedPoint.parse("431.07"), FixedPoint.parse("0.3"))
+    ORDER.takeSizeUnits(FixedPoint.parse("0.1"))
+    ORDER.takeSizeUnits(FixedPoint.parse("0.2"))
+    assert(ORDER.getSizeRemainingUnits == 0L)
+  }
+
+}
@@ -26,6 +26,83 @@ class LimitOrderBookSpec extends BaseSpec {
     assert(BOOK.remove(Side.BID, 30d, "01").isEmpty)
   }
 
+  "removeById, reduceById" should "find orders without a side or price" in {
+    val BOOK = new LimitOrderBook()
+
+    BOOK.add(newAsk("00", 10, 20))
+    BOOK.add(newBid("01", 8, 40))
+    BOOK.add(newBid("02", 8, 10))
+
+    assert(BOOK.getById(OrderIds.hi("01"), OrderIds.lo("01")) != null)
+    assert(BOOK.removeById("00") != null)
+    assert(BOOK.removeById("00") == null)
+    assert(BOOK.getAskLimits.peek.isEmpty)
+
+    assert(BOOK.reduceById(OrderIds.hi("01"), OrderIds.lo("01"), FixedPoint.fromDouble(40)) != null)
+    assert(BOOK.getById(OrderIds.hi("01"), OrderIds.lo("01")) == null)
+    assert(BOOK.getBidLimits.peek.get.getVolume == 10)
+
+    val RESULT = BOOK.add(newAsk("03", 8, 10))
+    assert(RESULT.makers.size == 1)
+    assert(BOOK.removeById("02") == null)
+    assert(BOOK.isEmpty)
+  }
+
+  "swap" should "swap the id index with the limits" in {
+    val BOOK   = new LimitOrderBook()
+    val SHADOW = new LimitOrderBook()
+
+    BOOK.add(newAsk("00", 10, 20))
+    SHADOW.load(newAsk("01", 10, 20))
+    SHADOW.endLoad()
+    BOOK.swap(SHADOW)
+
+    assert(BOOK.removeById("00") == null)
+    assert(SHADOW.removeById("00") != null)
+    assert(BOOK.removeById("01") != null)
+  }
+
+  "open" should "rest orders that do not cross and refuse ones that do" in {
+    val BOOK = new LimitOrderBook()
+
+    assert(BOOK.open(newAsk("00", 10, 20)))
+    assert(BOOK.open(newBid("01", 9, 20)))
+    assert(!BOOK.open(newBid("02", 10, 5)))
+    assert(!BOOK.open(newAsk("03", 9, 5)))
+
+    assert(BOOK.getAskLimits.peek.get.getVolume == 20)
+    assert(BOOK.getBidLimits.peek.get.getVolume == 20)
+    assert(BOOK.getById(OrderIds.hi("02"), OrderIds.lo("02")) == null)
+  }
+
+  "add with a take" should "append makers to the sink and total each take" in {
+    val BOOK   = new LimitOrderBook()
+    val MAKERS = new scala.collection.mutable.ArrayBuffer[Orders.Order]()
+    val TAKE   = new Take(MAKERS)
+
+    BOOK.add(newAsk("00", 10, 1))
+    BOOK.add(newAsk("01", 11, 2))
+    BOOK.add(newAsk("02", 12, 2))
+
+    BOOK.add(newBid("03", 11, 2), TAKE)
+    assert(TAKE.getMakerCount == 2)
+    assert(TAKE.getTakeSizeUnits == FixedPoint.fromDouble(2))
+    assert(TAKE.getTakeValue == 21d)
+    assert(MAKERS.map(_.getOrderId) == Seq("00", "01"))
+
+    BOOK.add(newBid("04", 12, 3), TAKE)
+    assert(TAKE.getMakerCount == 2)
+    assert(TAKE.getTakeSizeUnits == FixedPoint.fromDouble(3))
+    assert(TAKE.getTakeValue == 35d)
+    assert(MAKERS.map(_.getOrderId) == Seq("00", "01", "01", "02"))
+    assert(BOOK.isEmpty)
+
+    BOOK.add(newBid("05", 12, 1), TAKE)
+    assert(TAKE.getMakerCount == 0)
+    assert(TAKE.getTakeSizeUnits == 0L)
+    assert(BOOK.getBidLimits.peek.get.getVolume == 1)
+  }
+
   "ask" should "not take empty book" in {
     val BOOK   = new LimitOrderBook()
     val RESULT = BOOK.add(newAsk(10, 10))
@@ -564,4 +641,20 @@ class LimitOrderBookSpec extends BaseSpec {
     RESULT.makers.size === 2
   }
 
+  "loaded book" should "match like an added book" in {
+    val BOOK = new LimitOrderBook()
+
+    BOOK.load(newAsk(10d, 31))
+    BOOK.load(newAsk(12d, 33))
+    BOOK.load(newBid( 9d, 10))
+    BOOK.endLoad()
+
+    val RESULT = BOOK.add(newBid(12d, 34))
+    assert(RESULT.takeSize    == 34d)
+    assert(RESULT.makers.size == 2)
+    assert(BOOK.getAskLimits.peek.get.getPrice  == 12d)
+    assert(BOOK.getAskLimits.peek.get.getVolume == 30d)
+    assert(BOOK.getBidLimits.peek.get.getPrice  ==  9d)
+  }
+
 }
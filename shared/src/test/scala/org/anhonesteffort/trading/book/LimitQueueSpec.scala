@@ -76,6 +76,70 @@ class LimitQueueSpec extends BaseSpec {
     assert(BIDS.peek.isEmpty)
   }
 
+  "load, end load asks" should "keep price and time priority" in {
+    val ASKS = new LimitQueue(Side.ASK)
+
+    ASKS.load(newAsk("00",  5d, 2))
+    ASKS.load(newAsk("01", 10d, 1))
+    ASKS.load(newAsk("02", 10d, 2))
+    ASKS.load(newAsk("03", 20d, 2))
+    ASKS.endLoad()
+
+    var BEST_ASK = ASKS.peek
+    assert(BEST_ASK.isDefined)
+    assert(BEST_ASK.get.getPrice  == 5d)
+    assert(BEST_ASK.get.getVolume == 2d)
+    assert(ASKS.remove(5d, "00").isDefined)
+
+    BEST_ASK = ASKS.peek
+    assert(BEST_ASK.isDefined)
+    assert(BEST_ASK.get.getPrice  == 10d)
+    assert(BEST_ASK.get.getVolume ==  3d)
+    assert(BEST_ASK.get.peek.get.getOrderId == "01")
+
+    ASKS.add(newAsk("04", 10d, 1))
+    ASKS.add(newAsk("05",  8d, 1))
+    assert(ASKS.peek.get.getPrice == 8d)
+  }
+
+  "load, end load bids" should "keep price and time priority" in {
+    val BIDS = new LimitQueue(Side.BID)
+
+    BIDS.load(newBid("00", 20d, 2))
+    BIDS.load(newBid("01", 10d, 1))
+    BIDS.load(newBid("02", 10d, 2))
+    BIDS.load(newBid("03",  5d, 2))
+    BIDS.endLoad()
+
+    var BEST_BID = BIDS.peek
+    assert(BEST_BID.isDefined)
+    assert(BEST_BID.get.getPrice  == 20d)
+    assert(BEST_BID.get.getVolume ==  2d)
+    assert(BIDS.remove(20d, "00").isDefined)
+
+    BEST_BID = BIDS.peek
+    assert(BEST_BID.isDefined)
+    assert(BEST_BID.get.getPrice  == 10d)
+    assert(BEST_BID.get.getVolume ==  3d)
+    assert(BEST_BID.get.peek.get.getOrderId == "01")
+  }
+
+  "load" should "accept unsorted orders" in {
+    val ASKS = new LimitQueue(Side.ASK)
+
+    ASKS.load(newAsk("00", 20d, 1))
+    ASKS.load(newAsk("01",  5d, 1))
+    ASKS.load(newAsk("02", 20d, 1))
+    ASKS.load(newAsk("03", 10d, 1))
+    ASKS.endLoad()
+
+    assert(ASKS.remove(5d, "01").isDefined)
+    assert(ASKS.peek.get.getPrice == 10d)
+    assert(ASKS.remove(10d, "03").isDefined)
+    assert(ASKS.peek.get.getPrice  == 20d)
+    assert(ASKS.peek.get.getVolume ==  2d)
+  }
+
   "remove ask liquidity" should "work" in {
     val ASKS = new LimitQueue(Side.ASK)
     var BID  = newBid(15, 5)
@@ -234,4 +298,173 @@ class LimitQueueSpec extends BaseSpec {
     assert(BIDS.peek.isEmpty)
   }
 
+  "ladder asks" should "fall back to sparse levels outside the window and off tick" in {
+    val ASKS = new LimitQueue(Side.ASK, FixedPoint.fromDouble(1d), 8)
+
+    ASKS.add(newAsk("00", 100d,   1))
+    ASKS.add(newAsk("01", 102d,   1))
+    ASKS.add(newAsk("02", 150d,   1))
+    ASKS.add(newAsk("03",  99.5d, 1))
+    assert(ASKS.peek.get.getPrice == 99.5d)
+    assert(ASKS.get(FixedPoint.fromDouble(150d), OrderIds.hi("02"), OrderIds.lo("02")).isDefined)
+
+    assert(ASKS.remove(99.5d, "03").isDefined)
+    assert(ASKS.peek.get.getPrice == 100d)
+    assert(ASKS.remove(100d, "00").isDefined)
+    assert(ASKS.peek.get.getPrice == 102d)
+    assert(ASKS.reduce(FixedPoint.fromDouble(102d), OrderIds.hi("01"), OrderIds.lo("01"), FixedPoint.fromDouble(1d)).isDefined)
+    assert(ASKS.peek.get.getPrice == 150d)
+
+    ASKS.add(newAsk("04", 200d, 1))
+    assert(ASKS.peek.get.getPrice == 150d)
+    assert(ASKS.remove(150d, "02").isDefined)
+    assert(ASKS.peek.get.getPrice == 200d)
+    assert(ASKS.remove(200d, "04").isDefined)
+    assert(ASKS.peek.isEmpty)
+  }
+
+  "ladder bids" should "re-center on a new best level" in {
+    val BIDS = new LimitQueue(Side.BID, FixedPoint.fromDouble(1d), 8)
+    val ASK  = newAsk(97, 3)
+
+    BIDS.add(newBid("00", 100d, 1))
+    BIDS.add(newBid("01",  98d, 1))
+    BIDS.add(newBid("02", 110d, 1))
+    BIDS.add(newBid("03", 109d, 1))
+    assert(BIDS.peek.get.getPrice == 110d)
+
+    var count = 0
+    BIDS.foreach(_ => count += 1)
+    assert(count == 4)
+
+    assert(BIDS.remove(110d, "02").isDefined)
+    assert(BIDS.peek.get.getPrice == 109d)
+    assert(BIDS.remove(109d, "03").isDefined)
+    assert(BIDS.peek.get.getPrice == 100d)
+
+    assert(BIDS.takeLiquidityFromBestLimit(ASK).size == 1)
+    assert(BIDS.peek.get.getPrice == 98d)
+    assert(BIDS.takeLiquidityFromBestLimit(ASK).size == 1)
+    assert(BIDS.peek.isEmpty)
+    assert(ASK.getSizeRemaining == 1d)
+
+    BIDS.add(newBid("04", 50d, 1))
+    assert(BIDS.peek.get.getPrice == 50d)
+    BIDS.clear()
+    assert(BIDS.peek.isEmpty)
+  }
+
+  "top" should "visit levels best first across the ladder and sparse levels" in {
+    val ASKS   = new LimitQueue(Side.ASK, FixedPoint.fromDouble(1d), 8)
+    val PRICES = new scala.collection.mutable.ArrayBuffer[Double]()
+
+    ASKS.add(newAsk("00", 100d,   1))
+    ASKS.add(newAsk("01", 102d,   1))
+    ASKS.add(newAsk("02", 101.5d, 1))
+    ASKS.add(newAsk("03", 150d,   1))
+    ASKS.add(newAsk("04",  99d,   1))
+    ASKS.add(newAsk("05", 102d,   2))
+    ASKS.add(newAsk("06",  90d,   1))
+    assert(ASKS.getLevels == 6)
+
+    assert(ASKS.top(4, limit => PRICES += limit.getPrice) == 4)
+    assert(PRICES == Seq(90d, 99d, 100d, 101.5d))
+
+    PRICES.clear()
+    assert(ASKS.top(10, limit => PRICES += limit.getPrice) == 6)
+    assert(PRICES == Seq(90d, 99d, 100d, 101.5d, 102d, 150d))
+
+    assert(ASKS.remove(90d, "06").isDefined)
+    assert(ASKS.remove(101.5d, "02").isDefined)
+    assert(ASKS.getLevels == 4)
+
+    PRICES.clear()
+    ASKS.top(10, limit => PRICES += limit.getPrice)
+    assert(PRICES == Seq(99d, 100d, 102d, 150d))
+
+    ASKS.clear()
+    assert(ASKS.getLevels == 0)
+    assert(ASKS.top(10, limit => PRICES += limit.getPrice) == 0)
+  }
+
+  "volumeWithin and ordersWithin" should "sum levels within a distance of the best bid" in {
+    val BIDS = new LimitQueue(Side.BID, FixedPoint.fromDouble(1d), 8)
+    val ASK  = newAsk(100d, 1)
+
+    assert(BIDS.volumeWithin(10d) == 0d)
+    BIDS.add(newBid("00", 100d, 1))
+    BIDS.add(newBid("01", 100d, 2))
+    BIDS.add(newBid("02",  99d, 3))
+    BIDS.add(newBid("03",  97d, 4))
+    BIDS.add(newBid("04",  50d, 5))
+
+    assert(BIDS.peek.get.getOrderCount == 2)
+    assert(BIDS.volumeWithin(0d) == 3d)
+    assert(BIDS.volumeWithin(1d) == 6d)
+    assert(BIDS.volumeWithin(3d) == 10d)
+    assert(BIDS.volumeWithin(100d) == 15d)
+    assert(BIDS.ordersWithin(FixedPoint.fromDouble(3d)) == 4)
+
+    assert(BIDS.takeLiquidityFromBestLimit(ASK).size == 1)
+    assert(BIDS.peek.get.getOrderCount == 1)
+    assert(BIDS.ordersWithin(FixedPoint.fromDouble(3d)) == 3)
+    assert(BIDS.volumeWithin(1d) == 5d)
+  }
+
+  private def prices(queue: LimitQueue): Seq[Double] = {
+    val PRICES = new scala.collection.mutable.ArrayBuffer[Double]()
+    queue.top(Int.MaxValue, limit => PRICES += limit.getPrice)
+    PRICES
+  }
+
+  "ladder bids" should "keep levels in order as the touch drifts away through removals" in {
+    val BIDS   = new LimitQueue(Side.BID, FixedPoint.fromDouble(1d), 8)
+    val LEVELS = (0 until 40).map(tick => 200d - tick) ++ Seq(180.5d, 170.25d, 150.5d)
+
+    LEVELS.zipWithIndex.foreach { case (price, id) => BIDS.add(newBid(f"$id%02d", price, 1)) }
+    assert(BIDS.getLevels == LEVELS.size)
+    assert(prices(BIDS) == LEVELS.sorted.reverse)
+
+    LEVELS.sorted.reverse.zipWithIndex.foreach { case (price, removed) =>
+      assert(BIDS.peek.get.getPrice == price)
+      val id = LEVELS.indexOf(price)
+      assert(BIDS.remove(price, f"$id%02d").isDefined)
+      assert(prices(BIDS) == LEVELS.sorted.reverse.drop(removed + 1))
+    }
+    assert(BIDS.peek.isEmpty)
+  }
+
+  "ladder asks" should "find neighbors across the ladder and many sparse levels in any order" in {
+    val ASKS   = new LimitQueue(Side.ASK, FixedPoint.fromDouble(1d), 8)
+    val RANDOM = new scala.util.Random(11)
+    val LEVELS = RANDOM.shuffle((0 until 60).map(tick => 100d + (tick * 3)) ++ (0 until 20).map(tick => 100.5d + (tick * 7)))
+
+    LEVELS.zipWithIndex.foreach { case (price, id) =>
+      ASKS.add(newAsk(f"$id%02d", price, 1))
+      assert(prices(ASKS) == LEVELS.take(id + 1).sorted)
+    }
+
+    RANDOM.shuffle(LEVELS.zipWithIndex).zipWithIndex.foreach { case ((price, id), removed) =>
+      assert(ASKS.remove(price, f"$id%02d").isDefined)
+      assert(ASKS.getLevels == LEVELS.size - removed - 1)
+    }
+    assert(ASKS.peek.isEmpty)
+
+    ASKS.add(newAsk("99", 1000d, 1))
+    assert(prices(ASKS) == Seq(1000d))
+  }
+
+  "a recycled level" should "start empty after a reduce larger than its order" in {
+    val ASKS = new LimitQueue(Side.ASK)
+
+    ASKS.add(newAsk("00", 100d, 5))
+    assert(ASKS.reduce(FixedPoint.fromDouble(100d), OrderIds.hi("00"), OrderIds.lo("00"), FixedPoint.fromDouble(7d)).isDefined)
+    assert(ASKS.peek.isEmpty)
+
+    ASKS.add(newAsk("01", 101d, 1))
+    assert(ASKS.peek.get.getPrice == 101d)
+    assert(ASKS.peek.get.getVolume == 1d)
+    assert(ASKS.peek.get.getOrderCount == 1)
+  }
+
 }
@@ -13,7 +13,7 @@ class LimitSpec extends BaseSpec {
   }
 
   "limit getters, add(), remove(), clear() and volume" should "work" in {
-    val LIMIT = new Limit(1020)
+    val LIMIT = new Limit(1020d)
 
     LIMIT.getPrice  === 1020
     LIMIT.getVolume === 0
@@ -33,7 +33,7 @@ class LimitSpec extends BaseSpec {
   }
 
   "limit takeLiquidity() with no maker" should "work" in {
-    val LIMIT   = new Limit(1020)
+    val LIMIT   = new Limit(1020d)
     val TAKER1  = newOrder("00", 10)
     val MAKERS1 = LIMIT.takeLiquidity(TAKER1)
 
@@ -42,7 +42,7 @@ class LimitSpec extends BaseSpec {
   }
 
   "market takeLiquidity() with no maker" should "work" in {
-    val LIMIT   = new Limit(1020)
+    val LIMIT   = new Limit(1020d)
     val TAKER1  = newMarketOrder("00", 10, 20)
     val MAKERS1 = LIMIT.takeLiquidity(TAKER1)
 
@@ -51,7 +51,7 @@ class LimitSpec extends BaseSpec {
   }
   
   "one full take one full make" should "work" in {
-    val LIMIT = new Limit(1020)
+    val LIMIT = new Limit(1020d)
 
     LIMIT.add(newOrder("00", 10))
 
@@ -65,7 +65,7 @@ class LimitSpec extends BaseSpec {
   }
   
   "one full market size take one full make" should "work" in {
-    val LIMIT = new Limit(1020)
+    val LIMIT = new Limit(1020d)
 
     LIMIT.add(newOrder("00", 10))
 
@@ -79,7 +79,7 @@ class LimitSpec extends BaseSpec {
   }
 
   "one full market funds take one full make" should "work" in {
-    val LIMIT = new Limit(1)
+    val LIMIT = new Limit(1d)
 
     LIMIT.add(newOrder("00", 10))
 
@@ -93,7 +93,7 @@ class LimitSpec extends BaseSpec {
   }
 
   "one full market size funds take one full make" should "work" in {
-    val LIMIT = new Limit(1)
+    val LIMIT = new Limit(1d)
 
     LIMIT.add(newOrder("00", 12))
 
@@ -107,7 +107,7 @@ class LimitSpec extends BaseSpec {
   }
 
   "full take partial  make" should "work" in {
-    val LIMIT = new Limit(1020)
+    val LIMIT = new Limit(1020d)
 
     LIMIT.add(newOrder("00", 10))
 
@@ -121,7 +121,7 @@ class LimitSpec extends BaseSpec {
   }
 
   "full market size take partial make" should "work" in {
-    val LIMIT = new Limit(1020)
+    val LIMIT = new Limit(1020d)
 
     LIMIT.add(newOrder("00", 10))
 
@@ -135,7 +135,7 @@ class LimitSpec extends BaseSpec {
   }
 
   "full market funds take partial make" should "work" in {
-    val LIMIT = new Limit(1)
+    val LIMIT = new Limit(1d)
 
     LIMIT.add(newOrder("00", 10))
 
@@ -149,7 +149,7 @@ class LimitSpec extends BaseSpec {
   }
 
   "full market size funds take partial make" should "work" in {
-    val LIMIT = new Limit(1)
+    val LIMIT = new Limit(1d)
 
     LIMIT.add(newOrder("00", 10))
 
@@ -163,7 +163,7 @@ class LimitSpec extends BaseSpec {
   }
 
   "one full take one partial take" should "work" in {
-    val LIMIT = new Limit(1020)
+    val LIMIT = new Limit(1020d)
 
     LIMIT.add(newOrder("00", 10))
 
@@ -185,7 +185,7 @@ class LimitSpec extends BaseSpec {
   }
 
   "two full makes one full take" should "work" in {
-    val LIMIT = new Limit(1020)
+    val LIMIT = new Limit(1020d)
 
     LIMIT.add(newOrder("00", 10))
     LIMIT.add(newOrder("01", 30))
@@ -201,7 +201,7 @@ class LimitSpec extends BaseSpec {
   }
 
   "one full make one partial make one full take" should "work" in {
-    val LIMIT = new Limit(1020)
+    val LIMIT = new Limit(1020d)
 
     LIMIT.add(newOrder("00", 10))
     LIMIT.add(newOrder("01", 30))
@@ -216,4 +216,48 @@ class LimitSpec extends BaseSpec {
     LIMIT.getVolume               === 10
   }
 
+  "remove() and reduce() from the middle of a limit" should "keep fifo order" in {
+    val LIMIT = new Limit(1020d)
+
+    LIMIT.add(newOrder("00", 10))
+    LIMIT.add(newOrder("01", 20))
+    LIMIT.add(newOrder("02", 30))
+    LIMIT.add(newOrder("03", 40))
+
+    assert(LIMIT.remove("01").isDefined)
+    assert(LIMIT.reduce(OrderIds.hi("02"), OrderIds.lo("02"), FixedPoint.fromDouble(30)).isDefined)
+    assert(LIMIT.get(OrderIds.hi("02"), OrderIds.lo("02")).isEmpty)
+
+    val ORDERS = new scala.collection.mutable.ArrayBuffer[String]()
+    LIMIT.foreach(ORDERS += _.getOrderId)
+
+    assert(ORDERS == Seq("00", "03"))
+    assert(LIMIT.getVolume == 50)
+
+    val TAKER1  = newOrder("04", 50)
+    val MAKERS1 = LIMIT.takeLiquidity(TAKER1)
+
+    assert(MAKERS1.map(_.getOrderId) == Seq("00", "03"))
+    assert(LIMIT.peek.isEmpty)
+    assert(LIMIT.getVolume == 0)
+  }
+
+  "add() of an order already in the limit" should "replace it" in {
+    val LIMIT = new Limit(1020d)
+
+    LIMIT.add(newOrder("00", 10))
+    LIMIT.add(newOrder("01", 20))
+    LIMIT.add(newOrder("00", 15))
+
+    val ORDERS = new scala.collection.mutable.ArrayBuffer[String]()
+    LIMIT.foreach(ORDERS += _.getOrderId)
+
+    assert(ORDERS == Seq("01", "00"))
+    assert(LIMIT.getVolume == 35)
+
+    LIMIT.clear()
+    LIMIT.add(newOrder("02", 5))
+    assert(LIMIT.peek.get.getOrderId == "02")
+  }
+
 }
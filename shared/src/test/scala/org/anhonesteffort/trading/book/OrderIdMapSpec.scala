@@ -0,0 +1,55 @@
+package org.anhonesteffort.trading.book
+
+import org.scalatest.FlatSpec
+
+class OrderIdMapSpec extends FlatSpec {
+
+  "put, get, remove, clear" should "work" in {
+    val MAP = new OrderIdMap[String]()
+
+    assert(MAP.put(1L, 2L, "a") == null)
+    assert(MAP.put(1L, 3L, "b") == null)
+    assert(MAP.put(1L, 2L, "c") == "a")
+    assert(MAP.size == 2)
+
+    assert(MAP.get(1L, 2L) == "c")
+    assert(MAP.get(2L, 1L) == null)
+    assert(MAP.contains(1L, 3L))
+
+    assert(MAP.remove(1L, 2L) == "c")
+    assert(MAP.remove(1L, 2L) == null)
+    assert(MAP.size == 1)
+
+    MAP.clear()
+    assert(MAP.isEmpty)
+    assert(MAP.get(1L, 3L) == null)
+  }
+
+  "many entries" should "survive resizes and removals" in {
+    val MAP = new OrderIdMap[java.lang.Long](4)
+
+    (0L until 10000L).foreach(i => MAP.put(i * 31L, i, i))
+    assert(MAP.size == 10000)
+
+    (0L until 10000L by 2L).foreach(i => assert(MAP.remove(i * 31L, i) == i))
+    assert(MAP.size == 5000)
+
+    (0L until 10000L).foreach(i =>
+      if (i % 2 == 0) assert(MAP.get(i * 31L, i) == null) else assert(MAP.get(i * 31L, i) == i)
+    )
+
+    var SUM = 0L
+    MAP.foreach(SUM += _)
+    assert(SUM == (1L until 10000L by 2L).sum)
+  }
+
+  "id sets" should "work" in {
+    val SET = new OrderIdSet()
+    assert(SET.add(5L, 6L))
+    assert(!SET.add(5L, 6L))
+    assert(SET.contains(5L, 6L))
+    assert(SET.remove(5L, 6L))
+    assert(!SET.remove(5L, 6L))
+  }
+
+}
@@ -0,0 +1,48 @@
+package org.anhonesteffort.trading.book
+
+import org.scalatest.FlatSpec
+
+class OrderIdsSpec extends FlatSpec {
+
+  private val UUID = "d50ec984-77a8-460a-b958-66f114b0de9b"
+
+  "uuids" should "encode to two longs and back" in {
+    val CHARS = UUID.toCharArray
+    assert(OrderIds.isUuid(CHARS, 0, CHARS.length))
+    assert(OrderIds.uuidHi(CHARS, 0) == 0xd50ec98477a8460aL)
+    assert(OrderIds.uuidLo(CHARS, 0) == 0xb95866f114b0de9bL)
+    assert(OrderIds.hi(UUID)         == 0xd50ec98477a8460aL)
+    assert(OrderIds.toText(OrderIds.hi(UUID), OrderIds.lo(UUID)) == UUID)
+    assert(OrderIds.hi(UUID.toUpperCase) == OrderIds.hi(UUID))
+  }
+
+  "invalid uuids" should "be rejected" in {
+    val SHORT  = UUID.substring(1).toCharArray
+    val DASHES = UUID.replace('-', '0').toCharArray
+    val HEX    = UUID.replace('d', 'x').toCharArray
+    assert(!OrderIds.isUuid(SHORT,  0, SHORT.length))
+    assert(!OrderIds.isUuid(DASHES, 0, DASHES.length))
+    assert(!OrderIds.isUuid(HEX,    0, HEX.length))
+  }
+
+  "short ids" should "pack without loss" in {
+    Seq("00", "lol", "123456789012345").foreach(id =>
+      assert(OrderIds.toText(OrderIds.hi(id), OrderIds.lo(id)) == id)
+    )
+    assert(OrderIds.hi("00") != OrderIds.hi("01"))
+  }
+
+  "long ids" should "hash and keep their text on the order" in {
+    val ID    = "not-a-uuid-but-rather-long"
+    val ORDER = new Orders.Order(ID, Orders.Side.BID, 10d, 1d)
+    assert(ORDER.getOrderIdHi == OrderIds.hi(ID))
+    assert(ORDER.getOrderIdLo == OrderIds.lo(ID))
+    assert(ORDER.getOrderId   == ID)
+  }
+
+  "none" should "have empty text" in {
+    assert(OrderIds.isNone(OrderIds.NONE_HI, OrderIds.NONE_LO))
+    assert(OrderIds.toText(OrderIds.NONE_HI, OrderIds.NONE_LO) == "")
+  }
+
+}
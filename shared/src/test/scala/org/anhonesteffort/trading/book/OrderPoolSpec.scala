@@ -0,0 +1,92 @@
+package org.anhonesteffort.trading.book
+
+import org.anhonesteffort.trading.book.Orders.Side
+import org.anhonesteffort.trading.state.BookDiff
+
+class OrderPoolSpec extends BaseSpec {
+
+  private val PRICE = FixedPoint.fromDouble(10d)
+  private val SIZE  = FixedPoint.fromDouble(2d)
+
+  "acquire after release" should "recycle the released order" in {
+    val POOL  = new OrderPool(4)
+    val ORDER = POOL.acquire(1L, 1L, Side.ASK, PRICE, SIZE)
+
+    ORDER.takeSizeUnits(SIZE)
+    POOL.release(ORDER)
+    POOL.release(ORDER)
+    assert(POOL.getFree == 1)
+
+    val AGAIN = POOL.acquire(2L, 2L, Side.BID, PRICE, SIZE)
+    assert(AGAIN eq ORDER)
+    assert(AGAIN.getOrderIdLo == 2L)
+    assert(AGAIN.getSide == Side.BID)
+    assert(AGAIN.getSizeRemainingUnits == SIZE)
+    assert(AGAIN.getValueRemoved == 0d)
+    assert(POOL.getFree == 0)
+    assert(POOL.getRecycled == 1L)
+  }
+
+  "release" should "drop orders past capacity and refuse resting orders" in {
+    val POOL = new OrderPool(1)
+    val BOOK = new LimitOrderBook(POOL)
+
+    POOL.release(newAsk("00", 10, 2))
+    POOL.release(newAsk("01", 10, 2))
+    assert(POOL.getFree == 1)
+
+    val RESTING = POOL.acquire(3L, 3L, Side.ASK, PRICE, SIZE)
+    BOOK.add(RESTING)
+    assertThrows[IllegalStateException] { POOL.release(RESTING) }
+
+    POOL.release(BOOK.removeById(3L, 3L))
+    assert(POOL.getFree == 1)
+  }
+
+  "copy" should "not follow a recycled order" in {
+    val POOL  = new OrderPool(1)
+    val ORDER = POOL.acquire(1L, 1L, Side.ASK, PRICE, SIZE)
+    val COPY  = ORDER.copy()
+
+    POOL.release(ORDER)
+    POOL.acquire(2L, 2L, Side.BID, PRICE, SIZE)
+
+    assert(COPY.getOrderIdLo == 1L)
+    assert(COPY.getSide == Side.ASK)
+  }
+
+  "a resync" should "hand back every order it drops" in {
+    val POOL   = new OrderPool(16)
+    val LIVE   = new LimitOrderBook(POOL)
+    val SHADOW = new LimitOrderBook(POOL)
+    val DIFF   = new BookDiff()
+
+    LIVE.add(POOL.acquire(0L, 1L, Side.ASK, PRICE, SIZE))
+    LIVE.add(POOL.acquire(0L, 2L, Side.ASK, PRICE * 2, SIZE))
+    LIVE.add(POOL.acquire(0L, 3L, Side.BID, PRICE / 2, SIZE))
+
+    val SAME    = POOL.acquire(0L, 1L, Side.ASK, PRICE, SIZE)
+    val REDUCED = POOL.acquire(0L, 2L, Side.ASK, PRICE * 2, SIZE / 2)
+    assert(!DIFF.compare(LIVE, SAME))
+    assert(!DIFF.compare(LIVE, REDUCED))
+    assert(DIFF.compare(LIVE, POOL.acquire(0L, 4L, Side.BID, PRICE / 4, SIZE)))
+    POOL.release(SAME)
+    POOL.release(REDUCED)
+    DIFF.sweep(LIVE)
+
+    while (DIFF.applyNext(LIVE, 0L).isDefined) { }
+    DIFF.release(POOL)
+    assert(POOL.getFree == 3)
+
+    SHADOW.load(POOL.acquire(0L, 5L, Side.ASK, PRICE, SIZE))
+    SHADOW.endLoad()
+    LIVE.swap(SHADOW)
+    SHADOW.release()
+
+    assert(SHADOW.isEmpty)
+    assert(LIVE.getById(0L, 5L) != null)
+    assert(POOL.getFree == 5)
+    assert(POOL.getAcquired - POOL.getRecycled == POOL.getFree + 1L)
+  }
+
+}
@@ -6,7 +6,7 @@ import org.scalatest.FlatSpec
 class OrdersSpec extends FlatSpec {
 
   "limit order implementation" should "work" in {
-    val ORDER = new Order("lol", Side.BID, 10, 20)
+    val ORDER = new Order("lol", Side.BID, 10d, 20d)
 
     ORDER.getOrderId       === "lol"
     ORDER.getSide          === Side.BID
@@ -0,0 +1,91 @@
+package org.anhonesteffort.trading.state
+
+import org.anhonesteffort.trading.book.{BaseSpec, LimitOrderBook, OrderIds, Orders}
+
+class BookDiffSpec extends BaseSpec {
+
+  "identical snapshot" should "produce an empty diff" in {
+    val LIVE = new LimitOrderBook()
+    val DIFF = new BookDiff()
+
+    LIVE.add(newAsk("00", 10d, 1d))
+    LIVE.add(newBid("01",  9d, 1d))
+
+    DIFF.compare(LIVE, newAsk("00", 10d, 1d))
+    DIFF.compare(LIVE, newBid("01",  9d, 1d))
+    DIFF.sweep(LIVE)
+
+    assert(DIFF.isEmpty)
+    assert(DIFF.events(0L).isEmpty)
+  }
+
+  "divergent snapshot" should "produce opens, reduces and cancels" in {
+    val LIVE = new LimitOrderBook()
+    val DIFF = new BookDiff()
+
+    LIVE.add(newAsk("00", 10d, 2d))
+    LIVE.add(newAsk("01", 11d, 1d))
+    LIVE.add(newBid("02",  9d, 1d))
+    LIVE.add(newBid("03",  8d, 1d))
+
+    DIFF.compare(LIVE, newAsk("00", 10d, 1.5d))
+    DIFF.compare(LIVE, newBid("02",  9d, 2d))
+    DIFF.compare(LIVE, newBid("04",  8d, 1d))
+    DIFF.sweep(LIVE)
+
+    assert(DIFF.size == 6)
+    assert(DIFF.reduced.size == 1)
+    assert(DIFF.reduced.head._1.getOrderId == "00")
+    assert(DIFF.reduced.head._2 == 50000000L)
+    assert(DIFF.canceled.map(_.getOrderId).toSet == Set("01", "02", "03"))
+    assert(DIFF.opened.map(_.getOrderId) == Seq("02", "04"))
+
+    val EVENTS = DIFF.events(0L)
+    assert(EVENTS.size == 6)
+    assert(EVENTS.last.typee == Events.Type.OPEN)
+
+    DIFF.clear()
+    assert(DIFF.isEmpty)
+  }
+
+  "applied diff" should "converge the live book" in {
+    val LIVE = new LimitOrderBook()
+    val DIFF = new BookDiff()
+
+    LIVE.add(newAsk("00", 10d, 2d))
+    LIVE.add(newAsk("01", 11d, 1d))
+    LIVE.add(newBid("02",  9d, 1d))
+
+    DIFF.compare(LIVE, newAsk("00", 10d, 1.5d))
+    DIFF.compare(LIVE, newBid("02",  9d, 1d))
+    DIFF.compare(LIVE, newBid("03",  8d, 1d))
+    DIFF.compare(LIVE, newAsk("04", 12d, 1d))
+    DIFF.sweep(LIVE)
+
+    var APPLIED = 0
+    while (DIFF.applyNext(LIVE, 0L).isDefined) { APPLIED += 1 }
+
+    assert(APPLIED == 4)
+    assert(LIVE.getAskLimits.peek.get.getPrice  == 10d)
+    assert(LIVE.getAskLimits.peek.get.getVolume == 1.5d)
+    assert(LIVE.get(Orders.Side.ASK, 1100000000L, OrderIds.hi("01"), OrderIds.lo("01")).isEmpty)
+    assert(LIVE.get(Orders.Side.ASK, 1200000000L, OrderIds.hi("04"), OrderIds.lo("04")).isDefined)
+    assert(LIVE.get(Orders.Side.BID,  800000000L, OrderIds.hi("03"), OrderIds.lo("03")).isDefined)
+    assert(LIVE.getBidLimits.peek.get.getPrice == 9d)
+  }
+
+  "swap" should "exchange book contents" in {
+    val LIVE   = new LimitOrderBook()
+    val SHADOW = new LimitOrderBook()
+
+    LIVE.add(newAsk("00", 10d, 1d))
+    SHADOW.load(newAsk("01", 11d, 1d))
+    SHADOW.endLoad()
+    LIVE.swap(SHADOW)
+
+    assert(LIVE.getAskLimits.peek.get.getPrice == 11d)
+    assert(LIVE.get(Orders.Side.ASK, 1100000000L, OrderIds.hi("01"), OrderIds.lo("01")).isDefined)
+    assert(SHADOW.getAskLimits.peek.get.getPrice == 10d)
+  }
+
+}
@@ -0,0 +1,64 @@
+package org.anhonesteffort.trading.state
+
+import org.anhonesteffort.trading.book.BaseSpec
+
+class StateBatchSpec extends BaseSpec {
+
+  "new batch" should "be empty" in {
+    val BATCH = new StateBatch()
+
+    assert(BATCH.isEmpty)
+    assert(BATCH.last.isEmpty)
+    assert(!BATCH.isSyncing)
+  }
+
+  "batch" should "aggregate events by type" in {
+    val BATCH = new StateBatch()
+
+    BATCH.add(Events.open(newAsk("00", 10d, 1d), 1L))
+    BATCH.add(Events.take(newAsk("01", 10d, 0.5d), 2L))
+    BATCH.add(Events.take(newBid("02",  9d, 1.5d), 3L))
+    BATCH.add(Events.cancel(newBid("03", 9d, 1d), 4L))
+    BATCH.addChange()
+
+    assert(!BATCH.isEmpty)
+    assert(BATCH.getChanges  == 5)
+    assert(BATCH.getOpens    == 1)
+    assert(BATCH.getTakes    == 2)
+    assert(BATCH.getReduces  == 1)
+    assert(BATCH.getTakeSize == 2d)
+    assert(BATCH.events.size == 4)
+    assert(BATCH.last.get.orderId == "03")
+  }
+
+  "sync markers" should "be kept in order without counting as changes" in {
+    val BATCH = new StateBatch()
+
+    BATCH.add(Events.open(newAsk("00", 10d, 1d), 1L))
+    BATCH.add(Events.syncStart(2L))
+
+    assert(BATCH.isSyncing)
+    assert(BATCH.getChanges == 1)
+    assert(BATCH.events.map(_.typee) == Seq(Events.Type.OPEN, Events.Type.SYNC_START))
+
+    BATCH.clear()
+    BATCH.add(Events.syncEnd(3L))
+
+    assert(!BATCH.isSyncing)
+    assert(BATCH.getChanges == 0)
+    assert(!BATCH.isEmpty)
+  }
+
+  "cleared batch" should "keep sync state" in {
+    val BATCH = new StateBatch()
+
+    BATCH.add(Events.syncStart(1L))
+    BATCH.add(Events.open(newAsk("00", 10d, 1d), 2L))
+    BATCH.clear()
+
+    assert(BATCH.isEmpty)
+    assert(BATCH.last.isEmpty)
+    assert(BATCH.isSyncing)
+  }
+
+}